@@ -2,6 +2,7 @@ package com.dgsw.heckathon;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
@@ -10,6 +11,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 
 @SpringBootApplication
+@EnableScheduling
 public class HeckathonApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,256 @@
+package com.dgsw.heckathon.ai;
+
+import com.dgsw.heckathon.weather.CurrentWeatherResponse;
+import com.dgsw.heckathon.weather.FanOutExecutor;
+import com.dgsw.heckathon.weather.OpenWeatherApiService;
+import com.dgsw.heckathon.weather.WeatherTiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 쿼드트리 방식의 적응형 날씨 이벤트 스캔.
+ * 먼저 latStep x lonStep 의 성긴 격자를 조회한 뒤, 이벤트가 감지됐거나 같은 단계의 이웃 칸과 판정이 다른 칸만
+ * 4개의 하위 칸으로 나눠 다시 조회합니다. 칸 크기가 최소 크기보다 작아지거나 호출 예산을 다 쓰면 멈춥니다.
+ * 균일 격자를 촘촘히 하는 것보다 훨씬 적은 호출로 강수 경계 부근만 세밀하게 볼 수 있습니다.
+ */
+@Component
+public class AdaptiveEventScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveEventScanner.class);
+
+    private final OpenWeatherApiService openWeatherApiService;
+    private final FanOutExecutor fanOutExecutor;
+
+    // 격자 지점 날씨를 주변 캐시 타일 보간으로 대신할 수 있는지 여부 (실시간 스캔과 같은 설정)
+    @Value("${weather.interpolation.earth.enabled:false}")
+    private boolean weatherInterpolationEnabled;
+
+    @Value("${earth.adaptive.min-cell-degrees:1.25}")
+    private double defaultMinCellDegrees;
+
+    @Value("${earth.adaptive.max-calls:400}")
+    private int defaultMaxCalls;
+
+    // 요청한 maxCalls 도 넘을 수 없는 스캔 1회 호출 상한 (균일 격자 스캔과 같은 한도)
+    @Value("${earth.scan.max-calls-per-job:2000}")
+    private int maxCallsPerScan;
+
+    public AdaptiveEventScanner(OpenWeatherApiService openWeatherApiService, FanOutExecutor fanOutExecutor) {
+        this.openWeatherApiService = openWeatherApiService;
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    /** 요청 maxCalls(없으면 설정값)를 스캔 1회 상한으로 자른 호출 예산 */
+    public int budgetFor(Integer maxCalls) {
+        return Math.max(0, Math.min(maxCalls != null ? maxCalls : defaultMaxCalls, maxCallsPerScan));
+    }
+
+    /**
+     * 0단계 격자만으로 호출 예산을 넘으면 오류 메시지, 아니면 null. (조회 전에 확인)
+     * 0단계 칸은 세분화 여부와 관계없이 모두 조회되므로, 이 값이 적응형 스캔의 최소 호출 수입니다.
+     */
+    public String validateScanCost(double centerLat, double centerLon, double searchRadiusDegrees,
+                                   double latStep, double lonStep, Integer maxCalls) {
+        long cells = countLevelZeroCells(centerLat, centerLon, searchRadiusDegrees, latStep, lonStep);
+        int budget = budgetFor(maxCalls);
+        if (cells > budget) {
+            return "적응형 스캔의 첫 격자 지점 수(" + cells + ")가 호출 예산(" + budget
+                    + ")을 넘습니다. 반경을 줄이거나 latStep/lonStep 을 늘려 주세요.";
+        }
+        return null;
+    }
+
+    /** 0단계 격자 칸 수 (목록을 만들지 않고 계산, 넘치면 Long.MAX_VALUE) */
+    public long countLevelZeroCells(double centerLat, double centerLon, double searchRadiusDegrees,
+                                    double latStep, double lonStep) {
+        double[] bounds = levelZeroBounds(centerLat, centerLon, searchRadiusDegrees, lonStep);
+        return OpenAiNavigationService.gridSize(OpenAiNavigationService.steps(bounds[0], bounds[1], latStep),
+                OpenAiNavigationService.steps(bounds[2], bounds[3], lonStep));
+    }
+
+    /**
+     * 중심 좌표 주변 반경(도) 안을 적응형으로 스캔합니다.
+     * minCellDegrees / maxCalls 가 null 이면 설정값을 사용합니다. 예산이나 마감 시간 때문에 세분화를 끝까지 못 하면 partial.
+     * 결과 지점에는 해당 칸의 크기(cellSizeLat, cellSizeLon)가 함께 들어갑니다.
+     * @throws IllegalArgumentException 0단계 격자만으로 호출 예산을 넘는 경우 ({@link #validateScanCost})
+     */
+    public EarthScanResult scan(double centerLat, double centerLon, double searchRadiusDegrees,
+                                double latStep, double lonStep, Double minCellDegrees, Integer maxCalls,
+                                long deadlineAtMillis) {
+        double minCell = minCellDegrees != null ? minCellDegrees : defaultMinCellDegrees;
+        int budget = budgetFor(maxCalls);
+        String costError = validateScanCost(centerLat, centerLon, searchRadiusDegrees, latStep, lonStep, maxCalls);
+        if (costError != null) {
+            throw new IllegalArgumentException(costError);
+        }
+
+        double[] bounds = levelZeroBounds(centerLat, centerLon, searchRadiusDegrees, lonStep);
+        double minLat = bounds[0];
+        double minLon = bounds[2];
+
+        // 0단계: 기존 균일 격자와 같은 지점을 칸 중심으로 사용 (칸 수는 위에서 예산 이하로 확인됨)
+        int latCount = (int) OpenAiNavigationService.steps(bounds[0], bounds[1], latStep);
+        int lonCount = (int) OpenAiNavigationService.steps(bounds[2], bounds[3], lonStep);
+        List<Cell> level = new ArrayList<>(latCount * lonCount);
+        for (int i = 0; i < latCount; i++) {
+            for (int j = 0; j < lonCount; j++) {
+                level.add(new Cell(0, i, j, minLat + i * latStep, minLon + j * lonStep));
+            }
+        }
+
+        List<Cell> leaves = new ArrayList<>();
+        int calls = 0;
+        int scanned = 0;
+        boolean partial = false;
+        int depth = 0;
+        double sizeLat = latStep;
+        double sizeLon = lonStep;
+
+        while (!level.isEmpty()) {
+            calls += level.size();
+            FanOutExecutor.Outcome outcome = fanOutExecutor.run(level,
+                    cell -> openWeatherApiService.getCurrentWeatherAsync(cell.lat, WeatherTiles.normalizeLon(cell.lon), weatherInterpolationEnabled),
+                    Cell::record,
+                    deadlineAtMillis);
+            scanned += outcome.getCompleted();
+            if (outcome.isTimedOut()) {
+                partial = true;
+                leaves.addAll(level);
+                break;
+            }
+
+            // 세분화 대상: 이벤트가 있거나 같은 단계 이웃과 판정이 다른 칸 (이벤트 칸 우선)
+            Map<Long, Cell> byIndex = new HashMap<>();
+            for (Cell cell : level) {
+                byIndex.put(cell.index(), cell);
+            }
+            List<Cell> refine = new ArrayList<>();
+            List<Cell> disagree = new ArrayList<>();
+            for (Cell cell : level) {
+                if (!cell.scanned) {
+                    leaves.add(cell);
+                } else if (!cell.types.isEmpty()) {
+                    refine.add(cell);
+                } else if (disagreesWithNeighbour(cell, byIndex)) {
+                    disagree.add(cell);
+                } else {
+                    leaves.add(cell);
+                }
+            }
+            refine.addAll(disagree);
+
+            double childLat = sizeLat / 2;
+            double childLon = sizeLon / 2;
+            if (Math.min(childLat, childLon) < minCell) {
+                leaves.addAll(refine);
+                break;
+            }
+
+            List<Cell> next = new ArrayList<>();
+            for (Cell parent : refine) {
+                if (calls + next.size() + 4 > budget) {
+                    partial = true;
+                    leaves.add(parent);
+                    continue;
+                }
+                for (int a = 0; a < 2; a++) {
+                    for (int b = 0; b < 2; b++) {
+                        double lat = parent.lat + (a == 0 ? -childLat / 2 : childLat / 2);
+                        if (lat < -90.0 || lat > 90.0) continue;
+                        double lon = parent.lon + (b == 0 ? -childLon / 2 : childLon / 2);
+                        next.add(new Cell(depth + 1, 2 * parent.i + a, 2 * parent.j + b, lat, lon));
+                    }
+                }
+            }
+            level = next;
+            depth++;
+            sizeLat = childLat;
+            sizeLon = childLon;
+        }
+
+        List<Map<String, Object>> eventLocations = new ArrayList<>();
+        for (Cell cell : leaves) {
+            if (cell.types.isEmpty()) continue;
+            Map<String, Object> point = new HashMap<>();
+            point.put("lat", cell.lat);
+            point.put("lon", WeatherTiles.normalizeLon(cell.lon));
+            point.put("types", WeatherEventType.names(cell.types));
+            point.put("cellSizeLat", latStep / (1 << cell.level));
+            point.put("cellSizeLon", lonStep / (1 << cell.level));
+            if (cell.interpolated) {
+                point.put("interpolated", true); // 주변 격자 보간값
+            }
+            eventLocations.add(point);
+        }
+
+        logger.info("적응형 날씨 이벤트 스캔 완료: 호출 {}회, 최대 깊이 {}, 이벤트 칸 {}개{}",
+                calls, depth, eventLocations.size(), partial ? " (예산/마감으로 일부만 세분화)" : "");
+        return new EarthScanResult(eventLocations, calls, scanned, partial);
+    }
+
+    /**
+     * 0단계 격자 범위 {minLat, maxLat, minLon, maxLon}.
+     * 경도는 정규화하지 않은 연속 구간으로 다루고 조회/응답할 때만 정규화 (날짜변경선 분할 불필요)
+     */
+    private static double[] levelZeroBounds(double centerLat, double centerLon, double searchRadiusDegrees, double lonStep) {
+        double lonSpan = Math.min(2 * searchRadiusDegrees, 360.0 - lonStep);
+        return new double[]{Math.max(centerLat - searchRadiusDegrees, -90.0), Math.min(centerLat + searchRadiusDegrees, 90.0),
+                centerLon - lonSpan / 2, centerLon + lonSpan / 2};
+    }
+
+    private static boolean disagreesWithNeighbour(Cell cell, Map<Long, Cell> byIndex) {
+        int[][] offsets = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        for (int[] offset : offsets) {
+            Cell neighbour = byIndex.get(Cell.index(cell.i + offset[0], cell.j + offset[1]));
+            if (neighbour != null && neighbour.scanned && !neighbour.types.equals(cell.types)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** 쿼드트리 칸. (level, i, j) 는 단계별 정수 인덱스로, 자식 칸은 (level+1, 2i+a, 2j+b) */
+    private static final class Cell {
+        final int level;
+        final int i;
+        final int j;
+        final double lat;
+        final double lon; // 정규화하지 않은 연속 경도
+        volatile EnumSet<WeatherEventType> types = EnumSet.noneOf(WeatherEventType.class);
+        volatile boolean scanned;
+        volatile boolean interpolated;
+
+        Cell(int level, int i, int j, double lat, double lon) {
+            this.level = level;
+            this.i = i;
+            this.j = j;
+            this.lat = lat;
+            this.lon = lon;
+        }
+
+        void record(CurrentWeatherResponse currentWeather) {
+            if (currentWeather == null) {
+                return;
+            }
+            types = WeatherEventType.classify(currentWeather);
+            interpolated = currentWeather.isInterpolated();
+            scanned = true;
+        }
+
+        long index() {
+            return index(i, j);
+        }
+
+        static long index(int i, int j) {
+            return ((long) i << 32) | (j & 0xffffffffL);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.dgsw.heckathon.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EarthScanEstimate {
+    private long totalCells;     // 스캔할 격자 지점 수 (중복 제거 후)
+    private long uniqueTiles;    // 지점들이 속한 서로 다른 캐시 타일 수
+    private long cachedTiles;    // 그중 이미 캐시에 있는 타일 수
+    private long estimatedCalls; // 예상 업스트림 호출 수 (= uniqueTiles - cachedTiles)
+    private int budget;          // 적용될 호출 예산
+    private boolean withinBudget;
+    private String message;
+}
@@ -0,0 +1,19 @@
+package com.dgsw.heckathon.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EarthScanJobRequest {
+    private double lat;
+    private double lon;
+    private double searchRadiusDegrees = 100; // 검색 반경 (도)
+    private double latStep = 10;              // 격자 탐색 간격 (위도)
+    private double lonStep = 10;              // 격자 탐색 간격 (경도)
+    private Integer maxCalls;                 // 이 작업의 업스트림 호출 예산 (서버 한도 이하, 없으면 서버 한도)
+}
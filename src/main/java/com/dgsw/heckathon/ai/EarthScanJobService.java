@@ -0,0 +1,210 @@
+package com.dgsw.heckathon.ai;
+
+import com.dgsw.heckathon.weather.FanOutExecutor;
+import com.dgsw.heckathon.weather.WeatherTileCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 백그라운드에서 실행되는 /earth 스캔 작업.
+ * 실행 전에 예상 호출 수를 계산해 예산을 넘는 요청은 거절하고, 실행 중에도 예산만큼만 업스트림을 호출합니다.
+ * 작업 id 로 진행률과 중간 결과를 조회하거나 취소할 수 있으며, 끝난 작업은 보존 시간이 지나면 정리됩니다.
+ */
+@Service
+public class EarthScanJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EarthScanJobService.class);
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String PARTIAL = "PARTIAL";
+    public static final String BUDGET_EXHAUSTED = "BUDGET_EXHAUSTED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private final OpenAiNavigationService openAiNavigationService;
+    private final WeatherTileCache tileCache;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Value("${earth.jobs.deadline-ms:600000}")
+    private long jobDeadlineMillis;
+
+    @Value("${earth.jobs.retention-seconds:600}")
+    private long retentionSeconds;
+
+    @Value("${earth.jobs.max-active:4}")
+    private int maxActiveJobs;
+
+    public EarthScanJobService(OpenAiNavigationService openAiNavigationService, WeatherTileCache tileCache) {
+        this.openAiNavigationService = openAiNavigationService;
+        this.tileCache = tileCache;
+    }
+
+    /** 요청을 실행했을 때의 지점 수와 예상 업스트림 호출 수 */
+    public EarthScanEstimate estimate(EarthScanJobRequest request) {
+        int budget = budgetFor(request);
+        long count = openAiNavigationService.countGridCells(request.getLat(), request.getLon(),
+                request.getSearchRadiusDegrees(), request.getLatStep(), request.getLonStep());
+        if (count > OpenAiNavigationService.MAX_GRID_CELLS) {
+            return new EarthScanEstimate(count, count, 0, count, budget, false,
+                    "스캔 지점 수(" + count + ")가 너무 많습니다. 반경을 줄이거나 간격을 늘려 주세요.");
+        }
+        return estimate(cells(request), budget);
+    }
+
+    /**
+     * 스캔 작업을 시작합니다.
+     * @throws IllegalArgumentException 예상 호출 수가 예산을 넘는 경우
+     * @throws IllegalStateException 동시에 실행 중인 작업 수가 한도에 도달한 경우
+     */
+    public EarthScanJobStatus submit(EarthScanJobRequest request) {
+        purgeFinished();
+        int budget = budgetFor(request);
+        long count = openAiNavigationService.countGridCells(request.getLat(), request.getLon(),
+                request.getSearchRadiusDegrees(), request.getLatStep(), request.getLonStep());
+        if (count > OpenAiNavigationService.MAX_GRID_CELLS) {
+            throw new IllegalArgumentException("스캔 지점 수(" + count + ")가 너무 많습니다. 반경을 줄이거나 간격을 늘려 주세요.");
+        }
+        List<double[]> cells = cells(request);
+        EarthScanEstimate estimate = estimate(cells, budget);
+        if (!estimate.isWithinBudget()) {
+            throw new IllegalArgumentException(estimate.getMessage());
+        }
+        long active = jobs.values().stream().filter(job -> job.finishedAt == null).count();
+        if (active >= maxActiveJobs) {
+            throw new IllegalStateException("실행 중인 스캔 작업이 너무 많습니다. (최대 " + maxActiveJobs + "건)");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), cells.size(), new ScanBudget(tileCache, budget), budget);
+        jobs.put(job.id, job);
+
+        long deadline = System.currentTimeMillis() + jobDeadlineMillis;
+        job.future = openAiNavigationService.scanCellsAsync(cells, deadline,
+                cell -> job.calls.admit(cell[0], cell[1]),
+                (cell, point) -> {
+                    job.scannedCells.incrementAndGet();
+                    if (point != null) {
+                        job.eventLocations.add(point);
+                    }
+                });
+        job.future.whenComplete((outcome, error) -> job.finish(outcome));
+
+        logger.info("스캔 작업 {} 시작: 지점 {}개, 예상 호출 {}회, 예산 {}회",
+                job.id, cells.size(), estimate.getEstimatedCalls(), budget);
+        return job.toStatus();
+    }
+
+    /** 작업 상태 (없거나 정리된 작업이면 null) */
+    public EarthScanJobStatus get(String jobId) {
+        purgeFinished();
+        Job job = jobs.get(jobId);
+        return job != null ? job.toStatus() : null;
+    }
+
+    /** 작업을 취소하고 취소 후 상태를 반환 (없으면 null). 이미 끝난 작업은 그대로 둡니다. */
+    public EarthScanJobStatus cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        if (job.future != null) {
+            job.future.cancel(true);
+        }
+        return job.toStatus();
+    }
+
+    private int budgetFor(EarthScanJobRequest request) {
+        int serverLimit = openAiNavigationService.getMaxCallsPerScan();
+        if (request.getMaxCalls() == null) {
+            return serverLimit;
+        }
+        return Math.max(0, Math.min(request.getMaxCalls(), serverLimit));
+    }
+
+    private List<double[]> cells(EarthScanJobRequest request) {
+        return openAiNavigationService.gridCells(request.getLat(), request.getLon(),
+                request.getSearchRadiusDegrees(), request.getLatStep(), request.getLonStep());
+    }
+
+    private EarthScanEstimate estimate(List<double[]> cells, int budget) {
+        Set<Long> tiles = new HashSet<>();
+        long cached = 0;
+        for (double[] cell : cells) {
+            if (tiles.add(tileCache.tileKey(cell[0], cell[1])) && tileCache.containsCurrent(cell[0], cell[1])) {
+                cached++;
+            }
+        }
+        long calls = tiles.size() - cached;
+        boolean withinBudget = calls <= budget;
+        String message = withinBudget
+                ? "예상 호출 " + calls + "회 (예산 " + budget + "회)"
+                : "예상 호출 수(" + calls + ")가 예산(" + budget + ")을 넘습니다. 반경을 줄이거나 간격을 늘려 주세요.";
+        return new EarthScanEstimate(cells.size(), tiles.size(), cached, calls, budget, withinBudget, message);
+    }
+
+    private void purgeFinished() {
+        long cutoff = System.currentTimeMillis() - retentionSeconds * 1000L;
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt < cutoff);
+    }
+
+    private static final class Job {
+        final String id;
+        final int totalCells;
+        final int budget;
+        final long createdAt = System.currentTimeMillis();
+        final AtomicInteger scannedCells = new AtomicInteger();
+        final ScanBudget calls;
+        final List<Map<String, Object>> eventLocations = Collections.synchronizedList(new ArrayList<>());
+        volatile CompletableFuture<FanOutExecutor.Outcome> future;
+        volatile String status = RUNNING;
+        volatile Long finishedAt;
+
+        Job(String id, int totalCells, ScanBudget calls, int budget) {
+            this.id = id;
+            this.totalCells = totalCells;
+            this.calls = calls;
+            this.budget = budget;
+        }
+
+        void finish(FanOutExecutor.Outcome outcome) {
+            if (outcome == null) {
+                status = CANCELLED;
+            } else if (calls.isExhausted()) {
+                status = BUDGET_EXHAUSTED;
+            } else if (outcome.isTimedOut()) {
+                status = PARTIAL;
+            } else {
+                status = COMPLETED;
+            }
+            finishedAt = System.currentTimeMillis();
+        }
+
+        EarthScanJobStatus toStatus() {
+            List<Map<String, Object>> events;
+            synchronized (eventLocations) {
+                events = new ArrayList<>(eventLocations);
+            }
+            String message = switch (status) {
+                case RUNNING -> "스캔 진행 중 (" + scannedCells.get() + "/" + totalCells + ")";
+                case COMPLETED -> "스캔 완료.";
+                case PARTIAL -> "마감 시간 초과로 일부 지점만 스캔했습니다.";
+                case BUDGET_EXHAUSTED -> "호출 예산을 모두 사용해 일부 지점만 스캔했습니다.";
+                default -> "스캔이 취소되었습니다.";
+            };
+            return new EarthScanJobStatus(id, status, totalCells, scannedCells.get(), calls.getCalls(), budget,
+                    events, createdAt, finishedAt, message);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.dgsw.heckathon.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EarthScanJobStatus {
+    private String jobId;
+    private String status;           // RUNNING, COMPLETED, PARTIAL, BUDGET_EXHAUSTED, CANCELLED
+    private int totalCells;
+    private int scannedCells;        // 판정까지 마친 지점 수 (진행률)
+    private int upstreamCalls;       // 지금까지 예산에서 차감된 호출 수
+    private int budget;
+    private List<Map<String, Object>> eventLocations; // 지금까지 감지된 이벤트 지점
+    private long createdAt;          // epoch ms
+    private Long finishedAt;         // 끝나지 않았으면 null
+    private String message;
+}
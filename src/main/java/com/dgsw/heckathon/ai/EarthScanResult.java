@@ -0,0 +1,20 @@
+package com.dgsw.heckathon.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EarthScanResult {
+    private List<Map<String, Object>> eventLocations; // 날씨 이벤트가 감지된 지점
+    private int totalCells;                            // 스캔 대상 격자 지점 수
+    private int scannedCells;                          // 날씨를 받아 판정까지 마친 지점 수
+    private boolean partial;                           // 마감 시각 초과로 일부 지점만 스캔했는지 여부
+}
@@ -1,57 +1,89 @@
 package com.dgsw.heckathon.ai;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class OpenAiApiService {
 
     private static final Logger logger = LoggerFactory.getLogger(OpenAiApiService.class);
 
+    private static final String DISASTER_SYSTEM_PROMPT = "당신은 기상 데이터를 분석하여 잠재적인 해양 재난 위험을 경고하고 안전 수칙을 제안하는 전문가입니다. " +
+            "아래 제공된 12시간 기상 예보 데이터를 기반으로, 발생 가능한 항해 관련 재난 위험을 간결하게 요약하고 " +
+            "각 위험에 대한 간단한 안전 수칙을 제시해주세요. 한국어로 답변해주세요. 그리고 글로만 써주세요 강조표시 같은 거 없이";
+
+    private static final String DISASTER_FAILURE_MESSAGE = "재난 예측 정보를 가져오는 데 실패했습니다.";
+
     @Value("${openai.api.key}")
     private String apiKey;
 
     @Value("${openai.api.base-url}")
     private String baseUrl;
 
+    // 요청을 보낸 뒤 응답 헤더를 받을 때까지의 최대 대기 시간
+    @Value("${openai.api.timeout-ms:30000}")
+    private long responseTimeoutMillis;
+
+    // 스트리밍 응답 하나를 끝까지 읽는 최대 시간. 넘기면 연결을 닫고 실패로 완료
+    @Value("${openai.stream.timeout-ms:120000}")
+    private long streamTimeoutMillis;
+
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    // 스트리밍 응답 본문을 읽는 스레드 (읽기가 블로킹이므로 HttpClient 나 호출한 쪽 스레드를 붙잡지 않도록 분리)
+    private final ThreadPoolExecutor streamExecutor;
 
-    public OpenAiApiService(ObjectMapper objectMapper) {
+    public OpenAiApiService(ObjectMapper objectMapper,
+                            @Value("${openai.stream.parallelism:16}") int streamParallelism) {
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10)) // 연결 타임아웃 설정 (선택 사항)
                 .build();
         this.objectMapper = objectMapper;
+        int threads = Math.max(1, streamParallelism);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.streamExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "openai-stream-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.streamExecutor.allowCoreThreadTimeOut(true);
     }
 
-    public String getDisasterPrediction(String weatherDataSummary) {
-        // OpenAI 모델에 보낼 메시지 구성
-        String systemPrompt = "당신은 기상 데이터를 분석하여 잠재적인 해양 재난 위험을 경고하고 안전 수칙을 제안하는 전문가입니다. " +
-                "아래 제공된 12시간 기상 예보 데이터를 기반으로, 발생 가능한 항해 관련 재난 위험을 간결하게 요약하고 " +
-                "각 위험에 대한 간단한 안전 수칙을 제시해주세요. 한국어로 답변해주세요. 그리고 글로만 써주세요 강조표시 같은 거 없이";
-
-        String userPrompt = "다음은 12시간 동안의 기상 예보입니다:\n\n" + weatherDataSummary +
-                "\n\n이 기상 조건에서 예상되는 재난 위험과 그에 대한 안전 수칙을 알려주세요.";
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+    }
 
-        OpenAiChatCompletionRequest request = OpenAiChatCompletionRequest.builder()
-                .model("gpt-3.5-turbo") // 또는 "gpt-4" (비용 및 성능 고려)
-                .messages(List.of(
-                        OpenAiChatCompletionRequest.Message.builder().role("system").content(systemPrompt).build(),
-                        OpenAiChatCompletionRequest.Message.builder().role("user").content(userPrompt).build()
-                ))
-                .temperature(0.7) // 0.0 (보수적) ~ 1.0 (창의적)
-                .build();
+    public String getDisasterPrediction(String weatherDataSummary) {
+        OpenAiChatCompletionRequest request = chatRequest(DISASTER_SYSTEM_PROMPT, disasterUserPrompt(weatherDataSummary), null);
 
         try {
             String requestBody = objectMapper.writeValueAsString(request);
@@ -60,6 +92,7 @@ public class OpenAiApiService {
                     .uri(URI.create(baseUrl))
                     .header("Content-Type", "application/json")
                     .header("Authorization", "Bearer " + apiKey)
+                    .timeout(Duration.ofMillis(responseTimeoutMillis))
                     .POST(HttpRequest.BodyPublishers.ofString(requestBody))
                     .build();
 
@@ -79,6 +112,138 @@ public class OpenAiApiService {
             logger.error("OpenAI API 호출 중 오류 발생: {}", e.getMessage());
             Thread.currentThread().interrupt();
         }
-        return "재난 예측 정보를 가져오는 데 실패했습니다.";
+        return DISASTER_FAILURE_MESSAGE;
+    }
+
+    /**
+     * getDisasterPrediction 의 스트리밍 버전. 생성되는 글 조각을 받는 대로 onDelta 로 넘기고, 완료되면 전체 글을 돌려줍니다.
+     * 실패하면 실패 안내 문구로 완료됩니다.
+     */
+    public CompletableFuture<String> streamDisasterPrediction(String weatherDataSummary, Consumer<String> onDelta) {
+        return streamChatCompletion(DISASTER_SYSTEM_PROMPT, disasterUserPrompt(weatherDataSummary), onDelta)
+                .thenApply(text -> text != null ? text : DISASTER_FAILURE_MESSAGE);
+    }
+
+    /**
+     * stream: true 로 채팅 완성을 요청하고 SSE 청크("data: {...}")를 줄 단위로 읽으며 choices[0].delta.content 를 onDelta 로 넘깁니다.
+     * 첫 토큰부터 바로 전달되므로 전체 생성 시간 대신 첫 토큰까지의 시간만 기다리면 됩니다.
+     * 본문은 전용 스레드에서 읽고, openai.stream.timeout-ms 안에 끝나지 않으면 연결을 닫으므로 반환된 Future 는 항상 그 안에 완료됩니다.
+     * 완료되면 이어 붙인 전체 응답 글, 실패하면 null. onDelta 가 예외를 던지면 읽기를 멈추고 연결을 닫으며,
+     * 그 예외가 CancellationException(클라이언트 연결 종료)이면 실패가 아닌 중단이므로 같은 예외로 완료됩니다.
+     */
+    public CompletableFuture<String> streamChatCompletion(String systemPrompt, String userPrompt, Consumer<String> onDelta) {
+        String requestBody;
+        try {
+            requestBody = objectMapper.writeValueAsString(chatRequest(systemPrompt, userPrompt, true));
+        } catch (IOException e) {
+            logger.error("OpenAI 스트리밍 요청 생성 실패: {}", e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .header("Authorization", "Bearer " + apiKey)
+                .timeout(Duration.ofMillis(responseTimeoutMillis)) // 응답 헤더까지만 적용되므로 본문은 아래 전체 시간 제한으로
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                .build();
+
+        long startedAt = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> exchange = httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+        CompletableFuture<String> text = exchange
+                .thenApplyAsync(response -> readStream(response, onDelta, startedAt), streamExecutor)
+                .orTimeout(streamTimeoutMillis, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        text.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            // 시간 초과 등으로 먼저 끝났으면 요청을 취소하고 본문을 닫아, 읽는 중인 스레드도 바로 풀려나게 함
+            exchange.cancel(true);
+            exchange.thenAccept(response -> closeQuietly(response.body()));
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                logger.debug("OpenAI 스트리밍 읽기 취소: {}", cause.getMessage());
+                result.completeExceptionally(cause);
+                return;
+            }
+            logger.warn("OpenAI 스트리밍 호출 중단: {}", cause.toString());
+            result.complete(null);
+        });
+        return result;
+    }
+
+    /** 스트리밍 응답 본문을 끝까지(또는 [DONE] 까지) 읽어 전체 글을 돌려줍니다. 상태 코드가 200 이 아니면 null */
+    private String readStream(HttpResponse<InputStream> response, Consumer<String> onDelta, long startedAt) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            if (response.statusCode() != 200) {
+                logger.error("OpenAI 스트리밍 호출 실패. 상태 코드: {}, 응답: {}",
+                        response.statusCode(), reader.lines().collect(Collectors.joining("\n")));
+                return null;
+            }
+            StringBuilder text = new StringBuilder();
+            boolean first = true;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue; // 빈 줄, 주석(":"), event/id 필드
+                }
+                String data = line.substring(5).trim();
+                if ("[DONE]".equals(data)) {
+                    break;
+                }
+                String delta = deltaContent(data);
+                if (delta == null || delta.isEmpty()) {
+                    continue;
+                }
+                if (first) {
+                    logger.debug("OpenAI 스트리밍 첫 토큰까지 {}ms", (System.nanoTime() - startedAt) / 1_000_000);
+                    first = false;
+                }
+                text.append(delta);
+                onDelta.accept(delta);
+            }
+            logger.info("OpenAI 스트리밍 호출 성공 ({}자, {}ms)", text.length(), (System.nanoTime() - startedAt) / 1_000_000);
+            return text.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            // 이미 닫힘
+        }
+    }
+
+    /** 스트림 청크 한 개의 choices[0].delta.content (없거나 파싱 실패 시 null) */
+    private String deltaContent(String data) {
+        try {
+            JsonNode content = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+            return content.isTextual() ? content.asText() : null;
+        } catch (IOException e) {
+            logger.debug("OpenAI 스트림 청크 파싱 실패: {}", data);
+            return null;
+        }
+    }
+
+    private static String disasterUserPrompt(String weatherDataSummary) {
+        return "다음은 12시간 동안의 기상 예보입니다:\n\n" + weatherDataSummary +
+                "\n\n이 기상 조건에서 예상되는 재난 위험과 그에 대한 안전 수칙을 알려주세요.";
+    }
+
+    private static OpenAiChatCompletionRequest chatRequest(String systemPrompt, String userPrompt, Boolean stream) {
+        return OpenAiChatCompletionRequest.builder()
+                .model("gpt-3.5-turbo") // 또는 "gpt-4" (비용 및 성능 고려)
+                .messages(List.of(
+                        OpenAiChatCompletionRequest.Message.builder().role("system").content(systemPrompt).build(),
+                        OpenAiChatCompletionRequest.Message.builder().role("user").content(userPrompt).build()
+                ))
+                .temperature(0.7) // 0.0 (보수적) ~ 1.0 (창의적)
+                .stream(stream)
+                .build();
     }
 }
@@ -1,5 +1,6 @@
 package com.dgsw.heckathon.ai;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
@@ -7,10 +8,12 @@ import java.util.List;
 
 @Data
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class OpenAiChatCompletionRequest {
     private String model; // 예: "gpt-3.5-turbo" 또는 "gpt-4"
     private List<Message> messages;
     private Double temperature; // 창의성 조절 (0.0 ~ 1.0)
+    private Boolean stream;     // true 면 응답을 SSE 청크(choices[0].delta.content)로 나눠 받음. null 이면 전송하지 않음
 
     @Data
     @Builder
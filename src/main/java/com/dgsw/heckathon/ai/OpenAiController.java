@@ -1,15 +1,29 @@
 package com.dgsw.heckathon.ai;
 
+import com.dgsw.heckathon.weather.FanOutExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 @RestController
@@ -17,10 +31,22 @@ public class OpenAiController {
 
     private final OpenAiDisasterService openAiDisasterService;
     private final OpenAiNavigationService openAiNavigationService;
+    private final WeatherEventRaster weatherEventRaster;
+    private final AdaptiveEventScanner adaptiveEventScanner;
+    private final EarthScanJobService earthScanJobService;
 
-    public OpenAiController(OpenAiDisasterService openAiDisasterService, OpenAiNavigationService openAiNavigationService) {
+    // /disaster/stream 스트림 하나의 최대 유지 시간
+    @Value("${openai.stream.timeout-ms:120000}")
+    private long streamTimeoutMillis;
+
+    public OpenAiController(OpenAiDisasterService openAiDisasterService, OpenAiNavigationService openAiNavigationService,
+                            WeatherEventRaster weatherEventRaster, AdaptiveEventScanner adaptiveEventScanner,
+                            EarthScanJobService earthScanJobService) {
         this.openAiDisasterService = openAiDisasterService;
         this.openAiNavigationService = openAiNavigationService;
+        this.weatherEventRaster = weatherEventRaster;
+        this.adaptiveEventScanner = adaptiveEventScanner;
+        this.earthScanJobService = earthScanJobService;
     }
 
     /**
@@ -44,6 +70,42 @@ public class OpenAiController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * /disaster 의 스트리밍 버전. 예측 글을 LLM 이 생성하는 대로 "delta" 프레임(text)으로 보내므로
+     * 전체 생성을 기다리지 않고 첫 토큰부터 화면에 표시할 수 있습니다.
+     * 프레임: delta(글 조각) → done(prediction 전체 글, message)
+     * 클라이언트 연결이 끊기면 LLM 스트림 읽기를 멈춥니다.
+     */
+    @GetMapping(value = "/disaster/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDisasterPrediction(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "12") int hours) {
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(e -> closed.set(true));
+
+        openAiDisasterService.streamDisasterPrediction(lat, lon, hours, text -> {
+            if (closed.get()) {
+                throw new CancellationException("disaster stream closed"); // LLM 스트림 읽기 중단
+            }
+            sendFrame(emitter, "delta", Map.of("text", text));
+        }).whenComplete((prediction, error) -> {
+            if (closed.get()) {
+                return;
+            }
+            Map<String, Object> done = new HashMap<>();
+            done.put("prediction", prediction != null ? prediction : "재난 예측 정보를 가져오는 데 실패했습니다.");
+            done.put("message", "AI 기반 재난 예측 조회 완료.");
+            sendFrame(emitter, "done", done);
+            emitter.complete();
+        });
+        return emitter;
+    }
+
     /**
      * 현재 위치 주변 특정 반경 내에서 특정 날씨 이벤트(비, 눈, 우박, 흐림) 발생 지점 스캔
      * @param currentLat 현재 위도
@@ -51,6 +113,10 @@ public class OpenAiController {
      * @param searchRadiusDegrees 검색 반경 (도 단위)
      * @param latStep 위도 간격
      * @param lonStep 경도 간격
+     * @param live true 면 전역 이벤트 래스터 대신 격자 지점을 실시간으로 조회
+     * @param mode "grid"(균일 격자, 기본) 또는 "adaptive"(이벤트/경계 칸만 세분화하는 쿼드트리 스캔, 항상 실시간)
+     * @param minCellDegrees adaptive 모드의 최소 칸 크기 (도)
+     * @param maxCalls adaptive 모드의 업스트림 호출 예산
      * @return 특정 날씨 이벤트가 감지된 위치 목록
      */
     @GetMapping("/earth")
@@ -59,49 +125,248 @@ public class OpenAiController {
             @RequestParam("lon") double currentLon,
             @RequestParam(defaultValue = "100") double searchRadiusDegrees, // 기본 검색 반경 50도
             @RequestParam(defaultValue = "10") double latStep,             // 격자 탐색 간격 (위도)
-            @RequestParam(defaultValue = "10") double lonStep) {            // 격자 탐색 간격 (경도)
-
-        // 검색 반경에 따른 위도/경도 범위 계산
-        double minLat = currentLat - searchRadiusDegrees;
-        double maxLat = currentLat + searchRadiusDegrees;
-        double minLon = currentLon - searchRadiusDegrees;
-        double maxLon = currentLon + searchRadiusDegrees;
-
-        // 위도/경도 경계 보정
-        minLat = Math.max(minLat, -90.0);
-        maxLat = Math.min(maxLat, 90.0);
-
-        // 경도 범위 정규화 (-180 ~ 180)
-        double normalizedMinLon = (minLon + 180.0) % 360.0;
-        if (normalizedMinLon < 0) normalizedMinLon += 360.0;
-        normalizedMinLon -= 180.0;
-
-        double normalizedMaxLon = (maxLon + 180.0) % 360.0;
-        if (normalizedMaxLon < 0) normalizedMaxLon += 360.0;
-        normalizedMaxLon -= 180.0;
-
-        List<Map<String, Object>> eventLocations;
-
-        // 경도 범위가 -180/180 경계를 넘어서는 경우
-        if (normalizedMinLon > normalizedMaxLon) {
-            List<Map<String, Object>> part1 = openAiNavigationService.findSpecificWeatherEventsLocations(
-                    minLat, maxLat, normalizedMinLon, 180.0, latStep, lonStep);
-            List<Map<String, Object>> part2 = openAiNavigationService.findSpecificWeatherEventsLocations(
-                    minLat, maxLat, -180.0, normalizedMaxLon, latStep, lonStep);
-            eventLocations = new ArrayList<>(part1);
-            eventLocations.addAll(part2);
-        } else {
-            eventLocations = openAiNavigationService.findSpecificWeatherEventsLocations(
-                    minLat, maxLat, normalizedMinLon, normalizedMaxLon, latStep, lonStep);
+            @RequestParam(defaultValue = "10") double lonStep,             // 격자 탐색 간격 (경도)
+            @RequestParam(defaultValue = "false") boolean live,
+            @RequestParam(defaultValue = "grid") String mode,
+            @RequestParam(required = false) Double minCellDegrees,
+            @RequestParam(required = false) Integer maxCalls) {
+
+        String stepError = validateScanSteps(searchRadiusDegrees, latStep, lonStep);
+        if (stepError != null) {
+            return ResponseEntity.badRequest().body(Map.of("message", stepError));
+        }
+
+        // 실제 호출 수가 한도를 넘는 요청은 조회 전에 거절 (적응형은 0단계 격자 기준, 래스터 응답은 호출 없음)
+        boolean adaptive = "adaptive".equalsIgnoreCase(mode);
+        String costError = adaptive
+                ? adaptiveEventScanner.validateScanCost(currentLat, currentLon, searchRadiusDegrees, latStep, lonStep, maxCalls)
+                : (live || !weatherEventRaster.isReady()) ? validateScanCost(currentLat, currentLon, searchRadiusDegrees, latStep, lonStep) : null;
+        if (costError != null) {
+            return ResponseEntity.badRequest().body(Map.of("message", costError));
+        }
+
+        if (adaptive) {
+            EarthScanResult result = adaptiveEventScanner.scan(currentLat, currentLon, searchRadiusDegrees,
+                    latStep, lonStep, minCellDegrees, maxCalls, openAiNavigationService.newScanDeadline());
+            Map<String, Object> response = new HashMap<>();
+            response.put("eventLocations", result.getEventLocations());
+            response.put("message", "현재 위치 주변 " + searchRadiusDegrees + "도 범위 내 특정 날씨 이벤트 발생 지점 조회 완료.");
+            response.put("centerLat", currentLat);
+            response.put("centerLon", currentLon);
+            response.put("searchRadiusDegrees", searchRadiusDegrees);
+            response.put("totalCells", result.getTotalCells()); // 적응형 스캔에서는 실제 조회한 칸 수 (= 호출 수)
+            response.put("scannedCells", result.getScannedCells());
+            response.put("partial", result.isPartial());
+            response.put("source", "adaptive");
+            response.put("disclaimer", "이 데이터는 OpenWeatherMap API를 통해 격자별로 조회된 날씨 데이터를 기반으로 합니다.");
+            return ResponseEntity.ok(response);
+        }
+
+        // 검색 반경에 따른 위도 범위 계산 (±90 에서 자름)
+        double minLat = Math.max(currentLat - searchRadiusDegrees, -90.0);
+        double maxLat = Math.min(currentLat + searchRadiusDegrees, 90.0);
+
+        // 경도 범위 정규화 (-180 ~ 180). 실시간 스캔(gridBounds)과 같이 반경은 최대 180도, 한 바퀴 이상이면 전체 경도
+        double lonRadius = Math.min(searchRadiusDegrees, 180.0);
+        double normalizedMinLon = -180.0;
+        double normalizedMaxLon = 180.0;
+        if (2 * lonRadius < 360.0) {
+            normalizedMinLon = (currentLon - lonRadius + 180.0) % 360.0;
+            if (normalizedMinLon < 0) normalizedMinLon += 360.0;
+            normalizedMinLon -= 180.0;
+
+            normalizedMaxLon = (currentLon + lonRadius + 180.0) % 360.0;
+            if (normalizedMaxLon < 0) normalizedMaxLon += 360.0;
+            normalizedMaxLon -= 180.0;
+        }
+
+        // 전역 래스터가 충분히 채워져 있으면 HTTP 호출 없이 범위 질의로 응답 (래스터 해상도 기준, latStep/lonStep 무시)
+        if (!live && weatherEventRaster.isReady()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("eventLocations", weatherEventRaster.query(minLat, maxLat, normalizedMinLon, normalizedMaxLon));
+            response.put("message", "현재 위치 주변 " + searchRadiusDegrees + "도 범위 내 특정 날씨 이벤트 발생 지점 조회 완료.");
+            response.put("centerLat", currentLat);
+            response.put("centerLon", currentLon);
+            response.put("searchRadiusDegrees", searchRadiusDegrees);
+            response.put("source", "raster");
+            response.put("rasterResolutionDegrees", weatherEventRaster.getResolutionDegrees());
+            response.put("rasterUpdatedAt", weatherEventRaster.getUpdatedAtMillis());
+            response.put("partial", false);
+            response.put("disclaimer", "이 데이터는 OpenWeatherMap API를 통해 주기적으로 갱신되는 전역 격자 날씨 데이터를 기반으로 합니다.");
+            return ResponseEntity.ok(response);
         }
 
+        // 날짜변경선을 넘는 범위도 하나의 격자(±180 경선 중복 없음)로 스캔
+        List<double[]> cells = openAiNavigationService.gridCells(currentLat, currentLon, searchRadiusDegrees, latStep, lonStep);
+        EarthScanResult result = openAiNavigationService.scanCells(cells, openAiNavigationService.newScanDeadline());
+        List<Map<String, Object>> eventLocations = result.getEventLocations();
+        int totalCells = result.getTotalCells();
+        int scannedCells = result.getScannedCells();
+        boolean partial = result.isPartial();
+
         Map<String, Object> response = new HashMap<>();
         response.put("eventLocations", eventLocations);
         response.put("message", "현재 위치 주변 " + searchRadiusDegrees + "도 범위 내 특정 날씨 이벤트 발생 지점 조회 완료.");
         response.put("centerLat", currentLat);
         response.put("centerLon", currentLon);
         response.put("searchRadiusDegrees", searchRadiusDegrees); // 실제 검색 반경
+        response.put("totalCells", totalCells);
+        response.put("scannedCells", scannedCells);
+        response.put("partial", partial); // true 면 마감 시간 초과로 일부 지점만 스캔된 결과
+        response.put("source", "live");
         response.put("disclaimer", "이 데이터는 OpenWeatherMap API를 통해 격자별로 조회된 날씨 데이터를 기반으로 합니다.");
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * /earth 와 같은 스캔을 Server-Sent Events 로 스트리밍합니다.
+     * 격자 지점의 조회가 끝나는 대로 감지된 이벤트 지점을 "event" 프레임으로 보내므로, 가장 느린 호출을 기다리지 않고 지도를 채울 수 있습니다.
+     * 프레임: start(총 지점 수) → event(지점별) / progress(progress=true 일 때, 약 5% 간격) → done(스캔 요약)
+     * 클라이언트 연결이 끊기면 남은 조회를 취소합니다.
+     */
+    @GetMapping(value = "/earth/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSpecificWeatherEvents(
+            @RequestParam("lat") double currentLat,
+            @RequestParam("lon") double currentLon,
+            @RequestParam(defaultValue = "100") double searchRadiusDegrees,
+            @RequestParam(defaultValue = "10") double latStep,
+            @RequestParam(defaultValue = "10") double lonStep,
+            @RequestParam(defaultValue = "false") boolean progress) {
+
+        if (validateScanSteps(searchRadiusDegrees, latStep, lonStep) != null
+                || validateScanCost(currentLat, currentLon, searchRadiusDegrees, latStep, lonStep) != null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<double[]> cells = openAiNavigationService.gridCells(currentLat, currentLon, searchRadiusDegrees, latStep, lonStep);
+        int totalCells = cells.size();
+        int progressEvery = Math.max(1, totalCells / 20);
+        long deadline = openAiNavigationService.newScanDeadline();
+
+        // 스캔 마감 뒤 done 프레임을 보낼 여유를 둠
+        SseEmitter emitter = new SseEmitter(deadline - System.currentTimeMillis() + 5000L);
+        AtomicReference<CompletableFuture<FanOutExecutor.Outcome>> scan = new AtomicReference<>();
+        Runnable cancelScan = () -> {
+            CompletableFuture<FanOutExecutor.Outcome> running = scan.get();
+            if (running != null) {
+                running.cancel(true);
+            }
+        };
+        emitter.onCompletion(cancelScan);
+        emitter.onTimeout(cancelScan);
+        emitter.onError(e -> cancelScan.run());
+
+        Map<String, Object> start = new HashMap<>();
+        start.put("centerLat", currentLat);
+        start.put("centerLon", currentLon);
+        start.put("searchRadiusDegrees", searchRadiusDegrees);
+        start.put("totalCells", totalCells);
+        sendFrame(emitter, "start", start);
+
+        AtomicInteger scannedCells = new AtomicInteger();
+        scan.set(openAiNavigationService.scanCellsAsync(cells, deadline, (cell, point) -> {
+            int scanned = scannedCells.incrementAndGet();
+            if (point != null) {
+                sendFrame(emitter, "event", point);
+            }
+            if (progress && (scanned % progressEvery == 0 || scanned == totalCells)) {
+                sendFrame(emitter, "progress", Map.of("scannedCells", scanned, "totalCells", totalCells));
+            }
+        }));
+
+        scan.get().whenComplete((outcome, error) -> {
+            if (outcome == null) {
+                // 클라이언트 연결 종료로 취소된 경우
+                return;
+            }
+            Map<String, Object> done = new HashMap<>();
+            done.put("totalCells", outcome.getTotal());
+            done.put("scannedCells", outcome.getCompleted());
+            done.put("partial", outcome.isTimedOut());
+            done.put("message", "현재 위치 주변 " + searchRadiusDegrees + "도 범위 내 특정 날씨 이벤트 발생 지점 조회 완료.");
+            sendFrame(emitter, "done", done);
+            emitter.complete();
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    /* ---------- 스캔 작업 (비용 추정 / 예산 / 진행률 / 취소) ---------- */
+
+    /** 스캔을 실행했을 때의 지점 수와 예상 업스트림 호출 수 (호출하지 않음) */
+    @PostMapping("/earth/jobs/estimate")
+    public ResponseEntity<EarthScanEstimate> estimateScanJob(@RequestBody EarthScanJobRequest request) {
+        String error = validateScanSteps(request.getSearchRadiusDegrees(), request.getLatStep(), request.getLonStep());
+        if (error != null) {
+            return ResponseEntity.badRequest().body(new EarthScanEstimate(0, 0, 0, 0, 0, false, error));
+        }
+        return ResponseEntity.ok(earthScanJobService.estimate(request));
+    }
+
+    /** 스캔 작업을 백그라운드에서 시작하고 작업 id 를 반환. 예상 호출 수가 예산을 넘으면 400 */
+    @PostMapping("/earth/jobs")
+    public ResponseEntity<EarthScanJobStatus> submitScanJob(@RequestBody EarthScanJobRequest request) {
+        String error = validateScanSteps(request.getSearchRadiusDegrees(), request.getLatStep(), request.getLonStep());
+        if (error != null) {
+            return ResponseEntity.badRequest().body(errorStatus(error));
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(earthScanJobService.submit(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorStatus(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(errorStatus(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/earth/jobs/{jobId}")
+    public ResponseEntity<EarthScanJobStatus> getScanJob(@PathVariable String jobId) {
+        EarthScanJobStatus status = earthScanJobService.get(jobId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/earth/jobs/{jobId}")
+    public ResponseEntity<EarthScanJobStatus> cancelScanJob(@PathVariable String jobId) {
+        EarthScanJobStatus status = earthScanJobService.cancel(jobId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    private static EarthScanJobStatus errorStatus(String message) {
+        EarthScanJobStatus status = new EarthScanJobStatus();
+        status.setMessage(message);
+        return status;
+    }
+
+    private String validateScanSteps(double searchRadiusDegrees, double latStep, double lonStep) {
+        if (!(latStep > 0) || !(lonStep > 0)) {
+            return "latStep, lonStep 은 0보다 커야 합니다.";
+        }
+        if (!(searchRadiusDegrees >= 0)) {
+            return "searchRadiusDegrees 는 0 이상이어야 합니다.";
+        }
+        return null;
+    }
+
+    private String validateScanCost(double lat, double lon, double searchRadiusDegrees, double latStep, double lonStep) {
+        long cells = openAiNavigationService.countGridCells(lat, lon, searchRadiusDegrees, latStep, lonStep);
+        if (cells > openAiNavigationService.getMaxCallsPerScan()) {
+            return "스캔 지점 수(" + cells + ")가 한도(" + openAiNavigationService.getMaxCallsPerScan()
+                    + ")를 넘습니다. 반경을 줄이거나 간격을 늘려 주세요. (/earth/jobs/estimate 로 미리 확인 가능)";
+        }
+        return null;
+    }
+
+    /** 전송 실패(연결 종료 등)는 무시. 이후 onError/onCompletion 에서 스캔이 취소됩니다. */
+    private static void sendFrame(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // 이미 완료되었거나 클라이언트가 연결을 끊음
+        }
+    }
+
+    /** 전역 날씨 이벤트 래스터 상태 (채움률, 종류별 이벤트 칸 수 등) */
+    @GetMapping("/earth/raster/stats")
+    public ResponseEntity<Map<String, Object>> getEventRasterStats() {
+        return ResponseEntity.ok(weatherEventRaster.stats());
+    }
+}
@@ -1,99 +1,199 @@
 package com.dgsw.heckathon.ai;
 
-import com.dgsw.heckathon.weather.OpenWeatherApiService;
 import com.dgsw.heckathon.weather.CurrentWeatherResponse;
+import com.dgsw.heckathon.weather.FanOutExecutor;
+import com.dgsw.heckathon.weather.OpenWeatherApiService;
+import com.dgsw.heckathon.weather.WeatherTiles;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 
 @Service
 public class OpenAiNavigationService {
 
     private static final Logger logger = LoggerFactory.getLogger(OpenAiNavigationService.class);
 
+    // 격자 지점 목록으로 만들 수 있는 최대 지점 수 (호출 예산과 별개로, 예상 호출 수 계산용 나열도 이 안에서만)
+    static final long MAX_GRID_CELLS = 200_000;
+
     private final OpenWeatherApiService openWeatherApiService; // TomorrowioApiService 대신 OpenWeatherApiService 사용
-    private final ExecutorService executorService = Executors.newFixedThreadPool(10); // 동시에 10개의 API 호출
+    private final FanOutExecutor fanOutExecutor; // 격자 지점 조회를 동시 실행 수 제한 하에 비동기로 흩뿌림
+
+    // 격자 지점 날씨를 주변 캐시 타일 보간으로 대신할 수 있는지 여부
+    @Value("${weather.interpolation.earth.enabled:false}")
+    private boolean weatherInterpolationEnabled;
+
+    // 스캔 1회의 마감 시간. 넘기면 그때까지 조회된 지점만으로 결과를 반환
+    @Value("${earth.scan.deadline-ms:30000}")
+    private long scanDeadlineMillis;
+
+    // 스캔 1회(또는 스캔 작업 1건)가 만들 수 있는 최대 격자 지점 수
+    @Value("${earth.scan.max-calls-per-job:2000}")
+    private int maxCallsPerScan;
 
-    public OpenAiNavigationService(OpenWeatherApiService openWeatherApiService) {
+    public OpenAiNavigationService(OpenWeatherApiService openWeatherApiService, FanOutExecutor fanOutExecutor) {
         this.openWeatherApiService = openWeatherApiService;
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    public int getMaxCallsPerScan() {
+        return maxCallsPerScan;
+    }
+
+    /** 지금부터 스캔 마감 시간이 지난 시각 (epoch ms). 여러 구간으로 나눈 스캔이 같은 마감을 공유할 때 사용 */
+    public long newScanDeadline() {
+        return System.currentTimeMillis() + scanDeadlineMillis;
     }
 
     /**
      * 비·눈·우박·흐림 지역 좌표 스캔
      */
-    public List<Map<String, Object>> findSpecificWeatherEventsLocations( // 반환 타입을 List<Map<String, Object>>로 변경
-                                                                         double minLat, double maxLat, double minLon, double maxLon,
-                                                                         double latStep, double lonStep) {
+    public EarthScanResult findSpecificWeatherEventsLocations(double minLat, double maxLat, double minLon, double maxLon,
+                                                              double latStep, double lonStep) {
+        return findSpecificWeatherEventsLocations(minLat, maxLat, minLon, maxLon, latStep, lonStep, newScanDeadline());
+    }
+
+    /**
+     * deadlineAtMillis(epoch ms) 까지 조회된 지점만으로 스캔 결과를 만듭니다.
+     * 각 지점은 비동기로 조회되며, 실제 업스트림 호출 속도는 공용 호출 제한기가 정합니다.
+     */
+    public EarthScanResult findSpecificWeatherEventsLocations(double minLat, double maxLat, double minLon, double maxLon,
+                                                              double latStep, double lonStep, long deadlineAtMillis) {
+        return scanCells(cells(minLat, maxLat, minLon, maxLon, latStep, lonStep), deadlineAtMillis);
+    }
 
+    /** 주어진 격자 지점을 스캔하고 끝날 때까지(또는 마감까지) 기다립니다. */
+    public EarthScanResult scanCells(List<double[]> cells, long deadlineAtMillis) {
         List<Map<String, Object>> eventLocations = Collections.synchronizedList(new ArrayList<>());
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
-
-        for (double lat = minLat; lat <= maxLat; lat += latStep) {
-            for (double lon = minLon; lon <= maxLon; lon += lonStep) {
-                final double currentLat = lat;
-                final double currentLon = lon;
-
-                futures.add(CompletableFuture.runAsync(() -> {
-                    try {
-                        CurrentWeatherResponse currentWeather = openWeatherApiService.getCurrentWeather(currentLat, currentLon);
-
-                        // OpenWeatherMap 응답 구조에 따라 데이터 추출
-                        if (currentWeather != null && currentWeather.getMain() != null && currentWeather.getWeather() != null) {
-                            List<String> eventTypes = new ArrayList<>();
-
-                            /* ───── 강수 여부 확인 ───── */
-                            // OpenWeatherMap의 weather code 또는 rain/snow 객체로 강수 여부 판단
-                            boolean isRaining = currentWeather.getRain() != null && currentWeather.getRain().get_1h() != null && currentWeather.getRain().get_1h() > 0;
-                            boolean isSnowing = currentWeather.getSnow() != null && currentWeather.getSnow().get_1h() != null && currentWeather.getSnow().get_1h() > 0;
-
-                            // OpenWeatherMap weather main 필드 확인 (Rain, Snow, Drizzle 등)
-                            if (currentWeather.getWeather() != null && !currentWeather.getWeather().isEmpty()) {
-                                String weatherMain = currentWeather.getWeather().get(0).getMain();
-                                int weatherId = currentWeather.getWeather().get(0).getId(); // weather ID로 상세 분류
-
-                                if ("Rain".equalsIgnoreCase(weatherMain) || isRaining) {
-                                    eventTypes.add("Rain"); // 비
-                                } else if ("Snow".equalsIgnoreCase(weatherMain) || isSnowing) {
-                                    eventTypes.add("Snow"); // 눈
-                                } else if ("Drizzle".equalsIgnoreCase(weatherMain)) {
-                                    eventTypes.add("Drizzle"); // 이슬비
-                                } else if (weatherId >= 200 && weatherId < 300) { // Thunderstorm (2xx)
-                                    eventTypes.add("Thunderstorm"); // 뇌우
-                                }
-                                // 우박은 weather main/description에 명시적으로 없으므로, precipitationType이 없는 OpenWeatherMap에서는 판단하기 어려움.
-                                // 필요하다면, 매우 높은 강수 강도나 특정 기상 조건(온도 등)을 조합하여 유추해야 함.
-                                // 현재 OpenWeatherMap API의 기본 응답으로는 우박을 명확히 구분하기 어려우므로, 이 부분은 유의해야 합니다.
-                                // 만약 우박 정보가 정말 필요하다면, 유료 API 또는 다른 데이터 소스를 고려해야 합니다.
-                            }
-
-                            /* ───── 흐림 여부 확인 ───── */
-                            // 구름량이 50% 이상이면 흐림으로 간주
-                            if (currentWeather.getClouds() != null && currentWeather.getClouds().getAll() != null && currentWeather.getClouds().getAll() >= 50) {
-                                eventTypes.add("Cloudiness"); // 흐림
-                            }
-
-                            if (!eventTypes.isEmpty()) { // 최소 하나 이상의 이벤트 유형이 감지된 경우에만 추가
-                                Map<String, Object> point = new HashMap<>(); // Map<String, Object> 사용
-                                point.put("lat", currentLat);
-                                point.put("lon", currentLon);
-                                point.put("types", eventTypes); // 이벤트 유형 리스트 추가
-                                eventLocations.add(point);
-                            }
-                        }
-                    } catch (Exception e) {
-                        logger.warn("OpenWeatherMap API 호출 실패 (lat={}, lon={}): {}", currentLat, currentLon, e.getMessage());
-                        // 오류 발생 시 해당 지점은 스캔에서 제외됩니다.
+        FanOutExecutor.Outcome outcome = fanOutExecutor.run(cells,
+                cell -> openWeatherApiService.getCurrentWeatherAsync(cell[0], cell[1], weatherInterpolationEnabled),
+                (cell, currentWeather) -> {
+                    Map<String, Object> point = toEventPoint(cell[0], cell[1], currentWeather);
+                    if (point != null) {
+                        eventLocations.add(point);
                     }
-                }, executorService));
+                },
+                deadlineAtMillis);
+
+        if (outcome.isTimedOut()) {
+            logger.warn("날씨 이벤트 스캔 마감 시간 초과. {}/{}개 지점만 반영합니다.", outcome.getCompleted(), outcome.getTotal());
+        }
+        return new EarthScanResult(new ArrayList<>(eventLocations), outcome.getTotal(), outcome.getCompleted(), outcome.isTimedOut());
+    }
+
+    /**
+     * 중심 좌표 주변 반경(도) 안의 격자 지점 목록. 위도는 ±90 에서 자릅니다.
+     * 경도는 날짜변경선을 넘어도 하나의 연속 구간으로 나열한 뒤 정규화하므로, ±180 경선이나 한 바퀴를 넘는 범위도 중복되지 않습니다.
+     */
+    public List<double[]> gridCells(double centerLat, double centerLon, double searchRadiusDegrees,
+                                    double latStep, double lonStep) {
+        double[] bounds = gridBounds(centerLat, centerLon, searchRadiusDegrees);
+        return cells(bounds[0], bounds[1], bounds[2], bounds[3], latStep, lonStep);
+    }
+
+    /**
+     * gridCells 가 만들 지점 수 (목록을 만들지 않고 계산). 요청이 너무 큰지 미리 확인하는 데 씁니다.
+     * 중복 제거 전 값이므로 실제 지점 수보다 조금 클 수 있습니다.
+     */
+    public long countGridCells(double centerLat, double centerLon, double searchRadiusDegrees,
+                               double latStep, double lonStep) {
+        double[] bounds = gridBounds(centerLat, centerLon, searchRadiusDegrees);
+        return gridSize(steps(bounds[0], bounds[1], latStep), steps(bounds[2], bounds[3], lonStep));
+    }
+
+    /** {minLat, maxLat, minLon, maxLon}. 경도는 정규화하지 않은 연속 구간 (최대 한 바퀴) */
+    private static double[] gridBounds(double centerLat, double centerLon, double searchRadiusDegrees) {
+        double minLat = Math.max(centerLat - searchRadiusDegrees, -90.0);
+        double maxLat = Math.min(centerLat + searchRadiusDegrees, 90.0);
+        double lonRadius = Math.min(searchRadiusDegrees, 180.0);
+        return new double[]{minLat, maxLat, centerLon - lonRadius, centerLon + lonRadius};
+    }
+
+    /**
+     * 격자 지점을 비동기로 스캔하며, 지점 하나의 판정이 끝날 때마다 onCell 을 호출합니다.
+     * 이벤트가 감지되지 않은 지점은 null 로 전달됩니다. (진행률 표시용, 여러 스레드에서 호출될 수 있음)
+     * 반환된 Future 를 취소하면 남은 조회가 모두 취소됩니다.
+     */
+    public CompletableFuture<FanOutExecutor.Outcome> scanCellsAsync(List<double[]> cells, long deadlineAtMillis,
+                                                                   BiConsumer<double[], Map<String, Object>> onCell) {
+        return scanCellsAsync(cells, deadlineAtMillis, cell -> true, onCell);
+    }
+
+    /**
+     * admit 이 false 를 돌려준 지점은 조회하지 않고 실패로 처리합니다. (스캔 작업의 호출 예산 적용용)
+     * admit 은 지점 조회를 시작하기 직전에 호출됩니다.
+     */
+    public CompletableFuture<FanOutExecutor.Outcome> scanCellsAsync(List<double[]> cells, long deadlineAtMillis,
+                                                                   Predicate<double[]> admit,
+                                                                   BiConsumer<double[], Map<String, Object>> onCell) {
+        return fanOutExecutor.submit(cells,
+                cell -> admit.test(cell)
+                        ? openWeatherApiService.getCurrentWeatherAsync(cell[0], cell[1], weatherInterpolationEnabled)
+                        : CompletableFuture.failedFuture(new IllegalStateException("스캔 호출 예산 초과")),
+                (cell, currentWeather) -> onCell.accept(cell, toEventPoint(cell[0], cell[1], currentWeather)),
+                deadlineAtMillis);
+    }
+
+    /**
+     * 정수 인덱스로 격자 지점을 나열합니다. (min + i * step, 부동소수 누적 오차로 끝 지점이 빠지거나 겹치지 않음)
+     * 경도는 정규화한 값 기준으로 중복을 제거합니다. (-180 과 180 은 같은 경선)
+     */
+    private List<double[]> cells(double minLat, double maxLat, double minLon, double maxLon,
+                                 double latStep, double lonStep) {
+        long count = gridSize(steps(minLat, maxLat, latStep), steps(minLon, maxLon, lonStep));
+        if (count > MAX_GRID_CELLS) {
+            throw new IllegalArgumentException("스캔 지점 수(" + count + ")가 너무 많습니다. 반경을 줄이거나 간격을 늘려 주세요.");
+        }
+        int latCount = (int) steps(minLat, maxLat, latStep);
+        int lonCount = (int) steps(minLon, maxLon, lonStep);
+        List<double[]> cells = new ArrayList<>(Math.multiplyExact(latCount, lonCount));
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < latCount; i++) {
+            double lat = minLat + i * latStep;
+            for (int j = 0; j < lonCount; j++) {
+                double lon = WeatherTiles.normalizeLon(minLon + j * lonStep);
+                if (seen.add(Math.round(lat * 1e6) * 1_000_000_000L + Math.round(lon * 1e6))) {
+                    cells.add(new double[]{lat, lon});
+                }
             }
         }
+        return cells;
+    }
+
+    /** min ~ max 를 step 간격으로 나눈 지점 수 (양 끝 포함). 아주 작은 step 은 Long.MAX_VALUE 에서 멈춤 */
+    static long steps(double min, double max, double step) {
+        if (max < min) return 0;
+        double count = Math.floor((max - min) / step + 1e-9) + 1;
+        return count >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) count;
+    }
+
+    /** 위도 지점 수 x 경도 지점 수. 넘치면 Long.MAX_VALUE */
+    static long gridSize(long latCount, long lonCount) {
+        if (latCount != 0 && lonCount > Long.MAX_VALUE / latCount) {
+            return Long.MAX_VALUE;
+        }
+        return latCount * lonCount;
+    }
 
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-        return eventLocations;
+    /** 감지된 이벤트가 있으면 지점 정보를, 없거나 조회에 실패했으면 null (해당 지점은 스캔에서 제외) */
+    private Map<String, Object> toEventPoint(double currentLat, double currentLon, CurrentWeatherResponse currentWeather) {
+        EnumSet<WeatherEventType> eventTypes = WeatherEventType.classify(currentWeather);
+        if (eventTypes.isEmpty()) { // 최소 하나 이상의 이벤트 유형이 감지된 경우에만 추가
+            return null;
+        }
+        Map<String, Object> point = new HashMap<>(); // Map<String, Object> 사용
+        point.put("lat", currentLat);
+        point.put("lon", currentLon);
+        point.put("types", WeatherEventType.names(eventTypes)); // 이벤트 유형 리스트 추가
+        if (currentWeather.isInterpolated()) {
+            point.put("interpolated", true); // 주변 격자 보간값
+        }
+        return point;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package com.dgsw.heckathon.ai;
+
+import com.dgsw.heckathon.weather.WeatherTileCache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 스캔 작업 1건의 업스트림 호출 예산.
+ * 아직 캐시에 없는 타일을 처음 조회할 때만 1회 차감하고, 같은 타일의 다른 지점은 캐시/호출 병합으로 처리되므로 차감하지 않습니다.
+ * 타일은 차감에 성공한 뒤에만 기록하므로, 예산이 없어 거절된 타일의 다음 지점도 다시 예산 검사를 받습니다.
+ */
+final class ScanBudget {
+
+    private final WeatherTileCache tileCache;
+    private final int limit;
+    private final Set<Long> chargedTiles = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicBoolean exhausted = new AtomicBoolean();
+
+    ScanBudget(WeatherTileCache tileCache, int limit) {
+        this.tileCache = tileCache;
+        this.limit = limit;
+    }
+
+    /** 지점 조회를 시작해도 되는지. false 면 예산이 모두 소진된 것 (여러 스레드에서 호출될 수 있음) */
+    boolean admit(double lat, double lon) {
+        if (tileCache.containsCurrent(lat, lon)) {
+            return true;
+        }
+        long tile = tileCache.tileKey(lat, lon);
+        if (chargedTiles.contains(tile)) {
+            return true;
+        }
+        if (calls.incrementAndGet() > limit) {
+            calls.decrementAndGet();
+            exhausted.set(true);
+            return false;
+        }
+        if (!chargedTiles.add(tile)) {
+            calls.decrementAndGet(); // 같은 타일을 다른 스레드가 먼저 차감함
+        }
+        return true;
+    }
+
+    int getCalls() {
+        return calls.get();
+    }
+
+    boolean isExhausted() {
+        return exhausted.get();
+    }
+}
@@ -0,0 +1,239 @@
+package com.dgsw.heckathon.ai;
+
+import com.dgsw.heckathon.weather.CurrentWeatherResponse;
+import com.dgsw.heckathon.weather.FanOutExecutor;
+import com.dgsw.heckathon.weather.OpenWeatherApiService;
+import com.dgsw.heckathon.weather.WeatherTiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 전 지구를 고정 해상도 격자로 나눈 날씨 이벤트 래스터.
+ * 이벤트 종류마다 격자 칸 수만큼의 BitSet 을 두고, 백그라운드에서 가장 오래된 칸부터 조금씩 다시 조회해 갱신합니다.
+ * /earth 는 요청마다 수백 번의 HTTP 호출 대신 이 래스터에서 범위 질의로 답합니다.
+ * 조회 결과는 갱신 주기가 끝날 때마다 불변 스냅샷으로 교체되므로, 질의는 잠금 없이 수행됩니다.
+ */
+@Component
+public class WeatherEventRaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherEventRaster.class);
+
+    private static final WeatherEventType[] TYPES = WeatherEventType.values();
+
+    private final OpenWeatherApiService openWeatherApiService;
+    private final FanOutExecutor fanOutExecutor;
+    private final boolean enabled;
+    private final double resolutionDegrees;
+    private final int rows;
+    private final int cols;
+    private final int cellsPerCycle;
+    private final long cycleDeadlineMillis;
+    private final double minCoverage;
+
+    // 갱신 스레드에서만 쓰는 작업용 비트셋 (this 로 동기화)
+    private final BitSet[] workingByType;
+    private final BitSet workingKnown;
+    private int cursor;
+
+    // 이전 주기의 조회가 아직 끝나지 않았으면 다음 주기는 건너뜀
+    private final AtomicBoolean cycleRunning = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+
+    public WeatherEventRaster(OpenWeatherApiService openWeatherApiService, FanOutExecutor fanOutExecutor,
+                              @Value("${earth.raster.enabled:true}") boolean enabled,
+                              @Value("${earth.raster.resolution-degrees:10}") double resolutionDegrees,
+                              @Value("${earth.raster.cells-per-cycle:20}") int cellsPerCycle,
+                              @Value("${earth.raster.cycle-deadline-ms:50000}") long cycleDeadlineMillis,
+                              @Value("${earth.raster.min-coverage:0.9}") double minCoverage) {
+        if (resolutionDegrees <= 0) {
+            throw new IllegalArgumentException("earth.raster.resolution-degrees 는 0보다 커야 합니다: " + resolutionDegrees);
+        }
+        this.openWeatherApiService = openWeatherApiService;
+        this.fanOutExecutor = fanOutExecutor;
+        this.enabled = enabled;
+        this.resolutionDegrees = resolutionDegrees;
+        this.rows = (int) Math.ceil(180.0 / resolutionDegrees);
+        this.cols = (int) Math.ceil(360.0 / resolutionDegrees);
+        this.cellsPerCycle = cellsPerCycle;
+        this.cycleDeadlineMillis = cycleDeadlineMillis;
+        this.minCoverage = minCoverage;
+
+        int cells = rows * cols;
+        this.workingByType = new BitSet[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            workingByType[i] = new BitSet(cells);
+        }
+        this.workingKnown = new BitSet(cells);
+        this.snapshot = new Snapshot(workingByType, workingKnown, 0L);
+    }
+
+    /**
+     * 가장 오래 갱신되지 않은 칸부터 cells-per-cycle 개를 다시 조회합니다.
+     * 칸 수와 주기로 업스트림 사용량이 정해지므로 (예: 20칸/분) 호출 한도 안에서 조절합니다.
+     * 조회는 비동기로 흩뿌리고 스냅샷 교체는 완료 콜백에서 하므로, 스케줄러 스레드(기본 1개, 타일 미리 갱신과 공유)를 붙잡지 않습니다.
+     */
+    @Scheduled(fixedDelayString = "${earth.raster.refresh-interval-ms:60000}", initialDelayString = "${earth.raster.initial-delay-ms:5000}")
+    public void refresh() {
+        if (!enabled || !cycleRunning.compareAndSet(false, true)) {
+            return;
+        }
+        int total = rows * cols;
+        List<Integer> batch = new ArrayList<>(cellsPerCycle);
+        synchronized (this) {
+            for (int i = 0; i < Math.min(cellsPerCycle, total); i++) {
+                batch.add(cursor);
+                cursor = (cursor + 1) % total;
+            }
+        }
+
+        fanOutExecutor.submit(batch,
+                cell -> openWeatherApiService.getCurrentWeatherAsync(centerLat(cell / cols), centerLon(cell % cols)),
+                this::record,
+                System.currentTimeMillis() + cycleDeadlineMillis)
+                .whenComplete((outcome, error) -> {
+                    try {
+                        synchronized (this) {
+                            snapshot = new Snapshot(workingByType, workingKnown, System.currentTimeMillis());
+                        }
+                        if (outcome != null) {
+                            logger.debug("날씨 이벤트 래스터 {}/{}칸 갱신, 전체 채움률 {}", outcome.getCompleted(), batch.size(), coverage());
+                        } else {
+                            logger.warn("날씨 이벤트 래스터 갱신 실패: {}", error != null ? error.getMessage() : "unknown");
+                        }
+                    } finally {
+                        cycleRunning.set(false);
+                    }
+                });
+    }
+
+    private void record(int cell, CurrentWeatherResponse currentWeather) {
+        if (currentWeather == null) {
+            return; // 조회 실패 칸은 이전 판정을 유지
+        }
+        EnumSet<WeatherEventType> eventTypes = WeatherEventType.classify(currentWeather);
+        synchronized (this) {
+            for (WeatherEventType type : TYPES) {
+                workingByType[type.ordinal()].set(cell, eventTypes.contains(type));
+            }
+            workingKnown.set(cell);
+        }
+    }
+
+    /** 질의에 쓸 수 있을 만큼(min-coverage 이상) 칸이 채워졌는지 여부 */
+    public boolean isReady() {
+        return enabled && coverage() >= minCoverage;
+    }
+
+    /** 한 번이라도 판정된 칸의 비율 (0 ~ 1) */
+    public double coverage() {
+        return (double) snapshot.known.cardinality() / (rows * cols);
+    }
+
+    public double getResolutionDegrees() {
+        return resolutionDegrees;
+    }
+
+    public long getUpdatedAtMillis() {
+        return snapshot.updatedAtMillis;
+    }
+
+    /**
+     * 범위 안에서 이벤트가 감지된 칸 목록 (칸 중심 좌표 기준). minLon > maxLon 이면 날짜변경선을 넘는 범위로 봅니다.
+     * 반환 형식은 실시간 스캔과 같습니다. (lat, lon, types)
+     */
+    public List<Map<String, Object>> query(double minLat, double maxLat, double minLon, double maxLon) {
+        Snapshot current = snapshot;
+        List<Map<String, Object>> eventLocations = new ArrayList<>();
+        int rowFrom = Math.max(0, (int) Math.ceil((minLat + 90.0) / resolutionDegrees - 0.5));
+        int rowTo = Math.min(rows - 1, (int) Math.floor((maxLat + 90.0) / resolutionDegrees - 0.5));
+        if (minLon <= maxLon) {
+            collect(current, rowFrom, rowTo, minLon, maxLon, eventLocations);
+        } else {
+            collect(current, rowFrom, rowTo, minLon, 180.0, eventLocations);
+            collect(current, rowFrom, rowTo, -180.0, maxLon, eventLocations);
+        }
+        return eventLocations;
+    }
+
+    private void collect(Snapshot current, int rowFrom, int rowTo, double minLon, double maxLon,
+                         List<Map<String, Object>> out) {
+        int colFrom = Math.max(0, (int) Math.ceil((minLon + 180.0) / resolutionDegrees - 0.5));
+        int colTo = Math.min(cols - 1, (int) Math.floor((maxLon + 180.0) / resolutionDegrees - 0.5));
+        if (colFrom > colTo) {
+            return;
+        }
+        for (int row = rowFrom; row <= rowTo; row++) {
+            int end = row * cols + colTo + 1;
+            for (int cell = current.any.nextSetBit(row * cols + colFrom); cell >= 0 && cell < end;
+                 cell = current.any.nextSetBit(cell + 1)) {
+                List<String> types = new ArrayList<>(2);
+                for (WeatherEventType type : TYPES) {
+                    if (current.byType[type.ordinal()].get(cell)) {
+                        types.add(type.name());
+                    }
+                }
+                Map<String, Object> point = new HashMap<>();
+                point.put("lat", centerLat(row));
+                point.put("lon", centerLon(cell % cols));
+                point.put("types", types);
+                out.add(point);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("resolutionDegrees", resolutionDegrees);
+        stats.put("cells", rows * cols);
+        stats.put("coverage", coverage());
+        stats.put("ready", isReady());
+        stats.put("updatedAtMillis", current.updatedAtMillis);
+        Map<String, Integer> counts = new HashMap<>();
+        for (WeatherEventType type : TYPES) {
+            counts.put(type.name(), current.byType[type.ordinal()].cardinality());
+        }
+        stats.put("eventCells", counts);
+        return stats;
+    }
+
+    private double centerLat(int row) {
+        return WeatherTiles.clampLat(-90.0 + (row + 0.5) * resolutionDegrees);
+    }
+
+    private double centerLon(int col) {
+        return WeatherTiles.normalizeLon(-180.0 + (col + 0.5) * resolutionDegrees);
+    }
+
+    /** 질의용 불변 스냅샷 (생성 시 작업용 비트셋을 복사) */
+    private static final class Snapshot {
+        final BitSet[] byType;
+        final BitSet any;   // 이벤트가 하나라도 있는 칸
+        final BitSet known; // 한 번이라도 판정된 칸
+        final long updatedAtMillis;
+
+        Snapshot(BitSet[] byType, BitSet known, long updatedAtMillis) {
+            this.byType = new BitSet[byType.length];
+            this.any = new BitSet();
+            for (int i = 0; i < byType.length; i++) {
+                this.byType[i] = (BitSet) byType[i].clone();
+                this.any.or(byType[i]);
+            }
+            this.known = (BitSet) known.clone();
+            this.updatedAtMillis = updatedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.dgsw.heckathon.ai;
+
+import com.dgsw.heckathon.weather.CurrentWeatherResponse;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * /earth 스캔에서 찾는 날씨 이벤트 종류와, 현재 날씨 응답으로부터의 판정 규칙.
+ * 실시간 스캔과 전역 이벤트 래스터가 같은 규칙을 쓰도록 한곳에 둡니다.
+ */
+public enum WeatherEventType {
+    Rain,         // 비
+    Snow,         // 눈
+    Drizzle,      // 이슬비
+    Thunderstorm, // 뇌우
+    Cloudiness;   // 흐림
+
+    /** 감지된 이벤트 종류 (응답이 없거나 불완전하면 빈 집합) */
+    public static EnumSet<WeatherEventType> classify(CurrentWeatherResponse currentWeather) {
+        EnumSet<WeatherEventType> eventTypes = EnumSet.noneOf(WeatherEventType.class);
+        // OpenWeatherMap 응답 구조에 따라 데이터 추출
+        if (currentWeather == null || currentWeather.getMain() == null || currentWeather.getWeather() == null) {
+            return eventTypes;
+        }
+
+        /* ───── 강수 여부 확인 ───── */
+        // OpenWeatherMap의 weather code 또는 rain/snow 객체로 강수 여부 판단
+        boolean isRaining = currentWeather.getRain() != null && currentWeather.getRain().get_1h() != null && currentWeather.getRain().get_1h() > 0;
+        boolean isSnowing = currentWeather.getSnow() != null && currentWeather.getSnow().get_1h() != null && currentWeather.getSnow().get_1h() > 0;
+
+        // OpenWeatherMap weather main 필드 확인 (Rain, Snow, Drizzle 등)
+        if (!currentWeather.getWeather().isEmpty()) {
+            String weatherMain = currentWeather.getWeather().get(0).getMain();
+            int weatherId = currentWeather.getWeather().get(0).getId(); // weather ID로 상세 분류
+
+            if ("Rain".equalsIgnoreCase(weatherMain) || isRaining) {
+                eventTypes.add(Rain);
+            } else if ("Snow".equalsIgnoreCase(weatherMain) || isSnowing) {
+                eventTypes.add(Snow);
+            } else if ("Drizzle".equalsIgnoreCase(weatherMain)) {
+                eventTypes.add(Drizzle);
+            } else if (weatherId >= 200 && weatherId < 300) { // Thunderstorm (2xx)
+                eventTypes.add(Thunderstorm);
+            }
+            // 우박은 weather main/description에 명시적으로 없으므로, precipitationType이 없는 OpenWeatherMap에서는 판단하기 어려움.
+            // 필요하다면, 매우 높은 강수 강도나 특정 기상 조건(온도 등)을 조합하여 유추해야 함.
+        }
+
+        /* ───── 흐림 여부 확인 ───── */
+        // 구름량이 50% 이상이면 흐림으로 간주
+        if (currentWeather.getClouds() != null && currentWeather.getClouds().getAll() != null && currentWeather.getClouds().getAll() >= 50) {
+            eventTypes.add(Cloudiness);
+        }
+        return eventTypes;
+    }
+
+    /** 응답용 이벤트 이름 목록 ("Rain", "Cloudiness" 등) */
+    public static List<String> names(Set<WeatherEventType> eventTypes) {
+        List<String> names = new ArrayList<>(eventTypes.size());
+        for (WeatherEventType eventType : eventTypes) {
+            names.add(eventType.name());
+        }
+        return names;
+    }
+}
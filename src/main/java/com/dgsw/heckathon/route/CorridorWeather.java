@@ -0,0 +1,40 @@
+package com.dgsw.heckathon.route;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/** 출발지~목적지 대권을 따라 표본 지점마다 조회한 현재 날씨 */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorridorWeather {
+    private List<Sample> samples; // 출발지에서 가까운 순서
+    private int loaded;           // 날씨를 받은 표본 수
+    private boolean timedOut;     // 조회가 마감 시간을 넘겼는지
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Sample {
+        private double lat;
+        private double lon;
+        private double distanceKm;     // 출발지부터의 대권 거리
+        private boolean available;     // false 면 아래 값은 모두 null (조회 실패/마감)
+        private Integer weatherId;
+        private String weatherMain;
+        private String description;
+        private Double temperature;    // °C
+        private Double windSpeed;      // m/s
+        private Integer windDeg;
+        private Double windGust;       // m/s
+        private Double rain1h;         // mm
+        private Double snow1h;         // mm
+        private boolean interpolated;  // 주변 캐시 타일 보간값
+    }
+}
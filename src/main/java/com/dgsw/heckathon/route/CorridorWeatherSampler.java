@@ -0,0 +1,158 @@
+package com.dgsw.heckathon.route;
+
+import com.dgsw.heckathon.weather.CurrentWeatherResponse;
+import com.dgsw.heckathon.weather.FanOutExecutor;
+import com.dgsw.heckathon.weather.OpenWeatherApiService;
+import com.dgsw.heckathon.weather.WeatherTileCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 출발지~목적지 대권을 spacing-km 간격으로 나눈 표본 지점의 현재 날씨를 조회합니다.
+ * 표본 수는 max-samples 를 넘지 않으므로(먼 항로는 간격을 넓힘) 긴 대양 횡단도 경로당 조회 수가 일정하고,
+ * 같은 날씨 타일에 떨어지는 표본은 하나만 남겨 한 번에 병렬로 조회합니다.
+ */
+@Component
+public class CorridorWeatherSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorridorWeatherSampler.class);
+
+    private final OpenWeatherApiService openWeatherApiService;
+    private final FanOutExecutor fanOutExecutor;
+    private final WeatherTileCache tileCache;
+
+    @Value("${route.corridor.spacing-km:300}")
+    private double spacingKm;
+
+    // 경로 1건의 최대 표본 수 (= 최대 업스트림 호출 수, 양 끝 포함)
+    @Value("${route.corridor.max-samples:12}")
+    private int maxSamples;
+
+    @Value("${route.corridor.deadline-ms:8000}")
+    private long deadlineMillis;
+
+    // 표본 지점 날씨를 주변 캐시 타일 보간으로 대신할 수 있는지 여부 (경로 계산과 같은 설정)
+    @Value("${weather.interpolation.route.enabled:false}")
+    private boolean weatherInterpolationEnabled;
+
+    public CorridorWeatherSampler(OpenWeatherApiService openWeatherApiService, FanOutExecutor fanOutExecutor,
+                                  WeatherTileCache tileCache) {
+        this.openWeatherApiService = openWeatherApiService;
+        this.fanOutExecutor = fanOutExecutor;
+        this.tileCache = tileCache;
+    }
+
+    /**
+     * 대권 위 표본 지점 {위도, 경도, 출발지부터의 거리 km}. 양 끝에서 시작해 고르게 나누되,
+     * 앞서 뽑은 표본 중 어느 것과든 같은 날씨 타일에 떨어지는 지점은 뺍니다. (바로 앞 표본만이 아니라 전체 기준이라
+     * 타일 하나는 한 번만 조회되고, 출발지와 같은 타일에 있는 목적지는 빠질 수 있음)
+     */
+    public List<double[]> samplePoints(double startLat, double startLon, double endLat, double endLon) {
+        double distance = GreatCircle.distanceKm(startLat, startLon, endLat, endLon);
+        int count = Math.max(2, Math.min(Math.max(2, maxSamples), (int) Math.ceil(distance / spacingKm) + 1));
+        List<double[]> points = new ArrayList<>(count);
+        Set<Long> tiles = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            double fraction = (double) i / (count - 1);
+            double[] point = GreatCircle.interpolate(startLat, startLon, endLat, endLon, fraction);
+            if (tiles.add(tileCache.tileKey(point[0], point[1]))) {
+                points.add(new double[]{point[0], point[1], distance * fraction});
+            }
+        }
+        return points;
+    }
+
+    /**
+     * 경유지를 차례로 잇는 경로 위 표본 지점 {위도, 경도, 경로 첫 점부터의 거리 km}.
+     * spacing-km 간격이되 limit 개를 넘지 않고, 앞서 뽑은 표본 중 어느 것과든 같은 날씨 타일에 떨어지는 지점은 뺍니다.
+     * (경로가 같은 해역으로 되돌아와도 타일 하나는 한 번만 조회)
+     */
+    public List<double[]> samplePointsAlong(List<Waypoint> route, int limit) {
+        double[] path = RouteGeometry.pack(route);
+        double[] cumulativeKm = new double[RouteGeometry.size(path)];
+        double distance = RouteGeometry.cumulativeKm(path, cumulativeKm);
+        int count = Math.max(2, Math.min(Math.max(2, limit), (int) Math.ceil(distance / spacingKm) + 1));
+        List<double[]> points = new ArrayList<>(count);
+        Set<Long> tiles = new HashSet<>();
+        double[] point = new double[2];
+        for (int i = 0; i < count; i++) {
+            double along = distance * i / (count - 1);
+            RouteGeometry.pointAt(path, cumulativeKm, along, point);
+            if (tiles.add(tileCache.tileKey(point[0], point[1]))) {
+                points.add(new double[]{point[0], point[1], along});
+            }
+        }
+        return points;
+    }
+
+    /** 표본 지점 날씨를 동시에 조회합니다. 마감까지 받지 못한 지점은 available=false */
+    public CorridorWeather sample(double startLat, double startLon, double endLat, double endLon) {
+        return sample(samplePoints(startLat, startLon, endLat, endLon));
+    }
+
+    /** 경로를 따라가는 표본 지점({@link #samplePointsAlong}) 날씨. distanceKm 은 경로 첫 점부터의 항해 거리입니다. */
+    public CorridorWeather sampleAlong(List<Waypoint> route, int limit) {
+        return sample(samplePointsAlong(route, limit));
+    }
+
+    private CorridorWeather sample(List<double[]> points) {
+        Map<double[], CurrentWeatherResponse> weather = new ConcurrentHashMap<>();
+        FanOutExecutor.Outcome outcome = fanOutExecutor.run(points,
+                point -> openWeatherApiService.getCurrentWeatherAsync(point[0], point[1], weatherInterpolationEnabled),
+                (point, currentWeather) -> {
+                    if (currentWeather != null) {
+                        weather.put(point, currentWeather);
+                    }
+                },
+                System.currentTimeMillis() + deadlineMillis);
+        if (outcome.isTimedOut()) {
+            logger.warn("경로 구간 날씨 조회 마감 시간 초과. {}/{}개 지점만 반영합니다. (빈 응답 {}개)",
+                    outcome.getCompleted(), outcome.getTotal(), outcome.getEmpty());
+        }
+
+        List<CorridorWeather.Sample> samples = new ArrayList<>(points.size());
+        for (double[] point : points) {
+            samples.add(toSample(point, weather.get(point)));
+        }
+        return new CorridorWeather(samples, weather.size(), outcome.isTimedOut());
+    }
+
+    private static CorridorWeather.Sample toSample(double[] point, CurrentWeatherResponse response) {
+        CorridorWeather.Sample sample = new CorridorWeather.Sample();
+        sample.setLat(point[0]);
+        sample.setLon(point[1]);
+        sample.setDistanceKm(point[2]);
+        if (response == null || response.getMain() == null) {
+            return sample;
+        }
+        sample.setAvailable(true);
+        sample.setInterpolated(response.isInterpolated());
+        sample.setTemperature(response.getMain().getTemp());
+        if (response.getWeather() != null && !response.getWeather().isEmpty()) {
+            sample.setWeatherId(response.getWeather().get(0).getId());
+            sample.setWeatherMain(response.getWeather().get(0).getMain());
+            sample.setDescription(response.getWeather().get(0).getDescription());
+        }
+        if (response.getWind() != null) {
+            sample.setWindSpeed(response.getWind().getSpeed());
+            sample.setWindDeg(response.getWind().getDeg());
+            sample.setWindGust(response.getWind().getGust());
+        }
+        if (response.getRain() != null) {
+            sample.setRain1h(response.getRain().get_1h());
+        }
+        if (response.getSnow() != null) {
+            sample.setSnow1h(response.getSnow().get_1h());
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,67 @@
+package com.dgsw.heckathon.route;
+
+import com.dgsw.heckathon.weather.WeatherTiles;
+
+/**
+ * 구면(지구 평균 반지름) 위의 대권 거리/방위/보간 계산.
+ * 경로 탐색의 비용과 휴리스틱, 직선 구간의 육지 통과 검사에 공통으로 씁니다.
+ */
+public final class GreatCircle {
+
+    /** 지구 평균 반지름 (km) */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private GreatCircle() {
+    }
+
+    /** 두 지점 사이의 대권 거리 (km, haversine) */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinDPhi = Math.sin((phi2 - phi1) / 2);
+        double sinDLambda = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = sinDPhi * sinDPhi + Math.cos(phi1) * Math.cos(phi2) * sinDLambda * sinDLambda;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /** 출발 지점에서의 초기 방위각 (도, 북쪽 0 시계 방향 0 ~ 360) */
+    public static double initialBearing(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dLambda = Math.toRadians(lon2 - lon1);
+        double y = Math.sin(dLambda) * Math.cos(phi2);
+        double x = Math.cos(phi1) * Math.sin(phi2) - Math.sin(phi1) * Math.cos(phi2) * Math.cos(dLambda);
+        return (Math.toDegrees(Math.atan2(y, x)) + 360.0) % 360.0;
+    }
+
+    /**
+     * 대권 위에서 출발 지점부터 fraction(0 ~ 1) 만큼 간 지점 {위도, 경도}. 경도는 [-180, 180) 으로 정규화합니다.
+     */
+    public static double[] interpolate(double lat1, double lon1, double lat2, double lon2, double fraction) {
+        double[] point = new double[2];
+        interpolate(lat1, lon1, lat2, lon2, fraction, point, 0);
+        return point;
+    }
+
+    /** 새 배열을 만들지 않고 out[offset], out[offset + 1] 에 {위도, 경도} 를 씁니다. (반복 호출용) */
+    public static void interpolate(double lat1, double lon1, double lat2, double lon2, double fraction,
+                                   double[] out, int offset) {
+        double delta = distanceKm(lat1, lon1, lat2, lon2) / EARTH_RADIUS_KM;
+        if (delta < 1e-12) {
+            out[offset] = lat1;
+            out[offset + 1] = WeatherTiles.normalizeLon(lon1);
+            return;
+        }
+        double phi1 = Math.toRadians(lat1);
+        double lambda1 = Math.toRadians(lon1);
+        double phi2 = Math.toRadians(lat2);
+        double lambda2 = Math.toRadians(lon2);
+        double a = Math.sin((1 - fraction) * delta) / Math.sin(delta);
+        double b = Math.sin(fraction * delta) / Math.sin(delta);
+        double x = a * Math.cos(phi1) * Math.cos(lambda1) + b * Math.cos(phi2) * Math.cos(lambda2);
+        double y = a * Math.cos(phi1) * Math.sin(lambda1) + b * Math.cos(phi2) * Math.sin(lambda2);
+        double z = a * Math.sin(phi1) + b * Math.sin(phi2);
+        out[offset] = Math.toDegrees(Math.atan2(z, Math.sqrt(x * x + y * y)));
+        out[offset + 1] = WeatherTiles.normalizeLon(Math.toDegrees(Math.atan2(y, x)));
+    }
+}
@@ -0,0 +1,344 @@
+package com.dgsw.heckathon.route;
+
+import com.dgsw.heckathon.weather.WeatherTiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 전 지구 위경도 격자의 육지/바다 판정 래스터.
+ * 시작 시 번들된 육지 윤곽 다각형을 스캔라인 방식으로 한 번 래스터화해 칸마다 1비트(BitSet)로 보관합니다.
+ * 칸 중심이 육지 다각형 안에 있고 바다 다각형(내해/운하/해협) 밖에 있으면 육지로 봅니다.
+ * 만들어진 뒤에는 읽기 전용이므로 여러 스레드에서 잠금 없이 조회할 수 있습니다.
+ */
+@Component
+public class LandMask {
+
+    private static final Logger logger = LoggerFactory.getLogger(LandMask.class);
+
+    // 구간 검사 시 대권을 이 길이 이하의 조각으로 나눠 조각마다 위경도 직선으로 따라감 (조각 안에서 대권과의 차이는 칸 크기보다 훨씬 작음)
+    private static final double SEGMENT_CHUNK_KM = 300.0;
+
+    private final double resolutionDegrees;
+    private final int rows;
+    private final int cols;
+    private final BitSet land;
+    private final int polygonCount;
+
+    public LandMask(@Value("${route.land-mask.resource:/landmask/land-polygons.txt}") String resource,
+                    @Value("${route.grid.resolution-degrees:0.5}") double resolutionDegrees) {
+        if (resolutionDegrees <= 0) {
+            throw new IllegalArgumentException("route.grid.resolution-degrees 는 0보다 커야 합니다: " + resolutionDegrees);
+        }
+        this.resolutionDegrees = resolutionDegrees;
+        this.rows = WeatherTiles.rows(resolutionDegrees);
+        this.cols = WeatherTiles.cols(resolutionDegrees);
+
+        List<Polygon> polygons = load(resource);
+        BitSet landCells = new BitSet(rows * cols);
+        BitSet waterCells = new BitSet(rows * cols);
+        for (Polygon polygon : polygons) {
+            rasterize(polygon, polygon.water ? waterCells : landCells);
+        }
+        landCells.andNot(waterCells);
+        this.land = landCells;
+        this.polygonCount = polygons.size();
+
+        logger.info("육지 마스크 생성: 다각형 {}개, {}x{} 격자 ({}도), 육지 칸 비율 {}",
+                polygonCount, rows, cols, resolutionDegrees, String.format("%.3f", (double) land.cardinality() / (rows * cols)));
+    }
+
+    public boolean isLand(double lat, double lon) {
+        return isLandCell(row(lat), col(lon));
+    }
+
+    public boolean isLandCell(int row, int col) {
+        return land.get(row * cols + col);
+    }
+
+    /**
+     * 두 지점을 잇는 대권 구간이 육지 칸을 지나는지.
+     * 끝점이 육지 칸이면 그 끝점에 붙은 육지 칸은 approachCells 개까지 접안 구간으로 보고 허용합니다. (해안 항만은 격자에서 육지 칸인 경우가 많음)
+     */
+    public boolean segmentCrossesLand(double lat1, double lon1, double lat2, double lon2, int approachCells) {
+        return segmentTouches(lat1, lon1, lat2, lon2, approachCells, this::isLandCell);
+    }
+
+    /**
+     * 두 지점을 잇는 대권 구간이 blocked 칸을 지나는지. 출발 칸부터 이어지는 막힌 칸과 도착 칸까지 이어지는 막힌 칸은
+     * 각각 approachCells 개까지 세지 않습니다. 바다로 나갔다가 다시 막힌 칸을 지나 바다로 돌아오면 항상 통과로 봅니다.
+     * 대권을 짧은 조각으로 나누고, 조각마다 격자선 교차점을 따라 칸을 차례로 밟아 가므로(DDA) 표본 간격 때문에 칸을 건너뛰는 일이 없습니다.
+     * 삼각함수는 조각 경계에서만 계산하므로 보통 구간 하나에 수 마이크로초가 걸립니다.
+     */
+    public boolean segmentTouches(double lat1, double lon1, double lat2, double lon2, int approachCells,
+                                  CellPredicate blocked) {
+        SegmentScan scan = new SegmentScan(approachCells, blocked);
+        int chunks = Math.max(1, (int) Math.ceil(GreatCircle.distanceKm(lat1, lon1, lat2, lon2) / SEGMENT_CHUNK_KM));
+        double fromLat = lat1;
+        double fromLon = lon1;
+        double[] to = {lat2, lon2};
+        for (int i = 1; i <= chunks; i++) {
+            if (i < chunks) {
+                GreatCircle.interpolate(lat1, lon1, lat2, lon2, (double) i / chunks, to, 0);
+            } else {
+                to[0] = lat2;
+                to[1] = lon2;
+            }
+            if (traverse(fromLat, fromLon, to[0], to[1], scan)) {
+                return true;
+            }
+            fromLat = to[0];
+            fromLon = to[1];
+        }
+        return scan.finish();
+    }
+
+    /**
+     * 위경도 평면의 직선이 지나는 칸을 순서대로 방문 (Amanatides-Woo). 경도 차이는 짧은 쪽(날짜변경선 포함)으로 잡습니다.
+     * 칸 꼭짓점을 정확히 지나면 대각선 칸으로 바로 넘어가므로, 경로 탐색기의 대각선 이동과 같은 기준으로 판정됩니다.
+     */
+    private boolean traverse(double lat1, double lon1, double lat2, double lon2, SegmentScan scan) {
+        double x0 = (WeatherTiles.normalizeLon(lon1) + 180.0) / resolutionDegrees;
+        double y0 = (WeatherTiles.clampLat(lat1) + 90.0) / resolutionDegrees;
+        double dx = WeatherTiles.normalizeLon(lon2 - lon1) / resolutionDegrees;
+        double dy = (WeatherTiles.clampLat(lat2) - WeatherTiles.clampLat(lat1)) / resolutionDegrees;
+
+        int x = (int) Math.floor(x0);
+        int y = (int) Math.floor(y0);
+        int remaining = Math.abs((int) Math.floor(x0 + dx) - x) + Math.abs((int) Math.floor(y0 + dy) - y);
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        double tDeltaX = dx == 0 ? Double.POSITIVE_INFINITY : 1.0 / Math.abs(dx);
+        double tDeltaY = dy == 0 ? Double.POSITIVE_INFINITY : 1.0 / Math.abs(dy);
+        double tMaxX = dx == 0 ? Double.POSITIVE_INFINITY : (dx > 0 ? x + 1 - x0 : x0 - x) * tDeltaX;
+        double tMaxY = dy == 0 ? Double.POSITIVE_INFINITY : (dy > 0 ? y + 1 - y0 : y0 - y) * tDeltaY;
+
+        while (true) {
+            int row = Math.max(0, Math.min(rows - 1, y)); // 북극(90도)은 마지막 행
+            if (scan.visit(row, Math.floorMod(x, cols), cols)) {
+                return true;
+            }
+            if (remaining <= 0) {
+                return false;
+            }
+            if (tMaxX < tMaxY) {
+                x += stepX;
+                tMaxX += tDeltaX;
+                remaining--;
+            } else if (tMaxY < tMaxX) {
+                y += stepY;
+                tMaxY += tDeltaY;
+                remaining--;
+            } else {
+                x += stepX;
+                y += stepY;
+                tMaxX += tDeltaX;
+                tMaxY += tDeltaY;
+                remaining -= 2;
+            }
+        }
+    }
+
+    public int row(double lat) {
+        return WeatherTiles.row(lat, resolutionDegrees);
+    }
+
+    public int col(double lon) {
+        return WeatherTiles.col(lon, resolutionDegrees);
+    }
+
+    public double centerLat(int row) {
+        return WeatherTiles.centerLat(row, resolutionDegrees);
+    }
+
+    public double centerLon(int col) {
+        return WeatherTiles.centerLon(col, resolutionDegrees);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public double getResolutionDegrees() {
+        return resolutionDegrees;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("resolutionDegrees", resolutionDegrees);
+        stats.put("polygons", polygonCount);
+        stats.put("cells", rows * cols);
+        stats.put("landCells", land.cardinality());
+        return stats;
+    }
+
+    /**
+     * 행마다 칸 중심 위도의 수평선과 다각형 변의 교점을 구해, 교점 쌍 사이에 중심이 들어가는 칸을 채웁니다. (짝홀 규칙)
+     * 경도는 연속값으로 다루고 열 번호만 한 바퀴로 접으므로 날짜변경선을 넘는 다각형도 그대로 처리됩니다.
+     */
+    private void rasterize(Polygon polygon, BitSet target) {
+        int n = polygon.lat.length;
+        int rowFrom = Math.max(0, (int) Math.ceil((polygon.minLat + 90.0) / resolutionDegrees - 0.5));
+        int rowTo = Math.min(rows - 1, (int) Math.floor((polygon.maxLat + 90.0) / resolutionDegrees - 0.5));
+        double[] crossings = new double[n];
+        for (int row = rowFrom; row <= rowTo; row++) {
+            double y = -90.0 + (row + 0.5) * resolutionDegrees;
+            int count = 0;
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                double y1 = polygon.lat[j];
+                double y2 = polygon.lat[i];
+                if ((y1 <= y) != (y2 <= y)) { // 반열린 구간으로 꼭짓점을 한 번만 셈
+                    double x1 = polygon.lon[j];
+                    double x2 = polygon.lon[i];
+                    crossings[count++] = x1 + (y - y1) / (y2 - y1) * (x2 - x1);
+                }
+            }
+            Arrays.sort(crossings, 0, count);
+            for (int k = 0; k + 1 < count; k += 2) {
+                int from = (int) Math.ceil((crossings[k] + 180.0) / resolutionDegrees - 0.5);
+                int to = (int) Math.floor((crossings[k + 1] + 180.0) / resolutionDegrees - 0.5);
+                for (int c = from; c <= to; c++) {
+                    target.set(row * cols + Math.floorMod(c, cols));
+                }
+            }
+        }
+    }
+
+    private static List<Polygon> load(String resource) {
+        InputStream in = LandMask.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalStateException("육지 윤곽 파일을 찾을 수 없습니다: " + resource);
+        }
+        List<Polygon> polygons = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String name = null;
+            boolean water = false;
+            List<double[]> points = new ArrayList<>();
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (line.startsWith(">") || (line.startsWith("-") && !Character.isDigit(line.charAt(1)))) {
+                    addPolygon(polygons, name, water, points);
+                    name = line.substring(1).trim();
+                    water = line.startsWith("-");
+                    points = new ArrayList<>();
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length != 2 || name == null) {
+                    throw new IllegalStateException("육지 윤곽 파일 형식 오류 (" + resource + ":" + lineNumber + "): " + line);
+                }
+                points.add(new double[]{Double.parseDouble(parts[0]), Double.parseDouble(parts[1])});
+            }
+            addPolygon(polygons, name, water, points);
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("육지 윤곽 파일을 읽을 수 없습니다: " + resource, e);
+        }
+        return polygons;
+    }
+
+    private static void addPolygon(List<Polygon> polygons, String name, boolean water, List<double[]> points) {
+        if (name == null) {
+            return;
+        }
+        if (points.size() < 3) {
+            logger.warn("꼭짓점이 3개 미만인 육지 윤곽 다각형을 건너뜁니다: {}", name);
+            return;
+        }
+        polygons.add(new Polygon(water, points));
+    }
+
+    /** 구간 검사에서 칸을 막힌 칸으로 볼지 판정 */
+    @FunctionalInterface
+    public interface CellPredicate {
+        boolean test(int row, int col);
+    }
+
+    /** 구간 하나를 따라가며 막힌 칸의 연속 구간을 세는 상태 (조각 경계에서 같은 칸을 두 번 세지 않음) */
+    private static final class SegmentScan {
+        final int approachCells;
+        final CellPredicate blocked;
+        boolean leaving = true; // 아직 출발지에 붙은 막힌 칸을 지나는 중
+        int leadingRun;
+        int trailingRun;        // 바다로 나간 뒤 마지막으로 이어지고 있는 막힌 칸 수
+        int lastCell = -1;
+
+        SegmentScan(int approachCells, CellPredicate blocked) {
+            this.approachCells = approachCells;
+            this.blocked = blocked;
+        }
+
+        /** 칸 하나를 방문하고, 이미 통과로 판정되면 true */
+        boolean visit(int row, int col, int cols) {
+            int cell = row * cols + col;
+            if (cell == lastCell) {
+                return false;
+            }
+            lastCell = cell;
+            boolean isBlocked = blocked.test(row, col);
+            if (leaving) {
+                if (!isBlocked) {
+                    leaving = false;
+                    return false;
+                }
+                return ++leadingRun > approachCells;
+            }
+            if (isBlocked) {
+                trailingRun++;
+                return false;
+            }
+            return trailingRun > 0; // 막힌 칸을 지나 다시 바다로 나옴
+        }
+
+        /** 구간 끝까지 이어진 막힌 칸은 도착지 접안 구간으로 보고 approachCells 개까지 허용 */
+        boolean finish() {
+            return trailingRun > approachCells;
+        }
+    }
+
+    private static final class Polygon {
+        final boolean water;
+        final double[] lat;
+        final double[] lon; // 정규화하지 않은 연속 경도
+        final double minLat;
+        final double maxLat;
+
+        Polygon(boolean water, List<double[]> points) {
+            this.water = water;
+            this.lat = new double[points.size()];
+            this.lon = new double[points.size()];
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (int i = 0; i < points.size(); i++) {
+                lat[i] = points.get(i)[0];
+                lon[i] = points.get(i)[1];
+                min = Math.min(min, lat[i]);
+                max = Math.max(max, lat[i]);
+            }
+            this.minLat = min;
+            this.maxLat = max;
+        }
+    }
+}
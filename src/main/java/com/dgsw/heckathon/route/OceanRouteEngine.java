@@ -0,0 +1,411 @@
+package com.dgsw.heckathon.route;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 육지 마스크의 바다 칸만 지나는 결정적 해상 경로 탐색기.
+ * 8방향으로 이웃한 칸 중심 사이의 대권 거리를 간선 비용으로, 목적지까지의 대권 거리를 휴리스틱으로 하는 A* 를 돌립니다.
+ * 간선 비용이 곧 두 점 사이의 대권 거리이므로 휴리스틱은 과대평가하지 않고, 같은 입력에는 항상 같은 경로가 나옵니다.
+ * 찾은 칸 경로는 육지를 지나지 않는 범위에서 직선(대권) 구간으로 이어 붙여 경유지 수를 줄입니다.
+ * 간선 비용은 {@link RouteCostModel} 로 바꿀 수 있으며, 기본은 대권 거리입니다. (날씨 가중 항해 시간은 WeatherRoutePlanner 참고)
+ */
+@Component
+public class OceanRouteEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(OceanRouteEngine.class);
+
+    private final LandMask landMask;
+    private final int rows;
+    private final int cols;
+    private final double maxLatitude;
+    private final int maxSnapCells;
+
+    // 칸 중심 사이 간선 비용 (km). 같은 행의 동서 이동 비용은 위도에 따라 달라지므로 행마다 미리 계산
+    private final double[] eastWestCost;
+    private final double[] diagonalCost; // row 와 row + 1 사이 대각선
+    private final double northSouthCost;
+
+    // 휴리스틱 계산용 칸 중심 좌표 (라디안)
+    private final double[] rowLatRadians;
+    private final double[] rowCosLat;
+    private final double[] colLonRadians;
+
+    private final AtomicLong routes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong expandedNodes = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+
+    public OceanRouteEngine(LandMask landMask,
+                            @Value("${route.grid.max-latitude:70}") double maxLatitude,
+                            @Value("${route.grid.max-snap-cells:4}") int maxSnapCells) {
+        this.landMask = landMask;
+        this.rows = landMask.rows();
+        this.cols = landMask.cols();
+        this.maxLatitude = maxLatitude;
+        this.maxSnapCells = Math.max(0, maxSnapCells);
+
+        double resolution = landMask.getResolutionDegrees();
+        this.northSouthCost = GreatCircle.distanceKm(0, 0, resolution, 0);
+        this.eastWestCost = new double[rows];
+        this.diagonalCost = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            double lat = landMask.centerLat(row);
+            eastWestCost[row] = GreatCircle.distanceKm(lat, 0, lat, resolution);
+            diagonalCost[row] = GreatCircle.distanceKm(lat, 0, landMask.centerLat(Math.min(row + 1, rows - 1)), resolution);
+        }
+        this.rowLatRadians = new double[rows];
+        this.rowCosLat = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            rowLatRadians[row] = Math.toRadians(landMask.centerLat(row));
+            rowCosLat[row] = Math.cos(rowLatRadians[row]);
+        }
+        this.colLonRadians = new double[cols];
+        for (int col = 0; col < cols; col++) {
+            colLonRadians[col] = Math.toRadians(landMask.centerLon(col));
+        }
+    }
+
+    /**
+     * 출발지에서 목적지까지 바다로만 가는 최단 거리 경유지 목록 (첫 점은 출발지, 마지막 점은 목적지).
+     * 출발지/목적지가 육지 칸이면 가장 가까운 바다 칸에서 출발/도착합니다. 바다로 이어지지 않으면 null.
+     */
+    public List<Waypoint> route(double startLat, double startLon, double endLat, double endLon) {
+        return route(startLat, startLon, endLat, endLon, RouteCostModel.DISTANCE);
+    }
+
+    /**
+     * 비용 모델 기준의 최소 비용 경로. 간선 비용은 도착 칸 중심에서 출발지부터의 누적 비용과 함께 평가되므로
+     * 도착 예정 시각에 따라 비용이 바뀌는 시간 의존 모델도 그대로 쓸 수 있습니다. (대기 없이 바로 출항하는 시간 확장 탐색과 같음)
+     * 지날 수 있는 경로가 없으면 null.
+     */
+    public List<Waypoint> route(double startLat, double startLon, double endLat, double endLon, RouteCostModel model) {
+        long startedAt = System.nanoTime();
+        int start = snap(startLat, startLon);
+        int goal = snap(endLat, endLon);
+        if (start < 0 || goal < 0) {
+            failures.incrementAndGet();
+            logger.warn("경로 탐색 실패: {} 주변 {}칸 안에 바다 칸이 없습니다.",
+                    start < 0 ? "출발지" : "목적지", maxSnapCells);
+            return null;
+        }
+
+        int[] path = search(start, goal, model);
+        if (path == null) {
+            failures.incrementAndGet();
+            logger.warn("경로 탐색 실패: ({}, {}) 에서 ({}, {}) 까지 바다로 이어진 경로가 없습니다.",
+                    startLat, startLon, endLat, endLon);
+            return null;
+        }
+
+        // 점마다 출발지부터의 누적 비용 (출발지 -> 출발 칸 중심은 0 으로 봄)
+        List<double[]> points = new ArrayList<>(path.length + 2);
+        double[] costs = new double[path.length + 2];
+        points.add(new double[]{startLat, startLon});
+        for (int i = 0; i < path.length; i++) {
+            int cell = path[i];
+            points.add(new double[]{landMask.centerLat(cell / cols), landMask.centerLon(cell % cols)});
+            if (i > 0) {
+                costs[i + 1] = costs[i] + edgeCost(path[i - 1], cell, costs[i], model);
+            }
+        }
+        points.add(new double[]{endLat, endLon});
+        double[] last = points.get(path.length);
+        costs[path.length + 1] = costs[path.length]
+                + segmentCost(last[0], last[1], endLat, endLon, costs[path.length], model);
+
+        List<Waypoint> waypoints = new ArrayList<>();
+        for (double[] point : smooth(points, costs, model)) {
+            waypoints.add(new Waypoint(point[0], point[1]));
+        }
+
+        long micros = (System.nanoTime() - startedAt) / 1000;
+        routes.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        logger.debug("격자 경로 탐색 완료: 칸 {}개 -> 경유지 {}개, {}us", path.length, waypoints.size(), micros);
+        return waypoints;
+    }
+
+    /** 경유지를 차례로 따라갈 때의 총비용 (지날 수 없는 구간이 있으면 Double.POSITIVE_INFINITY) */
+    public double pathCost(List<Waypoint> waypoints, RouteCostModel model) {
+        double[] cumulative = cumulativeCosts(waypoints, model);
+        return cumulative.length == 0 ? 0.0 : cumulative[cumulative.length - 1];
+    }
+
+    /** 경유지마다 출발지부터의 누적 비용 (첫 값은 0). 시간 의존 모델은 앞 구간까지의 누적 비용을 이어받아 평가합니다. */
+    public double[] cumulativeCosts(List<Waypoint> waypoints, RouteCostModel model) {
+        double[] cumulative = new double[waypoints.size()];
+        for (int i = 1; i < waypoints.size(); i++) {
+            Waypoint from = waypoints.get(i - 1);
+            Waypoint to = waypoints.get(i);
+            cumulative[i] = cumulative[i - 1] + (cumulative[i - 1] == Double.POSITIVE_INFINITY ? 0.0
+                    : segmentCost(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude(), cumulative[i - 1], model));
+        }
+        return cumulative;
+    }
+
+    /** 배가 지날 수 있는 칸인지 (바다이고 운항 위도 한계 안) */
+    public boolean isNavigable(int row, int col) {
+        return !landMask.isLandCell(row, col) && Math.abs(landMask.centerLat(row)) <= maxLatitude;
+    }
+
+    /**
+     * 두 지점을 잇는 대권 구간이 지날 수 없는 칸을 거치지 않는지.
+     * 끝점에 붙은 육지 칸은 스냅 반경(max-snap-cells)만큼 접안 구간으로 허용합니다.
+     */
+    public boolean segmentClear(double lat1, double lon1, double lat2, double lon2) {
+        return !landMask.segmentTouches(lat1, lon1, lat2, lon2, maxSnapCells, (row, col) -> !isNavigable(row, col));
+    }
+
+    /** 육지 위 출발지/목적지에서 바다 칸까지 허용하는 최대 칸 수 */
+    public int getMaxSnapCells() {
+        return maxSnapCells;
+    }
+
+    /** 지점에서 가장 가까운 지날 수 있는 칸의 중심 {위도, 경도}. 지점 자체가 지날 수 있는 칸이면 그 칸 중심. max-snap-cells 안에 없으면 null */
+    public double[] nearestSea(double lat, double lon) {
+        int cell = snap(lat, lon);
+        return cell < 0 ? null : new double[]{landMask.centerLat(cell / cols), landMask.centerLon(cell % cols)};
+    }
+
+    public Map<String, Object> stats() {
+        long count = routes.get();
+        Map<String, Object> stats = new HashMap<>(landMask.stats());
+        stats.put("maxLatitude", maxLatitude);
+        stats.put("routes", count);
+        stats.put("failures", failures.get());
+        stats.put("expandedNodes", expandedNodes.get());
+        stats.put("averageMillis", count == 0 ? 0.0 : totalMicros.get() / 1000.0 / count);
+        return stats;
+    }
+
+    /** 지점이 속한 칸, 지날 수 없는 칸이면 max-snap-cells 안에서 가장 가까운 바다 칸 (없으면 -1) */
+    private int snap(double lat, double lon) {
+        int row = landMask.row(lat);
+        int col = landMask.col(lon);
+        if (isNavigable(row, col)) {
+            return row * cols + col;
+        }
+        int best = -1;
+        int foundRadius = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int radius = 1; radius <= maxSnapCells; radius++) {
+            for (int dr = -radius; dr <= radius; dr++) {
+                int r = row + dr;
+                if (r < 0 || r >= rows) continue;
+                // 고리(테두리) 칸만 확인
+                int step = Math.abs(dr) == radius ? 1 : 2 * radius;
+                for (int dc = -radius; dc <= radius; dc += step) {
+                    int c = Math.floorMod(col + dc, cols);
+                    if (!isNavigable(r, c)) continue;
+                    double distance = GreatCircle.distanceKm(lat, lon, landMask.centerLat(r), landMask.centerLon(c));
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = r * cols + c;
+                    }
+                }
+            }
+            // 위도에 따라 칸 폭이 달라 바로 바깥 고리의 칸이 더 가까울 수 있으므로 한 고리 더 확인
+            if (best >= 0 && foundRadius < 0) {
+                foundRadius = radius;
+            } else if (foundRadius >= 0) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /** A* 로 찾은 칸 번호 경로 (출발 칸 ~ 도착 칸). 이어지지 않으면 null */
+    private int[] search(int start, int goal, RouteCostModel model) {
+        int cells = rows * cols;
+        double[] g = new double[cells];
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        int[] parent = new int[cells];
+        BitSet closed = new BitSet(cells);
+
+        NodeHeap open = new NodeHeap();
+        g[start] = 0;
+        parent[start] = -1;
+        open.push(start, model.lowerBound(heuristic(start, goal)));
+        long expanded = 0;
+
+        while (open.size > 0) {
+            int node = open.pop();
+            if (closed.get(node)) {
+                continue; // 더 싼 비용으로 이미 꺼낸 칸 (지연 삭제)
+            }
+            if (node == goal) {
+                expandedNodes.addAndGet(expanded);
+                return reconstruct(parent, goal);
+            }
+            closed.set(node);
+            expanded++;
+
+            int row = node / cols;
+            int col = node % cols;
+            for (int dr = -1; dr <= 1; dr++) {
+                int r = row + dr;
+                if (r < 0 || r >= rows) continue;
+                for (int dc = -1; dc <= 1; dc++) {
+                    if (dr == 0 && dc == 0) continue;
+                    int c = Math.floorMod(col + dc, cols); // 날짜변경선에서 반대쪽 끝 열로 이어짐
+                    int next = r * cols + c;
+                    if (closed.get(next) || !isNavigable(r, c)) continue;
+                    double distance = dr == 0 ? eastWestCost[row]
+                            : dc == 0 ? northSouthCost
+                            : diagonalCost[Math.min(row, r)];
+                    double tentative = g[node] + (model == RouteCostModel.DISTANCE ? distance
+                            : model.cost(landMask.centerLat(r), landMask.centerLon(c), distance, g[node]));
+                    if (tentative < g[next]) {
+                        g[next] = tentative;
+                        parent[next] = node;
+                        open.push(next, tentative + model.lowerBound(heuristic(next, goal)));
+                    }
+                }
+            }
+        }
+        expandedNodes.addAndGet(expanded);
+        return null;
+    }
+
+    /** 칸 중심에서 목적지 칸 중심까지의 대권 거리 (km) */
+    private double heuristic(int cell, int goal) {
+        int row = cell / cols;
+        int goalRow = goal / cols;
+        double sinDLat = Math.sin((rowLatRadians[goalRow] - rowLatRadians[row]) / 2);
+        double sinDLon = Math.sin((colLonRadians[goal % cols] - colLonRadians[cell % cols]) / 2);
+        double a = sinDLat * sinDLat + rowCosLat[row] * rowCosLat[goalRow] * sinDLon * sinDLon;
+        return 2 * GreatCircle.EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /** search 와 같은 방식으로 계산한 이웃한 두 칸 사이의 간선 비용 */
+    private double edgeCost(int from, int to, double costSoFar, RouteCostModel model) {
+        int fromRow = from / cols;
+        int toRow = to / cols;
+        double distance = fromRow == toRow ? eastWestCost[fromRow]
+                : from % cols == to % cols ? northSouthCost
+                : diagonalCost[Math.min(fromRow, toRow)];
+        return model == RouteCostModel.DISTANCE ? distance
+                : model.cost(landMask.centerLat(toRow), landMask.centerLon(to % cols), distance, costSoFar);
+    }
+
+    /** 대권 구간을 칸 크기 이하 조각으로 나눠 조각 중간점마다 평가한 비용 */
+    private double segmentCost(double lat1, double lon1, double lat2, double lon2, double costSoFar, RouteCostModel model) {
+        double distance = GreatCircle.distanceKm(lat1, lon1, lat2, lon2);
+        if (model == RouteCostModel.DISTANCE) {
+            return distance;
+        }
+        int pieces = Math.max(1, (int) Math.ceil(distance / northSouthCost));
+        double pieceKm = distance / pieces;
+        double cost = 0;
+        double[] mid = new double[2];
+        for (int i = 0; i < pieces; i++) {
+            GreatCircle.interpolate(lat1, lon1, lat2, lon2, (i + 0.5) / pieces, mid, 0);
+            cost += model.cost(mid[0], mid[1], pieceKm, costSoFar + cost);
+            if (cost == Double.POSITIVE_INFINITY) {
+                break;
+            }
+        }
+        return cost;
+    }
+
+    private static int[] reconstruct(int[] parent, int goal) {
+        int length = 0;
+        for (int node = goal; node >= 0; node = parent[node]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int node = goal, i = length - 1; node >= 0; node = parent[node], i--) {
+            path[i] = node;
+        }
+        return path;
+    }
+
+    /**
+     * 앞 점에서 육지를 거치지 않고 곧장 갈 수 있는 가장 먼 점까지 건너뛰며 경유지를 줄입니다.
+     * 이웃한 두 점은 항상 이어지므로(격자 경로의 한 칸 이동) 더 건너뛸 수 없으면 다음 점으로 넘어갑니다.
+     * 거리 외의 비용 모델에서는 직선 구간이 원래 칸 경로보다 비싸지 않을 때만 건너뜁니다. (폭풍 칸을 가로지르는 지름길 방지)
+     */
+    private List<double[]> smooth(List<double[]> points, double[] costs, RouteCostModel model) {
+        List<double[]> result = new ArrayList<>();
+        int anchor = 0;
+        double anchorCost = 0; // 줄인 경로를 따라 anchor 에 도착했을 때의 누적 비용
+        result.add(points.get(0));
+        while (anchor < points.size() - 1) {
+            int next = anchor + 1;
+            double[] from = points.get(anchor);
+            double nextCost = anchorCost + (costs[next] - costs[anchor]);
+            while (next + 1 < points.size()) {
+                double[] candidate = points.get(next + 1);
+                if (!segmentClear(from[0], from[1], candidate[0], candidate[1])) {
+                    break;
+                }
+                if (model != RouteCostModel.DISTANCE) {
+                    double shortcut = segmentCost(from[0], from[1], candidate[0], candidate[1], anchorCost, model);
+                    if (shortcut > costs[next + 1] - costs[anchor] + 1e-9) {
+                        break;
+                    }
+                    nextCost = anchorCost + shortcut;
+                }
+                next++;
+            }
+            result.add(points.get(next));
+            anchor = next;
+            anchorCost = model == RouteCostModel.DISTANCE ? costs[next] : nextCost;
+        }
+        return result;
+    }
+
+    /** 칸 번호와 우선순위를 primitive 배열에 담는 최소 힙 (갱신 대신 중복 삽입 후 지연 삭제) */
+    private static final class NodeHeap {
+        private int[] nodes = new int[1024];
+        private double[] keys = new double[1024];
+        private int size;
+
+        void push(int node, double key) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                nodes[i] = nodes[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            keys[i] = key;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            int lastNode = nodes[--size];
+            double lastKey = keys[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (keys[child] >= lastKey) break;
+                nodes[i] = nodes[child];
+                keys[i] = keys[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            keys[i] = lastKey;
+            return top;
+        }
+    }
+}
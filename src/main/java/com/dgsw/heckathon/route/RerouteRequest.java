@@ -0,0 +1,20 @@
+package com.dgsw.heckathon.route;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RerouteRequest {
+    private double currentLat;                      // 선박의 현재 위치
+    private double currentLon;
+    private List<Waypoint> waypoints;               // 이전에 받은 경로 (/route 또는 /route/reroute 응답의 waypoints)
+    private List<CorridorWeather.Sample> baseline;  // 이전 /route/reroute 응답의 corridor.samples. 없으면 지금 위험 기상인 구간만 다시 계산
+    private Double vesselSpeedKnots;                // 선속 (노트). 없으면 서버 기본값
+}
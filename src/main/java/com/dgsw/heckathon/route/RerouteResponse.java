@@ -0,0 +1,24 @@
+package com.dgsw.heckathon.route;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RerouteResponse {
+    private List<Waypoint> waypoints;   // 현재 위치부터 목적지까지
+    private String message;
+    private RouteValidation validation; // 육지 마스크 검사 결과
+    private List<RouteLeg> legs;        // 현재 시각 출항 기준 구간별 거리/도착 예정 시각
+    private Double totalDistanceKm;     // 남은 항해 거리
+    private int reusedLegs;             // 이전 경로에서 그대로 쓴 구간 수
+    private int recomputedLegs;         // 날씨 변화로 다시 계산한 이전 경로 구간 수
+    private CorridorWeather corridor;   // 남은 경로를 따라 조회한 현재 날씨 (다음 요청의 baseline 으로 보냄)
+    private long elapsedMillis;
+}
@@ -0,0 +1,254 @@
+package com.dgsw.heckathon.route;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 항해 중인 선박의 경로 재계획.
+ * 이전 경로에서 현재 위치 이후의 남은 구간만 남기고, 그 경로를 따라 현재 날씨를 표본 조회해 이전 응답의 날씨(baseline)와 비교합니다.
+ * 날씨가 임계값 이상 바뀐 구간(앞뒤 span-padding-legs 구간 포함)만 예보 가중 경로로 다시 계산하고 나머지 구간은 그대로 씁니다.
+ * 바뀐 구간이 없으면 예보 조회/경로 탐색 없이 타일 캐시를 거친 표본 조회만 하므로, 선박마다 몇 분 간격으로 호출해도 가볍습니다.
+ */
+@Service
+public class RerouteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RerouteService.class);
+
+    // 남은 경로를 따라 조회할 최대 표본 수
+    @Value("${route.reroute.max-samples:24}")
+    private int maxSamples;
+
+    // 이 값(m/s) 이상 풍속이 바뀐 표본이 있는 구간은 다시 계산
+    @Value("${route.reroute.wind-change-ms:5}")
+    private double windChangeMs;
+
+    // 위험 기상으로 보는 풍속 (m/s). 위험 여부가 바뀐 구간도 다시 계산
+    @Value("${route.reroute.hazard-wind-ms:15}")
+    private double hazardWindMs;
+
+    // baseline 표본을 같은 지점으로 보는 최대 거리 (km)
+    @Value("${route.reroute.baseline-match-km:150}")
+    private double baselineMatchKm;
+
+    // 바뀐 구간 앞뒤로 함께 다시 계산할 구간 수 (우회할 여유)
+    @Value("${route.reroute.span-padding-legs:1}")
+    private int spanPaddingLegs;
+
+    // 현재 위치가 이전 경로에서 이만큼(km) 넘게 벗어나 있으면 다음 경유지까지를 다시 계산
+    @Value("${route.reroute.max-offset-km:100}")
+    private double maxOffsetKm;
+
+    private final RouteService routeService;
+    private final WeatherRoutePlanner weatherRoutePlanner;
+    private final CorridorWeatherSampler corridorWeatherSampler;
+    private final WaypointValidator waypointValidator;
+
+    public RerouteService(RouteService routeService, WeatherRoutePlanner weatherRoutePlanner,
+                          CorridorWeatherSampler corridorWeatherSampler, WaypointValidator waypointValidator) {
+        this.routeService = routeService;
+        this.weatherRoutePlanner = weatherRoutePlanner;
+        this.corridorWeatherSampler = corridorWeatherSampler;
+        this.waypointValidator = waypointValidator;
+    }
+
+    /** 재계획 응답과 HTTP 상태. 실패도 예외 대신 상태 코드와 메시지로 돌려줍니다. */
+    public ResponseEntity<RerouteResponse> reroute(RerouteRequest request) {
+        long startedAt = System.currentTimeMillis();
+        List<Waypoint> previous = request.getWaypoints();
+        if (previous == null || previous.size() < 2) {
+            return new ResponseEntity<>(failure("이전 경로(waypoints)는 경유지가 2개 이상이어야 합니다.", null, startedAt), HttpStatus.BAD_REQUEST);
+        }
+        if (Math.abs(request.getCurrentLat()) > 90.0 || Math.abs(request.getCurrentLon()) > 180.0) {
+            return new ResponseEntity<>(failure("Invalid current position", null, startedAt), HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            Instant now = Instant.now();
+            double knots = request.getVesselSpeedKnots() != null && request.getVesselSpeedKnots() > 0
+                    ? request.getVesselSpeedKnots() : weatherRoutePlanner.getDefaultSpeedKnots();
+
+            int[] offRoute = new int[1];
+            List<Waypoint> remaining = remainingRoute(previous, request.getCurrentLat(), request.getCurrentLon(), offRoute);
+            int legCount = remaining.size() - 1;
+            double[] path = RouteGeometry.pack(remaining);
+            double[] cumulativeKm = new double[remaining.size()];
+            RouteGeometry.cumulativeKm(path, cumulativeKm);
+
+            // 날씨가 바뀐 표본이 있는 구간, 육지를 지나는 구간, 경로에서 벗어난 현재 위치에서 이어지는 첫 구간
+            boolean[] affected = new boolean[legCount];
+            CorridorWeather corridor = corridorWeatherSampler.sampleAlong(remaining, maxSamples);
+            for (CorridorWeather.Sample sample : corridor.getSamples()) {
+                if (changed(sample, baselineFor(sample, request.getBaseline()))) {
+                    affected[legAt(cumulativeKm, sample.getDistanceKm())] = true;
+                }
+            }
+            for (int leg : waypointValidator.validate(remaining).getCrossingLegs()) {
+                affected[leg] = true;
+            }
+            if (offRoute[0] > 0) {
+                affected[0] = true;
+            }
+
+            List<int[]> spans = spans(affected);
+            List<Waypoint> rebuilt = new ArrayList<>();
+            int recomputedLegs = 0;
+            int next = 0;
+            for (int[] span : spans) {
+                for (int i = next; i < span[0]; i++) {
+                    rebuilt.add(remaining.get(i));
+                }
+                Waypoint from = remaining.get(span[0]);
+                Waypoint to = remaining.get(span[1]);
+                // 구간 시작점 도착 예정 시각은 이전 경로를 선속으로 따라갔을 때 기준
+                Instant spanDeparture = now.plusSeconds(Math.round(cumulativeKm[span[0]] / (knots * RouteGeometry.KNOT_KMH) * 3600.0));
+                WeatherRoutePlan plan = weatherRoutePlanner.plan(from.getLatitude(), from.getLongitude(),
+                        to.getLatitude(), to.getLongitude(), knots, spanDeparture);
+                if (plan == null) {
+                    return new ResponseEntity<>(failure("No sea route found that avoids forecast storms", corridor, startedAt), HttpStatus.NOT_FOUND);
+                }
+                rebuilt.addAll(plan.getWaypoints().subList(0, plan.getWaypoints().size() - 1));
+                recomputedLegs += span[1] - span[0];
+                next = span[1];
+            }
+            for (int i = next; i < remaining.size(); i++) {
+                rebuilt.add(remaining.get(i));
+            }
+
+            RouteValidation validation = waypointValidator.validate(rebuilt);
+            if (!validation.isValid()) {
+                List<Waypoint> repaired = waypointValidator.isRepairEnabled() ? waypointValidator.repair(rebuilt) : null;
+                if (repaired == null) {
+                    return new ResponseEntity<>(failure("Re-planned route crosses land", corridor, startedAt), HttpStatus.BAD_GATEWAY);
+                }
+                rebuilt = repaired;
+                validation.setRepaired(true);
+            }
+
+            List<RouteLeg> legs = routeService.describeLegs(rebuilt, knots, now, null);
+            long elapsed = System.currentTimeMillis() - startedAt;
+            logger.info("경로 재계획 완료: 남은 구간 {}개 중 {}개 재사용, {}개 재계산 (표본 {}개), {}ms",
+                    legCount, legCount - recomputedLegs, recomputedLegs, corridor.getSamples().size(), elapsed);
+            String message = recomputedLegs == 0
+                    ? "No significant weather change; remaining route kept"
+                    : "Route re-planned around changed weather";
+            return new ResponseEntity<>(new RerouteResponse(rebuilt, message, validation, legs,
+                    legs.isEmpty() ? 0.0 : legs.get(legs.size() - 1).getCumulativeDistanceKm(),
+                    legCount - recomputedLegs, recomputedLegs, corridor, elapsed), HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("경로 재계획 실패", e);
+            return new ResponseEntity<>(failure("Failed to re-plan route: " + e.getMessage(), null, startedAt), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * 현재 위치에서 가장 가까운 이전 경로 구간을 찾아, 현재 위치 + 그 구간 끝 이후 경유지를 돌려줍니다.
+     * 현재 위치가 경로에서 max-offset-km 넘게 벗어나 있으면 offRoute[0] 을 1 로 둡니다.
+     */
+    private List<Waypoint> remainingRoute(List<Waypoint> previous, double lat, double lon, int[] offRoute) {
+        int last = previous.size() - 1;
+        int nearestLeg = 0;
+        double nearestKm = Double.POSITIVE_INFINITY;
+        for (int leg = 0; leg < last; leg++) {
+            Waypoint a = previous.get(leg);
+            Waypoint b = previous.get(leg + 1);
+            double km = RouteGeometry.segmentDistanceKm(lat, lon, a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+            if (km < nearestKm) {
+                nearestKm = km;
+                nearestLeg = leg;
+            }
+        }
+        offRoute[0] = nearestKm > maxOffsetKm ? 1 : 0;
+
+        int from = nearestLeg + 1;
+        Waypoint upcoming = previous.get(from);
+        if (from < last && RouteGeometry.haversineKm(lat, lon, upcoming.getLatitude(), upcoming.getLongitude()) < 1.0) {
+            from++; // 이미 다음 경유지에 도착
+        }
+        List<Waypoint> remaining = new ArrayList<>(last - from + 2);
+        remaining.add(new Waypoint(lat, lon));
+        remaining.addAll(previous.subList(from, last + 1));
+        return remaining;
+    }
+
+    /** 같은 지점으로 볼 수 있는 가장 가까운 baseline 표본 (없으면 null) */
+    private CorridorWeather.Sample baselineFor(CorridorWeather.Sample sample, List<CorridorWeather.Sample> baseline) {
+        if (baseline == null) {
+            return null;
+        }
+        CorridorWeather.Sample nearest = null;
+        double nearestKm = baselineMatchKm;
+        for (CorridorWeather.Sample candidate : baseline) {
+            double km = RouteGeometry.haversineKm(sample.getLat(), sample.getLon(), candidate.getLat(), candidate.getLon());
+            if (km <= nearestKm) {
+                nearestKm = km;
+                nearest = candidate;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * 표본 날씨가 baseline 보다 임계값 이상 바뀌었는지. 조회하지 못한 표본은 바뀌지 않은 것으로 보고,
+     * 비교할 baseline 이 없으면 지금 위험 기상인지로 판단합니다.
+     */
+    private boolean changed(CorridorWeather.Sample sample, CorridorWeather.Sample baseline) {
+        if (!sample.isAvailable()) {
+            return false;
+        }
+        if (baseline == null || !baseline.isAvailable()) {
+            return hazardous(sample);
+        }
+        if (hazardous(sample) != hazardous(baseline)) {
+            return true;
+        }
+        return Math.abs(windSpeed(sample) - windSpeed(baseline)) >= windChangeMs;
+    }
+
+    /** 강풍, 뇌우(2xx), 스콜(771), 토네이도(781) */
+    private boolean hazardous(CorridorWeather.Sample sample) {
+        int weatherId = sample.getWeatherId() != null ? sample.getWeatherId() : 0;
+        return windSpeed(sample) >= hazardWindMs || weatherId / 100 == 2 || weatherId == 771 || weatherId == 781;
+    }
+
+    private static double windSpeed(CorridorWeather.Sample sample) {
+        return sample.getWindSpeed() != null ? sample.getWindSpeed() : 0.0;
+    }
+
+    /** 경로 첫 점부터 distanceKm 지점이 속한 구간 번호 */
+    private static int legAt(double[] cumulativeKm, double distanceKm) {
+        int leg = 0;
+        while (leg < cumulativeKm.length - 2 && cumulativeKm[leg + 1] < distanceKm) {
+            leg++;
+        }
+        return leg;
+    }
+
+    /** 다시 계산할 구간들을 앞뒤 여유만큼 넓혀 합친 {시작 경유지, 끝 경유지} 목록 (경로 순서) */
+    private List<int[]> spans(boolean[] affected) {
+        List<int[]> spans = new ArrayList<>();
+        for (int leg = 0; leg < affected.length; leg++) {
+            if (!affected[leg]) continue;
+            int start = Math.max(0, leg - spanPaddingLegs);
+            int end = Math.min(affected.length, leg + 1 + spanPaddingLegs);
+            int[] previous = spans.isEmpty() ? null : spans.get(spans.size() - 1);
+            if (previous != null && start <= previous[1]) {
+                previous[1] = Math.max(previous[1], end);
+            } else {
+                spans.add(new int[]{start, end});
+            }
+        }
+        return spans;
+    }
+
+    private static RerouteResponse failure(String message, CorridorWeather corridor, long startedAt) {
+        return new RerouteResponse(null, message, null, null, null, 0, 0, corridor, System.currentTimeMillis() - startedAt);
+    }
+}
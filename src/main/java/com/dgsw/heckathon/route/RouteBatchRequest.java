@@ -0,0 +1,16 @@
+package com.dgsw.heckathon.route;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteBatchRequest {
+    private List<RouteRequest> routes; // 계산할 경로 목록 (항목마다 /route 요청과 같은 형식)
+}
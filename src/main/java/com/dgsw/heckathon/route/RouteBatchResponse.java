@@ -0,0 +1,32 @@
+package com.dgsw.heckathon.route;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteBatchResponse {
+    private List<Result> results;  // 요청 순서와 동일
+    private int requested;         // 요청 경로 수
+    private int prefetchedTiles;   // 경로 계산 전에 한 번에 조회한 구간 날씨 타일 수
+    private long elapsedMillis;    // 배치 전체 소요 시간
+    private long slowestMillis;    // 가장 오래 걸린 경로의 소요 시간
+    private String message;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private int index;           // 요청 목록에서의 위치
+        private String status;       // OK, INVALID_REQUEST, NO_ROUTE, UPSTREAM_ERROR, ERROR, TIMEOUT
+        private RouteResponse route; // /route 와 같은 응답 (TIMEOUT 이면 null)
+        private long elapsedMillis;  // 이 경로의 계산 시간 (TIMEOUT 이면 배치 제한 시간까지)
+    }
+}
@@ -0,0 +1,217 @@
+package com.dgsw.heckathon.route;
+
+import com.dgsw.heckathon.weather.FanOutExecutor;
+import com.dgsw.heckathon.weather.OpenWeatherApiService;
+import com.dgsw.heckathon.weather.WeatherTileCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 여러 경로를 한 번에 계산합니다. (선단 전체의 항로 계획용)
+ * 먼저 경로들이 쓰는 구간 날씨를 타일 단위로 중복 제거해 한 번에 조회해 두고,
+ * 그다음 경로마다 /route 와 같은 흐름을 전용 스레드 풀에서 동시에 실행합니다.
+ * 경로 주변 예보처럼 실행 중에 조회되는 날씨도 타일 캐시/호출 병합을 거치므로, 같은 해역을 지나는 경로끼리 조회를 나눠 씁니다.
+ * 경로 계산은 대부분 LLM/날씨 응답을 기다리는 시간이라 풀 크기는 코어 수보다 크게 두고, 격자 탐색처럼 CPU 를 쓰는 부분은 코어 수만큼 동시에 돕니다.
+ */
+@Service
+public class RouteBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteBatchService.class);
+
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_INVALID = "INVALID_REQUEST";
+    public static final String STATUS_NO_ROUTE = "NO_ROUTE";
+    public static final String STATUS_UPSTREAM_ERROR = "UPSTREAM_ERROR";
+    public static final String STATUS_ERROR = "ERROR";
+    public static final String STATUS_TIMEOUT = "TIMEOUT";
+
+    @Value("${route.batch.max-routes:100}")
+    private int maxRoutes;
+
+    @Value("${route.batch.timeout-ms:120000}")
+    private long timeoutMillis;
+
+    // 구간 날씨 미리 조회의 마감 시간 (넘겨도 경로 계산은 진행, 남은 조회는 경로마다 다시 시도)
+    @Value("${route.batch.prefetch-deadline-ms:10000}")
+    private long prefetchDeadlineMillis;
+
+    // 구간 날씨를 주변 캐시 타일 보간으로 대신할 수 있는지 여부 (단건 경로 계산과 같은 설정)
+    @Value("${weather.interpolation.route.enabled:false}")
+    private boolean weatherInterpolationEnabled;
+
+    private final RoutePlanningService routePlanningService;
+    private final RouteService routeService;
+    private final CorridorWeatherSampler corridorWeatherSampler;
+    private final OpenWeatherApiService openWeatherApiService;
+    private final FanOutExecutor fanOutExecutor;
+    private final WeatherTileCache tileCache;
+    private final ThreadPoolExecutor executor;
+
+    public RouteBatchService(RoutePlanningService routePlanningService, RouteService routeService,
+                             CorridorWeatherSampler corridorWeatherSampler, OpenWeatherApiService openWeatherApiService, FanOutExecutor fanOutExecutor,
+                             WeatherTileCache tileCache,
+                             @Value("${route.batch.parallelism:64}") int parallelism) {
+        this.routePlanningService = routePlanningService;
+        this.routeService = routeService;
+        this.corridorWeatherSampler = corridorWeatherSampler;
+        this.openWeatherApiService = openWeatherApiService;
+        this.fanOutExecutor = fanOutExecutor;
+        this.tileCache = tileCache;
+        int threads = Math.max(1, parallelism);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "route-batch-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true); // 배치가 없을 때는 스레드를 남겨 두지 않음
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int getMaxRoutes() {
+        return maxRoutes;
+    }
+
+    /** 요청 순서대로의 경로별 결과. 제한 시간 안에 끝나지 않은 경로는 TIMEOUT */
+    public RouteBatchResponse plan(List<RouteRequest> routes) {
+        if (routes.size() > maxRoutes) {
+            throw new IllegalArgumentException("한 번에 계산할 수 있는 경로는 최대 " + maxRoutes + "개입니다.");
+        }
+        long startedAt = System.nanoTime();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        /* 1) 경로 구간 날씨를 타일 단위로 중복 제거해 미리 조회 */
+        int prefetchedTiles = prefetchCorridorWeather(routes);
+
+        /* 2) 경로마다 단건과 같은 흐름을 동시에 실행 (Future 로 받아 두어야 늦은 경로를 인터럽트로 멈출 수 있음) */
+        List<Future<RouteBatchResponse.Result>> futures = new ArrayList<>(routes.size());
+        for (int i = 0; i < routes.size(); i++) {
+            int index = i;
+            RouteRequest request = routes.get(i);
+            futures.add(executor.submit(() -> evaluate(index, request)));
+        }
+
+        /* 3) 전체 제한 시간 안에서 대기 (늦은 경로는 TIMEOUT 처리) */
+        try {
+            for (Future<RouteBatchResponse.Result> future : futures) {
+                future.get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            logger.warn("배치 경로 계산 제한 시간 초과 ({}ms). 끝난 경로만 반환합니다.", timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 개별 실패는 아래에서 경로별 상태로 기록
+        }
+
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        List<RouteBatchResponse.Result> results = new ArrayList<>(routes.size());
+        long slowestMillis = 0;
+        int succeeded = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<RouteBatchResponse.Result> future = futures.get(i);
+            RouteBatchResponse.Result result;
+            if (future.isDone()) {
+                result = completed(i, future, elapsedMillis);
+            } else {
+                // 대기열에 있으면 시작하지 않고, 실행 중이면 인터럽트해 LLM/날씨 호출을 멈추고 스레드를 돌려받음
+                future.cancel(true);
+                result = new RouteBatchResponse.Result(i, STATUS_TIMEOUT, null, elapsedMillis);
+            }
+            slowestMillis = Math.max(slowestMillis, result.getElapsedMillis());
+            if (STATUS_OK.equals(result.getStatus())) {
+                succeeded++;
+            }
+            results.add(result);
+        }
+
+        logger.info("배치 경로 계산 완료: {}/{}건 성공, 날씨 타일 {}개 미리 조회, 전체 {}ms (가장 느린 경로 {}ms)",
+                succeeded, routes.size(), prefetchedTiles, elapsedMillis, slowestMillis);
+        return new RouteBatchResponse(results, routes.size(), prefetchedTiles, elapsedMillis, slowestMillis,
+                "배치 경로 계산 완료 (" + succeeded + "/" + routes.size() + "건 성공)");
+    }
+
+    private static RouteBatchResponse.Result completed(int index, Future<RouteBatchResponse.Result> future, long elapsedMillis) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            logger.error("배치 경로 {} 계산 실패: {}", index, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return new RouteBatchResponse.Result(index, STATUS_ERROR, null, elapsedMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new RouteBatchResponse.Result(index, STATUS_TIMEOUT, null, elapsedMillis);
+        }
+    }
+
+    private RouteBatchResponse.Result evaluate(int index, RouteRequest request) {
+        long startedAt = System.nanoTime();
+        ResponseEntity<RouteResponse> response;
+        if (request == null) {
+            response = new ResponseEntity<>(new RouteResponse(null, "Empty route request", null, null, null, null, null), HttpStatus.BAD_REQUEST);
+        } else {
+            response = routePlanningService.plan(request);
+        }
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        return new RouteBatchResponse.Result(index, status(response.getStatusCode()), response.getBody(), elapsedMillis);
+    }
+
+    private static String status(HttpStatusCode code) {
+        if (code.is2xxSuccessful()) return STATUS_OK;
+        if (code.value() == HttpStatus.BAD_REQUEST.value()) return STATUS_INVALID;
+        if (code.value() == HttpStatus.NOT_FOUND.value()) return STATUS_NO_ROUTE;
+        if (code.value() == HttpStatus.BAD_GATEWAY.value()) return STATUS_UPSTREAM_ERROR;
+        return STATUS_ERROR;
+    }
+
+    /**
+     * 날씨를 쓰는 경로(ai/weather 모드 또는 설명 요청)의 구간 표본 지점 날씨를 한 번에 조회합니다.
+     * 여러 경로에서 같은 타일에 떨어지는 지점은 한 번만 조회하며, 결과는 타일 캐시에 남아 이어지는 경로 계산과 캐시 지문 계산이 그대로 씁니다.
+     */
+    private int prefetchCorridorWeather(List<RouteRequest> routes) {
+        Map<Long, double[]> byTile = new LinkedHashMap<>();
+        for (RouteRequest request : routes) {
+            if (request == null) continue;
+            String mode = request.getMode() != null ? request.getMode() : routeService.getDefaultMode();
+            if ("grid".equalsIgnoreCase(mode) && !request.isExplain()) continue;
+            for (double[] point : corridorWeatherSampler.samplePoints(request.getStartLat(), request.getStartLon(),
+                    request.getEndLat(), request.getEndLon())) {
+                byTile.putIfAbsent(tileCache.tileKey(point[0], point[1]), point);
+            }
+        }
+        if (byTile.isEmpty()) {
+            return 0;
+        }
+        FanOutExecutor.Outcome outcome = fanOutExecutor.run(new ArrayList<>(byTile.values()),
+                point -> openWeatherApiService.getCurrentWeatherAsync(point[0], point[1], weatherInterpolationEnabled),
+                (point, currentWeather) -> { },
+                System.currentTimeMillis() + prefetchDeadlineMillis);
+        if (outcome.isTimedOut()) {
+            logger.warn("배치 경로 날씨 미리 조회 마감 시간 초과. {}/{}개 타일만 조회했습니다. (빈 응답 {}개)",
+                    outcome.getCompleted(), outcome.getTotal(), outcome.getEmpty());
+        }
+        return byTile.size();
+    }
+}
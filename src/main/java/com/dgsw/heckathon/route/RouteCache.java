@@ -0,0 +1,186 @@
+package com.dgsw.heckathon.route;
+
+import com.dgsw.heckathon.weather.WeatherTiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * /route 결과 캐시.
+ * 키는 경로 계산 방식/옵션과 격자에 맞춰 반올림한 출발지·목적지 좌표이고, 항목마다 계산 당시의 날씨 지문(fingerprint)을 함께 저장합니다.
+ * 같은 키로 조회했을 때 날씨 지문이 달라졌으면 항목을 버리고 다시 계산하게 하므로, 가까운 항구 사이의 반복 요청은
+ * LLM/예보 호출 없이 바로 응답하면서도 실제 날씨가 바뀌면 새 경로를 받습니다.
+ * 조회한 경로는 양 끝점을 요청 좌표로 바꾸므로, 바뀐 경로가 호출한 쪽의 검사를 통과하지 못하면 적중으로 치지 않습니다.
+ * 항목은 TTL 이 지나면 만료되고, 개수가 상한을 넘으면 가장 오래 사용되지 않은 항목부터 제거합니다.
+ */
+@Component
+public class RouteCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteCache.class);
+
+    private final boolean enabled;
+    private final double endpointResolutionDegrees;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong endpointRejections = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RouteCache(@Value("${route.cache.enabled:true}") boolean enabled,
+                      @Value("${route.cache.endpoint-resolution-degrees:0.05}") double endpointResolutionDegrees,
+                      @Value("${route.cache.ttl-seconds:600}") long ttlSeconds,
+                      @Value("${route.cache.max-entries:1000}") int maxEntries) {
+        if (endpointResolutionDegrees <= 0) {
+            throw new IllegalArgumentException("route.cache.endpoint-resolution-degrees 는 0보다 커야 합니다: " + endpointResolutionDegrees);
+        }
+        this.enabled = enabled;
+        this.endpointResolutionDegrees = endpointResolutionDegrees;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > RouteCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        logger.info("경로 캐시 설정: enabled={}, endpointResolution={}°, ttl={}s, maxEntries={}",
+                enabled, endpointResolutionDegrees, ttlSeconds, maxEntries);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 요청의 캐시 키. 좌표는 endpoint-resolution-degrees 격자로 반올림하고,
+     * weather 모드는 선속과 출항 시각(시간 단위)도 키에 넣습니다. (출항 시각이 없으면 현재 시각 기준)
+     */
+    public String key(RouteRequest request, String mode, Instant departureTime) {
+        StringBuilder key = new StringBuilder(mode.toLowerCase(Locale.ROOT))
+                .append(request.isExplain() ? ":explain" : "")
+                .append('|').append(quantize(request.getStartLat())).append(',').append(quantizeLon(request.getStartLon()))
+                .append('|').append(quantize(request.getEndLat())).append(',').append(quantizeLon(request.getEndLon()));
+        if ("weather".equalsIgnoreCase(mode)) {
+            Instant departure = departureTime != null ? departureTime : Instant.now();
+            key.append("|speed=").append(request.getVesselSpeedKnots())
+                    .append("|departureHour=").append(departure.getEpochSecond() / 3600);
+        }
+        return key.toString();
+    }
+
+    /**
+     * 저장된 응답을 요청 좌표에 맞춰 돌려줍니다. (첫/마지막 경유지를 요청한 출발지/목적지로 바꿈)
+     * 없거나 만료됐으면 null, 날씨 지문이 달라졌으면 항목을 지우고 null.
+     * 끝점을 바꾼 경유지 목록이 accept 를 통과하지 못해도 null 입니다. (항목은 다른 요청을 위해 남겨 둠)
+     */
+    public RouteResponse get(String key, String fingerprint, RouteRequest request, Predicate<List<Waypoint>> accept) {
+        if (!enabled) return null;
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAtMillis <= now) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                entry = null;
+            } else if (entry != null && !entry.fingerprint.equals(fingerprint)) {
+                entries.remove(key);
+                invalidations.incrementAndGet();
+                logger.debug("경로 캐시 무효화 (날씨 변화): {} {} -> {}", key, entry.fingerprint, fingerprint);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        RouteResponse cached = entry.response;
+        List<Waypoint> waypoints = new ArrayList<>(cached.getWaypoints().size());
+        for (Waypoint waypoint : cached.getWaypoints()) {
+            waypoints.add(new Waypoint(waypoint.getLatitude(), waypoint.getLongitude()));
+        }
+        if (waypoints.size() >= 2) {
+            waypoints.set(0, new Waypoint(request.getStartLat(), request.getStartLon()));
+            waypoints.set(waypoints.size() - 1, new Waypoint(request.getEndLat(), request.getEndLon()));
+        }
+        if (!accept.test(waypoints)) {
+            endpointRejections.incrementAndGet();
+            misses.incrementAndGet();
+            logger.debug("경로 캐시 항목 사용 안 함 (요청 끝점으로 바꾼 구간 검사 실패): {}", key);
+            return null;
+        }
+        hits.incrementAndGet();
+        return new RouteResponse(waypoints, cached.getMessage() + " (cached)", cached.getExplanation(),
+                cached.getValidation(), cached.getWeather(), cached.getLegs(), cached.getTotalDistanceKm());
+    }
+
+    /** 경로가 있는 응답만 저장합니다. */
+    public void put(String key, String fingerprint, RouteResponse response) {
+        if (!enabled || response == null || response.getWaypoints() == null) return;
+        Entry entry = new Entry(fingerprint, response, System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return Map.of(
+                "enabled", enabled,
+                "size", size,
+                "maxEntries", maxEntries,
+                "ttlSeconds", ttlMillis / 1000,
+                "hits", hits.get(),
+                "misses", misses.get(),
+                "invalidations", invalidations.get(),
+                "endpointRejections", endpointRejections.get(),
+                "expirations", expirations.get(),
+                "evictions", evictions.get());
+    }
+
+    private String quantize(double degrees) {
+        long index = Math.round(degrees / endpointResolutionDegrees);
+        return String.format(Locale.ROOT, "%.4f", index * endpointResolutionDegrees);
+    }
+
+    /** 반올림한 뒤 정규화하므로 ±180 부근 좌표가 같은 키가 됩니다. */
+    private String quantizeLon(double degrees) {
+        long index = Math.round(degrees / endpointResolutionDegrees);
+        return String.format(Locale.ROOT, "%.4f", WeatherTiles.normalizeLon(index * endpointResolutionDegrees));
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final RouteResponse response;
+        final long expiresAtMillis;
+
+        Entry(String fingerprint, RouteResponse response, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
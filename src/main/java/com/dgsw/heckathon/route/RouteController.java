@@ -1,42 +1,74 @@
 package com.dgsw.heckathon.route;
 
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 @RestController
 public class RouteController {
 
     private final RouteService routeService;
+    private final RoutePlanningService routePlanningService;
+    private final RouteBatchService routeBatchService;
+    private final RerouteService rerouteService;
+    private final RouteStreamService routeStreamService;
+    private final RouteCache routeCache;
 
-    public RouteController(RouteService routeService) {
+    public RouteController(RouteService routeService, RoutePlanningService routePlanningService,
+                           RouteBatchService routeBatchService, RerouteService rerouteService,
+                           RouteStreamService routeStreamService, RouteCache routeCache) {
         this.routeService = routeService;
+        this.routePlanningService = routePlanningService;
+        this.routeBatchService = routeBatchService;
+        this.rerouteService = rerouteService;
+        this.routeStreamService = routeStreamService;
+        this.routeCache = routeCache;
     }
 
     @PostMapping("/route")
     public ResponseEntity<RouteResponse> calculateOptimalRoute(@RequestBody RouteRequest request) {
-        // 입력값 유효성 검사
-        if (request.getStartLat() == 0 && request.getStartLon() == 0 &&
-                request.getEndLat() == 0 && request.getEndLon() == 0) {
-            return new ResponseEntity<>(new RouteResponse(null, "Invalid coordinates provided"), HttpStatus.BAD_REQUEST);
+        return routePlanningService.plan(request);
+    }
+
+    /**
+     * /route 와 같은 계산을 Server-Sent Events 로 스트리밍합니다.
+     * ai 모드 경유지는 LLM 이 생성하는 대로 "waypoint" 프레임으로, 최종 응답은 "done" 프레임(status, route)으로 보냅니다.
+     */
+    @PostMapping(value = "/route/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOptimalRoute(@RequestBody RouteRequest request) {
+        return routeStreamService.stream(request);
+    }
+
+    /* ---------- 여러 경로 일괄 계산 ---------- */
+    @PostMapping("/route/batch")
+    public ResponseEntity<RouteBatchResponse> calculateRouteBatch(@RequestBody RouteBatchRequest request) {
+        if (request == null || request.getRoutes() == null || request.getRoutes().isEmpty()) {
+            return ResponseEntity.badRequest().body(new RouteBatchResponse(null, 0, 0, 0, 0, "계산할 경로(routes)가 없습니다."));
         }
-        // 위도/경도 범위 검사는 Service 또는 DTO에서 더 상세하게 할 수 있습니다.
-
-        try {
-            List<Waypoint> waypoints = routeService.calculateOptimalRoute(
-                    request.getStartLat(), request.getStartLon(),
-                    request.getEndLat(), request.getEndLon()
-            );
-            return new ResponseEntity<>(new RouteResponse(waypoints, "Optimal route calculated successfully"), HttpStatus.OK);
-        } catch (Exception e) {
-            // 실제 운영 환경에서는 더 상세한 로깅과 에러 처리가 필요합니다.
-            e.printStackTrace();
-            return new ResponseEntity<>(new RouteResponse(null, "Failed to calculate optimal route: " + e.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
+        if (request.getRoutes().size() > routeBatchService.getMaxRoutes()) {
+            return ResponseEntity.badRequest().body(new RouteBatchResponse(null, request.getRoutes().size(), 0, 0, 0,
+                    "한 번에 계산할 수 있는 경로는 최대 " + routeBatchService.getMaxRoutes() + "개입니다."));
         }
+        return ResponseEntity.ok(routeBatchService.plan(request.getRoutes()));
+    }
+
+    /* ---------- 항해 중 경로 재계획 ---------- */
+    @PostMapping("/route/reroute")
+    public ResponseEntity<RerouteResponse> reroute(@RequestBody RerouteRequest request) {
+        return rerouteService.reroute(request);
+    }
+
+    @GetMapping("/route/stats")
+    public ResponseEntity<Map<String, Object>> routeStats() {
+        Map<String, Object> stats = new HashMap<>(routeService.gridRouteStats());
+        stats.put("cache", routeCache.stats());
+        return ResponseEntity.ok(stats);
     }
 }
@@ -0,0 +1,31 @@
+package com.dgsw.heckathon.route;
+
+/**
+ * 격자 경로 탐색의 간선 비용 모델.
+ * 비용의 단위는 모델마다 다릅니다. (거리 모델은 km, 날씨 모델은 항해 시간 h)
+ * 누적 비용(costSoFar)을 받으므로, 도착 예정 시각에 따라 비용이 달라지는 시간 의존 비용도 표현할 수 있습니다.
+ */
+public interface RouteCostModel {
+
+    /** 간선 비용이 대권 거리(km) 그 자체인 기본 모델 */
+    RouteCostModel DISTANCE = new RouteCostModel() {
+        @Override
+        public double cost(double lat, double lon, double distanceKm, double costSoFar) {
+            return distanceKm;
+        }
+
+        @Override
+        public double lowerBound(double distanceKm) {
+            return distanceKm;
+        }
+    };
+
+    /**
+     * (lat, lon) 부근을 distanceKm 만큼 지나는 비용. 출발지에서 여기까지의 누적 비용이 costSoFar 일 때.
+     * 지날 수 없으면 Double.POSITIVE_INFINITY.
+     */
+    double cost(double lat, double lon, double distanceKm, double costSoFar);
+
+    /** 남은 대권 거리 distanceKm 를 가는 데 드는 비용의 하한 (A* 휴리스틱, 과대평가하면 안 됨) */
+    double lowerBound(double distanceKm);
+}
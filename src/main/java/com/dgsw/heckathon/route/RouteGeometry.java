@@ -0,0 +1,133 @@
+package com.dgsw.heckathon.route;
+
+import java.util.List;
+
+/**
+ * 경유지 목록을 {위도0, 경도0, 위도1, 경도1, ...} 로 이어 붙인 double[] (packed path) 위에서 동작하는 기하 계산.
+ * 점마다 객체를 만들지 않고, 결과 배열도 호출하는 쪽이 넘겨줄 수 있어 응답마다, 또는 구간 표본 수천 개에 돌려도 부담이 없습니다.
+ * 거리는 모두 구면(haversine) 대권 거리입니다.
+ */
+public final class RouteGeometry {
+
+    /** 1노트 = 1.852 km/h */
+    public static final double KNOT_KMH = 1.852;
+
+    private RouteGeometry() {
+    }
+
+    /** 경유지 목록을 packed path 로 */
+    public static double[] pack(List<Waypoint> waypoints) {
+        double[] path = new double[waypoints.size() * 2];
+        for (int i = 0; i < waypoints.size(); i++) {
+            path[2 * i] = waypoints.get(i).getLatitude();
+            path[2 * i + 1] = waypoints.get(i).getLongitude();
+        }
+        return path;
+    }
+
+    /** 점 개수 */
+    public static int size(double[] path) {
+        return path.length / 2;
+    }
+
+    /** 구면 대권 거리 (km) */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        return GreatCircle.distanceKm(lat1, lon1, lat2, lon2);
+    }
+
+    /** leg 번째 구간(점 leg -> leg + 1)의 대권 거리 (km) */
+    public static double legKm(double[] path, int leg) {
+        int i = 2 * leg;
+        return haversineKm(path[i], path[i + 1], path[i + 2], path[i + 3]);
+    }
+
+    /** leg 번째 구간의 출발 방위각 (도, 북쪽 0 시계 방향) */
+    public static double legBearing(double[] path, int leg) {
+        int i = 2 * leg;
+        return GreatCircle.initialBearing(path[i], path[i + 1], path[i + 2], path[i + 3]);
+    }
+
+    /** out[i] 에 첫 점부터 i 번째 점까지의 누적 거리(km)를 쓰고 총거리를 반환합니다. (out 길이는 점 개수 이상) */
+    public static double cumulativeKm(double[] path, double[] out) {
+        int points = size(path);
+        if (points == 0) {
+            return 0.0;
+        }
+        out[0] = 0.0;
+        for (int leg = 0; leg < points - 1; leg++) {
+            out[leg + 1] = out[leg] + legKm(path, leg);
+        }
+        return out[points - 1];
+    }
+
+    public static double totalKm(double[] path) {
+        double total = 0.0;
+        for (int leg = 0; leg < size(path) - 1; leg++) {
+            total += legKm(path, leg);
+        }
+        return total;
+    }
+
+    /** 누적 거리(km)를 선속으로 나눈 누적 항해 시간(시간)을 out 에 씁니다. */
+    public static void etaHours(double[] cumulativeKm, int points, double speedKnots, double[] out) {
+        double speedKmh = speedKnots * KNOT_KMH;
+        for (int i = 0; i < points; i++) {
+            out[i] = cumulativeKm[i] / speedKmh;
+        }
+    }
+
+    /**
+     * 경로를 따라 첫 점에서 distanceKm 만큼 간 지점을 out[0], out[1] 에 씁니다. (cumulativeKm 은 {@link #cumulativeKm} 결과)
+     * 범위를 벗어나면 양 끝 점으로 맞춥니다.
+     */
+    public static void pointAt(double[] path, double[] cumulativeKm, double distanceKm, double[] out) {
+        int points = size(path);
+        if (distanceKm <= 0 || points == 1) {
+            out[0] = path[0];
+            out[1] = path[1];
+            return;
+        }
+        if (distanceKm >= cumulativeKm[points - 1]) {
+            out[0] = path[2 * points - 2];
+            out[1] = path[2 * points - 1];
+            return;
+        }
+        int low = 0;
+        int high = points - 1;
+        while (high - low > 1) { // cumulativeKm[low] <= distanceKm < cumulativeKm[high]
+            int mid = (low + high) >>> 1;
+            if (cumulativeKm[mid] <= distanceKm) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        double legLength = cumulativeKm[high] - cumulativeKm[low];
+        double fraction = legLength > 0 ? (distanceKm - cumulativeKm[low]) / legLength : 0.0;
+        GreatCircle.interpolate(path[2 * low], path[2 * low + 1], path[2 * high], path[2 * high + 1], fraction, out, 0);
+    }
+
+    /**
+     * 점 P 에서 대권 구간 A-B 까지의 최단 거리 (km).
+     * P 에서 내린 수선의 발이 구간 밖이면 가까운 끝점까지의 거리입니다.
+     */
+    public static double segmentDistanceKm(double lat, double lon, double latA, double lonA, double latB, double lonB) {
+        double r = GreatCircle.EARTH_RADIUS_KM;
+        double d13 = haversineKm(latA, lonA, lat, lon) / r;
+        double d12 = haversineKm(latA, lonA, latB, lonB) / r;
+        if (d13 == 0 || d12 < 1e-12) {
+            return d13 * r;
+        }
+        double dTheta = Math.toRadians(GreatCircle.initialBearing(latA, lonA, lat, lon)
+                - GreatCircle.initialBearing(latA, lonA, latB, lonB));
+        if (Math.cos(dTheta) < 0) {
+            return d13 * r; // A 보다 뒤쪽
+        }
+        double crossTrack = Math.asin(Math.sin(d13) * Math.sin(dTheta));
+        double alongTrack = Math.acos(Math.max(-1.0, Math.min(1.0, Math.cos(d13) / Math.cos(crossTrack))));
+        if (alongTrack > d12) {
+            return haversineKm(latB, lonB, lat, lon); // B 를 지난 쪽
+        }
+        return Math.abs(crossTrack) * r;
+    }
+}
@@ -0,0 +1,20 @@
+package com.dgsw.heckathon.route;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** 경유지 사이 구간 하나의 거리와 도착 예정 정보 */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteLeg {
+    private int from;                    // 출발 경유지 번호 (도착은 from + 1)
+    private double distanceKm;           // 구간 대권 거리
+    private double bearing;              // 출발 방위각 (도, 북쪽 0 시계 방향)
+    private double cumulativeDistanceKm; // 출발지부터 이 구간 끝까지의 거리
+    private double cumulativeHours;      // 출발지부터 이 구간 끝까지의 항해 시간
+    private String eta;                  // 이 구간 끝 도착 예정 시각 (ISO-8601 UTC)
+}
@@ -0,0 +1,155 @@
+package com.dgsw.heckathon.route;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+/**
+ * 경로 요청 1건을 처리하는 전체 흐름. (입력 검사 -> 캐시 -> 경로 계산 -> 육지 검사/수리 -> 설명 -> 캐시 저장)
+ * 단건 /route 와 여러 경로를 한 번에 계산하는 /route/batch 가 같은 흐름을 씁니다.
+ */
+@Service
+public class RoutePlanningService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutePlanningService.class);
+
+    private final RouteService routeService;
+    private final WaypointValidator waypointValidator;
+    private final RouteCache routeCache;
+
+    public RoutePlanningService(RouteService routeService, WaypointValidator waypointValidator, RouteCache routeCache) {
+        this.routeService = routeService;
+        this.waypointValidator = waypointValidator;
+        this.routeCache = routeCache;
+    }
+
+    /** 요청을 처리한 응답과 HTTP 상태. 실패도 예외 대신 상태 코드와 메시지로 돌려줍니다. */
+    public ResponseEntity<RouteResponse> plan(RouteRequest request) {
+        return plan(request, null);
+    }
+
+    /**
+     * onWaypoint 가 있으면 ai 모드 경유지를 LLM 이 생성하는 대로 넘깁니다. (육지 검사/보정 전 값, 최종 경로는 응답 본문)
+     * 캐시 적중이나 grid/weather 모드처럼 생성 과정이 없는 경우에는 호출되지 않습니다.
+     * onWaypoint 가 CancellationException 을 던지면(클라이언트 연결 종료) 실패 응답 대신 그 예외를 그대로 던집니다.
+     */
+    public ResponseEntity<RouteResponse> plan(RouteRequest request, Consumer<Waypoint> onWaypoint) {
+        // 입력값 유효성 검사
+        if (request.getStartLat() == 0 && request.getStartLon() == 0 &&
+                request.getEndLat() == 0 && request.getEndLon() == 0) {
+            return new ResponseEntity<>(new RouteResponse(null, "Invalid coordinates provided", null, null, null, null, null), HttpStatus.BAD_REQUEST);
+        }
+        // 위도/경도 범위 검사는 Service 또는 DTO에서 더 상세하게 할 수 있습니다.
+
+        String mode = request.getMode() != null ? request.getMode() : routeService.getDefaultMode();
+        if (!"grid".equalsIgnoreCase(mode) && !"weather".equalsIgnoreCase(mode) && !"ai".equalsIgnoreCase(mode)) {
+            return new ResponseEntity<>(new RouteResponse(null, "Unknown route mode: " + mode + " (expected grid, weather or ai)", null, null, null, null, null), HttpStatus.BAD_REQUEST);
+        }
+        Instant departureTime = null;
+        if (request.getDepartureTime() != null) {
+            try {
+                departureTime = Instant.parse(request.getDepartureTime());
+            } catch (DateTimeParseException e) {
+                return new ResponseEntity<>(new RouteResponse(null, "Invalid departureTime (expected ISO-8601, e.g. 2025-06-01T09:00:00Z)", null, null, null, null, null), HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        Instant departure = departureTime != null ? departureTime : Instant.now();
+
+        try {
+            // 가까운 좌표의 같은 요청은 날씨 지문이 같을 때만 캐시된 결과를 그대로 사용
+            String cacheKey = null;
+            String fingerprint = null;
+            if (routeCache.isEnabled()) {
+                cacheKey = routeCache.key(request, mode, departure);
+                fingerprint = routeService.weatherFingerprint(mode, request.isExplain(),
+                        request.getStartLat(), request.getStartLon(), request.getEndLat(), request.getEndLon());
+                // 끝점이 요청 좌표로 바뀌므로 첫/마지막 구간이 육지를 지나면 캐시를 쓰지 않고 다시 계산
+                RouteResponse cached = routeCache.get(cacheKey, fingerprint, request, waypointValidator::endLegsClear);
+                if (cached != null) {
+                    // 끝점이 요청 좌표로 바뀌고 출항 시각도 다르므로 구간 정보는 다시 계산 (weather 모드는 저장된 예보 반영 시간 사용)
+                    double[] cachedHours = "weather".equalsIgnoreCase(mode) ? RouteService.cumulativeHours(cached.getLegs()) : null;
+                    cached.setLegs(routeService.describeLegs(cached.getWaypoints(), request.getVesselSpeedKnots(), departure, cachedHours));
+                    cached.setTotalDistanceKm(RouteGeometry.totalKm(RouteGeometry.pack(cached.getWaypoints())));
+                    return new ResponseEntity<>(cached, HttpStatus.OK);
+                }
+            }
+
+            List<Waypoint> waypoints;
+            WeatherRouteSummary weather = null;
+            double[] weatherHours = null;
+            if ("weather".equalsIgnoreCase(mode)) {
+                // 경로 주변 예보를 도착 예정 시각 기준으로 반영한 격자 경로
+                WeatherRoutePlan plan = routeService.calculateWeatherRoute(
+                        request.getStartLat(), request.getStartLon(),
+                        request.getEndLat(), request.getEndLon(),
+                        request.getVesselSpeedKnots(), departure
+                );
+                if (plan == null) {
+                    return new ResponseEntity<>(new RouteResponse(null, "No sea route found that avoids forecast storms", null, null, null, null, null), HttpStatus.NOT_FOUND);
+                }
+                waypoints = plan.getWaypoints();
+                weather = plan.getSummary();
+                weatherHours = plan.getCumulativeHours();
+            } else if ("grid".equalsIgnoreCase(mode)) {
+                // 육지 마스크 격자 위 A* 경로 (LLM 호출 없음)
+                waypoints = routeService.calculateGridRoute(
+                        request.getStartLat(), request.getStartLon(),
+                        request.getEndLat(), request.getEndLon()
+                );
+                if (waypoints == null) {
+                    return new ResponseEntity<>(new RouteResponse(null, "No sea route found between the given points", null, null, null, null, null), HttpStatus.NOT_FOUND);
+                }
+            } else {
+                waypoints = routeService.calculateOptimalRoute(
+                        request.getStartLat(), request.getStartLon(),
+                        request.getEndLat(), request.getEndLon(), onWaypoint
+                );
+            }
+            // 응답 전에 육지 위 경유지/육지를 지나는 구간 검사 (LLM 경로는 육지를 지날 수 있음)
+            RouteValidation validation = waypointValidator.validate(waypoints);
+            if (!validation.isValid()) {
+                if (!waypointValidator.isRepairEnabled()) {
+                    return new ResponseEntity<>(new RouteResponse(null, "Calculated route crosses land", null, validation, null, null, null), HttpStatus.BAD_GATEWAY);
+                }
+                List<Waypoint> repaired = waypointValidator.repair(waypoints);
+                if (repaired == null) {
+                    return new ResponseEntity<>(new RouteResponse(null, "Calculated route crosses land and could not be repaired", null, validation, null, null, null), HttpStatus.BAD_GATEWAY);
+                }
+                waypoints = repaired;
+                validation.setRepaired(true);
+                weatherHours = null; // 경유지가 바뀌었으므로 선속 기준 시간으로 계산
+            }
+            String explanation = request.isExplain()
+                    ? routeService.explainRoute(request.getStartLat(), request.getStartLon(),
+                            request.getEndLat(), request.getEndLon(), waypoints)
+                    : null;
+            List<RouteLeg> legs = routeService.describeLegs(waypoints, request.getVesselSpeedKnots(), departure, weatherHours);
+            RouteResponse response = new RouteResponse(waypoints, "Optimal route calculated successfully", explanation, validation, weather,
+                    legs, legs.isEmpty() ? 0.0 : legs.get(legs.size() - 1).getCumulativeDistanceKm());
+            if (cacheKey != null) {
+                routeCache.put(cacheKey, fingerprint, response);
+            }
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (CancellationException e) {
+            // 스트리밍 중 클라이언트 연결이 끊겨 중단됨. 실패가 아니므로 호출한 쪽(스트림)에서 조용히 정리
+            throw e;
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // 배치 제한 시간 초과 등으로 호출한 쪽이 멈춘 경우
+                logger.info("경로 계산 중단 (인터럽트): {}", e.getMessage());
+            } else {
+                logger.error("경로 계산 실패: {}", e.getMessage(), e);
+            }
+            return new ResponseEntity<>(new RouteResponse(null, "Failed to calculate optimal route: " + e.getMessage(), null, null, null, null, null), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
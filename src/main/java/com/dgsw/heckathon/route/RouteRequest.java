@@ -14,4 +14,8 @@ public class RouteRequest {
     private double startLon;
     private double endLat;
     private double endLon;
+    private String mode;     // "grid"(육지 마스크 기반 격자 경로), "weather"(예보 가중 격자 경로) 또는 "ai"(LLM 생성 경로). 없으면 서버 기본값
+    private boolean explain; // true 면 계산된 경로에 대한 LLM 설명을 함께 반환
+    private Double vesselSpeedKnots; // weather 모드 선속 (노트). 없으면 서버 기본값
+    private String departureTime;    // weather 모드 출항 시각 (ISO-8601, 예: 2025-06-01T09:00:00Z). 없으면 현재 시각
 }
@@ -15,4 +15,9 @@ import java.util.List;
 public class RouteResponse {
     private List<Waypoint> waypoints;
     private String message; // Optional: 응답 메시지 추가
+    private String explanation; // explain 요청 시 경로에 대한 LLM 설명 (실패하면 null)
+    private RouteValidation validation; // 육지 마스크 검사 결과
+    private WeatherRouteSummary weather; // weather 모드의 항해 시간/예보 반영 요약
+    private List<RouteLeg> legs;         // 경유지 사이 구간별 거리/도착 예정 시각
+    private Double totalDistanceKm;      // 경로 전체 대권 거리
 }
\ No newline at end of file
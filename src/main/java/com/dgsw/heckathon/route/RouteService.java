@@ -1,12 +1,13 @@
 package com.dgsw.heckathon.route;
 
-import com.dgsw.heckathon.weather.CurrentWeatherResponse;
-import com.dgsw.heckathon.weather.OpenWeatherApiService;
+import com.dgsw.heckathon.ai.OpenAiApiService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -16,9 +17,9 @@ import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,83 +28,191 @@ import static java.util.Map.entry;
 @Service
 public class RouteService {
 
+    private static final Logger logger = LoggerFactory.getLogger(RouteService.class);
+
+    private static final String ROUTE_SYSTEM_PROMPT = "You are an expert in marine routing, providing the safest and most efficient sea routes based on current weather conditions. Provide only the JSON response for the waypoints.";
+    private static final String EXPLAIN_SYSTEM_PROMPT = "You are an expert in marine routing. Explain the given sea route briefly in Korean for a ship's crew.";
+
     @Value("${openai.api.key}")
     private String openaiApiKey;
 
+    // 경로 캐시 날씨 지문의 풍속 구간 크기 (m/s)
+    @Value("${route.cache.wind-bucket-ms:5}")
+    private double fingerprintWindBucketMs;
+
+    // 요청에 mode 가 없을 때 쓰는 경로 계산 방식 ("grid", "weather" 또는 "ai")
+    @Value("${route.default-mode:grid}")
+    private String defaultMode;
+
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
-    private final OpenWeatherApiService openWeatherApiService;
-
-    public RouteService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper,
-                        OpenWeatherApiService openWeatherApiService) {
+    private final OceanRouteEngine oceanRouteEngine;
+    private final WeatherRoutePlanner weatherRoutePlanner;
+    private final CorridorWeatherSampler corridorWeatherSampler;
+    private final OpenAiApiService openAiApiService;
+
+    public RouteService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper, OceanRouteEngine oceanRouteEngine,
+                        WeatherRoutePlanner weatherRoutePlanner, CorridorWeatherSampler corridorWeatherSampler,
+                        OpenAiApiService openAiApiService) {
         this.webClient = webClientBuilder.build();
         this.objectMapper = objectMapper;
-        this.openWeatherApiService = openWeatherApiService;
+        this.oceanRouteEngine = oceanRouteEngine;
+        this.weatherRoutePlanner = weatherRoutePlanner;
+        this.corridorWeatherSampler = corridorWeatherSampler;
+        this.openAiApiService = openAiApiService;
     }
 
-    public List<Waypoint> calculateOptimalRoute(double startLat, double startLon,
-                                                double endLat, double endLon) throws Exception {
+    public String getDefaultMode() {
+        return defaultMode;
+    }
 
-        CurrentWeatherResponse currentWeather = openWeatherApiService.getCurrentWeather(startLat, startLon);
-        Map<String, Object> weatherData = extractWeatherDataForPrompt(currentWeather);
+    /**
+     * 육지 마스크 격자 위 A* 로 계산한 해상 경로. LLM 을 호출하지 않으며 같은 입력에는 항상 같은 경로를 돌려줍니다.
+     * 바다로 이어진 경로가 없으면 null.
+     */
+    public List<Waypoint> calculateGridRoute(double startLat, double startLon, double endLat, double endLon) {
+        return oceanRouteEngine.route(startLat, startLon, endLat, endLon);
+    }
 
-        String prompt = buildPrompt(startLat, startLon, endLat, endLon, weatherData);
+    /**
+     * 경로 주변 예보의 바람/강수/뇌우를 도착 예정 시각 기준으로 반영해 항해 시간이 가장 짧은 격자 경로.
+     * 예보 조회 수는 경로당 상한이 있으며, 지날 수 있는 경로가 없으면 null.
+     */
+    public WeatherRoutePlan calculateWeatherRoute(double startLat, double startLon, double endLat, double endLon,
+                                                  Double vesselSpeedKnots, Instant departureTime) {
+        return weatherRoutePlanner.plan(startLat, startLon, endLat, endLon, vesselSpeedKnots, departureTime);
+    }
 
-        String openaiResponse = callOpenAiApi(prompt);
+    /**
+     * 경로 캐시용 날씨 지문. 출발지~목적지 구간 표본 지점의 현재 날씨를 날씨 코드 계열(뇌우/비/눈/맑음 등)과 풍속 구간으로만 줄인 값이라,
+     * 작은 변동에는 그대로이고 구간 어딘가의 날씨 양상이 바뀌면 달라집니다. 날씨를 쓰지 않는 계산(설명 없는 grid 모드)은 빈 문자열.
+     * 구간 날씨는 타일 캐시를 거치므로 캐시 적중 시 업스트림 호출이 없습니다.
+     */
+    public String weatherFingerprint(String mode, boolean explain, double startLat, double startLon, double endLat, double endLon) {
+        if ("grid".equalsIgnoreCase(mode) && !explain) {
+            return "";
+        }
+        StringBuilder fingerprint = new StringBuilder();
+        for (CorridorWeather.Sample sample : corridorWeatherSampler.sample(startLat, startLon, endLat, endLon).getSamples()) {
+            if (fingerprint.length() > 0) {
+                fingerprint.append(',');
+            }
+            fingerprint.append(weatherRegime(sample));
+        }
+        return fingerprint.toString();
+    }
 
-        return parseOpenAiResponse(openaiResponse);
+    /** "날씨 코드 백의 자리:풍속 구간" (조회 실패 시 "?") */
+    private String weatherRegime(CorridorWeather.Sample sample) {
+        if (!sample.isAvailable()) {
+            return "?";
+        }
+        int weatherGroup = sample.getWeatherId() != null ? sample.getWeatherId() / 100 : 0;
+        int windBucket = sample.getWindSpeed() != null ? (int) (sample.getWindSpeed() / fingerprintWindBucketMs) : -1;
+        return weatherGroup + ":" + windBucket;
     }
 
-    private Map<String, Object> extractWeatherDataForPrompt(CurrentWeatherResponse response) {
-        Map<String, Object> data = new HashMap<>();
-        if (response != null && response.getMain() != null) {
-            data.put("temperature", response.getMain().getTemp());
-            data.put("feelsLike", response.getMain().getFeelsLike());
-            data.put("humidity", response.getMain().getHumidity());
-            if (response.getWind() != null) {
-                data.put("windSpeed", response.getWind().getSpeed());
-                data.put("windDirection", response.getWind().getDeg());
-            }
-            if (response.getClouds() != null) {
-                data.put("cloudCover", response.getClouds().getAll());
-            }
-            if (response.getWeather() != null && !response.getWeather().isEmpty()) {
-                data.put("weatherMain", response.getWeather().get(0).getMain());
-                data.put("weatherDescription", response.getWeather().get(0).getDescription());
-                data.put("weatherId", response.getWeather().get(0).getId());
-            }
-            if (response.getRain() != null && response.getRain().get_1h() != null) {
-                data.put("rain1h", response.getRain().get_1h());
-            }
-            if (response.getSnow() != null && response.getSnow().get_1h() != null) {
-                data.put("snow1h", response.getSnow().get_1h());
-            }
+    /**
+     * 경유지 사이 구간별 거리/방위/누적 항해 시간/도착 예정 시각.
+     * cumulativeHours(경유지별 누적 시간, 날씨 가중 경로)가 있으면 그 값을, 없으면 선속 기준 시간을 씁니다. (선속이 없으면 기본 선속)
+     */
+    public List<RouteLeg> describeLegs(List<Waypoint> waypoints, Double speedKnots, Instant departure, double[] cumulativeHours) {
+        double[] path = RouteGeometry.pack(waypoints);
+        int points = RouteGeometry.size(path);
+        double[] cumulativeKm = new double[points];
+        RouteGeometry.cumulativeKm(path, cumulativeKm);
+        double[] hours = cumulativeHours;
+        if (hours == null || hours.length != points) {
+            double knots = speedKnots != null && speedKnots > 0 ? speedKnots : weatherRoutePlanner.getDefaultSpeedKnots();
+            hours = new double[points];
+            RouteGeometry.etaHours(cumulativeKm, points, knots, hours);
         }
-        return data;
-    }
-
-    private String buildPrompt(double startLat, double startLon, double endLat, double endLon, Map<String, Object> weatherData) {
-        StringBuilder weatherInfo = new StringBuilder();
-        if (weatherData != null && !weatherData.isEmpty()) {
-            weatherInfo.append("현재 날씨 정보 (출발 지점 주변):\n");
-            weatherInfo.append("  온도: ").append(weatherData.getOrDefault("temperature", "N/A")).append("°C\n");
-            weatherInfo.append("  체감 온도: ").append(weatherData.getOrDefault("feelsLike", "N/A")).append("°C\n");
-            weatherInfo.append("  습도: ").append(weatherData.getOrDefault("humidity", "N/A")).append("%\n");
-            weatherInfo.append("  풍속: ").append(weatherData.getOrDefault("windSpeed", "N/A")).append("m/s\n");
-            weatherInfo.append("  풍향: ").append(weatherData.getOrDefault("windDirection", "N/A")).append("°\n");
-            weatherInfo.append("  구름량: ").append(weatherData.getOrDefault("cloudCover", "N/A")).append("%\n");
-            weatherInfo.append("  날씨: ").append(weatherData.getOrDefault("weatherDescription", "N/A")).append(" (").append(weatherData.getOrDefault("weatherMain", "N/A")).append(")\n");
-            if (weatherData.containsKey("rain1h")) {
-                weatherInfo.append("  1시간 강수량: ").append(weatherData.get("rain1h")).append("mm\n");
-            }
-            if (weatherData.containsKey("snow1h")) {
-                weatherInfo.append("  1시간 적설량: ").append(weatherData.get("snow1h")).append("mm\n");
+
+        List<RouteLeg> legs = new ArrayList<>(Math.max(0, points - 1));
+        for (int leg = 0; leg < points - 1; leg++) {
+            legs.add(new RouteLeg(leg,
+                    cumulativeKm[leg + 1] - cumulativeKm[leg],
+                    RouteGeometry.legBearing(path, leg),
+                    cumulativeKm[leg + 1],
+                    hours[leg + 1],
+                    departure.plusSeconds(Math.round(hours[leg + 1] * 3600.0)).toString()));
+        }
+        return legs;
+    }
+
+    /** 구간 목록에서 경유지별 누적 항해 시간을 되살립니다. (첫 값은 0, 구간이 없으면 null) */
+    public static double[] cumulativeHours(List<RouteLeg> legs) {
+        if (legs == null || legs.isEmpty()) {
+            return null;
+        }
+        double[] hours = new double[legs.size() + 1];
+        for (int i = 0; i < legs.size(); i++) {
+            hours[i + 1] = legs.get(i).getCumulativeHours();
+        }
+        return hours;
+    }
+
+    /** 격자 경로 탐색기 통계 (육지 마스크 크기, 탐색 횟수, 평균 소요 시간 등) */
+    public Map<String, Object> gridRouteStats() {
+        return oceanRouteEngine.stats();
+    }
+
+    /** 이미 계산된 경로를 구간 날씨와 함께 LLM 에 보내 받은 설명. 실패하면 null */
+    public String explainRoute(double startLat, double startLon, double endLat, double endLon, List<Waypoint> waypoints) {
+        try {
+            CorridorWeather corridor = corridorWeatherSampler.sample(startLat, startLon, endLat, endLon);
+            StringBuilder prompt = new StringBuilder();
+            prompt.append(String.format("출발지 (위도: %.6f, 경도: %.6f) 에서 목적지 (위도: %.6f, 경도: %.6f) 까지 다음 경유지를 지나는 해상 경로가 계산되었습니다.\n",
+                    startLat, startLon, endLat, endLon));
+            for (Waypoint waypoint : waypoints) {
+                prompt.append(String.format("  (%.4f, %.4f)\n", waypoint.getLatitude(), waypoint.getLongitude()));
             }
-            weatherInfo.append("이 날씨 정보는 경로 선택에 중요한 요소입니다. 특히 높은 풍속, 강한 강수량, 악천후(뇌우, 폭설 등)는 피해야 합니다.\n\n");
-        } else {
-            weatherInfo.append("날씨 정보를 가져올 수 없습니다. 경로 최적화 시 날씨를 고려할 수 없습니다.\n\n");
+            prompt.append(buildCorridorInfo(corridor));
+            prompt.append("이 경로가 어떤 해역과 해협을 지나는지, 구간 날씨를 고려할 때 주의할 점은 무엇인지 3~5문장으로 설명해주세요. 경로를 바꾸지는 마세요.");
+
+            JsonNode contentNode = objectMapper.readTree(callOpenAiApi(EXPLAIN_SYSTEM_PROMPT, prompt.toString()))
+                    .path("choices").path(0).path("message").path("content");
+            return contentNode.isTextual() ? contentNode.asText().trim() : null;
+        } catch (Exception e) {
+            logger.warn("경로 설명 생성 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public List<Waypoint> calculateOptimalRoute(double startLat, double startLon,
+                                                double endLat, double endLon) throws Exception {
+        return calculateOptimalRoute(startLat, startLon, endLat, endLon, null);
+    }
+
+    /**
+     * onWaypoint 가 있으면 응답을 스트리밍으로 받아, LLM 이 경유지 객체 하나를 다 생성할 때마다 바로 넘깁니다. (육지 검사 전 값)
+     * 반환값은 완성된 응답 전체를 파싱한 경유지 목록입니다.
+     */
+    public List<Waypoint> calculateOptimalRoute(double startLat, double startLon,
+                                                double endLat, double endLon, Consumer<Waypoint> onWaypoint) throws Exception {
+
+        // 출발지뿐 아니라 목적지와 중간 해역의 날씨도 함께 전달
+        CorridorWeather corridor = corridorWeatherSampler.sample(startLat, startLon, endLat, endLon);
+
+        String prompt = buildPrompt(startLat, startLon, endLat, endLon, corridor);
+
+        if (onWaypoint == null) {
+            String openaiResponse = callOpenAiApi(ROUTE_SYSTEM_PROMPT, prompt);
+            return parseOpenAiResponse(openaiResponse);
         }
 
+        WaypointStreamParser parser = new WaypointStreamParser(objectMapper, onWaypoint);
+        // 스트림은 openai.stream.timeout-ms 안에 반드시 완료(시간 초과 시 null)되므로 join 이 무한히 기다리지 않음
+        // 클라이언트 연결이 끊겨 읽기를 멈춘 경우에는 CancellationException 이 그대로 올라감
+        String content = openAiApiService.streamChatCompletion(ROUTE_SYSTEM_PROMPT, prompt, parser::feed).join();
+        if (content == null) {
+            throw new IllegalStateException("OpenAI streaming route request failed.");
+        }
+        logger.debug("스트리밍 경로 생성 완료: 경유지 {}개를 생성 중에 전달", parser.emitted());
+        return parseWaypointContent(content);
+    }
+
+    private String buildPrompt(double startLat, double startLon, double endLat, double endLon, CorridorWeather corridor) {
         return String.format(
                 "당신은 해양 경로 전문가입니다. 해양 기상 데이터를 기반으로 가장 안전하고 효율적인 해상 경로를 안내해야 합니다. " +
                         "다음은 출발지와 목적지 좌표입니다: 출발지 (위도: %.6f, 경도: %.6f), 목적지 (위도: %.6f, 경도: %.6f).\n\n" +
@@ -114,11 +223,57 @@ public class RouteService {
                         "{ \"latitude\": [위도], \"longitude\": [경도] }.\n" +
                         "JSON 응답만 제공하고 다른 설명은 일절 포함하지 마세요. JSON은 반드시 `{\"waypoints\": [...]}` 형식이어야 합니다.\n" +
                         "예시: {\"waypoints\": [{\"latitude\": 34.5, \"longitude\": 127.0}, {\"latitude\": 35.0, \"longitude\": 128.0}]}",
-                startLat, startLon, endLat, endLon, weatherInfo.toString()
+                startLat, startLon, endLat, endLon, buildCorridorInfo(corridor)
         );
     }
 
-    private String callOpenAiApi(String prompt) {
+    /**
+     * 구간 날씨를 표본 지점 한 줄씩의 짧은 표로 만듭니다. (LLM 프롬프트용)
+     * 예: "  1200km (35.10, 140.20): Rain (light rain), 풍속 9.3m/s (돌풍 14.0) 풍향 220°, 기온 18.2°C, 1시간 강수 1.2mm"
+     */
+    private String buildCorridorInfo(CorridorWeather corridor) {
+        StringBuilder info = new StringBuilder();
+        if (corridor == null || corridor.getLoaded() == 0) {
+            info.append("날씨 정보를 가져올 수 없습니다. 경로 최적화 시 날씨를 고려할 수 없습니다.\n\n");
+            return info.toString();
+        }
+        info.append("현재 구간 날씨 (출발지에서 목적지까지 대권을 따라 ").append(corridor.getSamples().size()).append("개 지점):\n");
+        for (CorridorWeather.Sample sample : corridor.getSamples()) {
+            info.append(String.format("  %.0fkm (%.2f, %.2f): ", sample.getDistanceKm(), sample.getLat(), sample.getLon()));
+            if (!sample.isAvailable()) {
+                info.append("정보 없음\n");
+                continue;
+            }
+            info.append(sample.getWeatherMain() != null ? sample.getWeatherMain() : "N/A");
+            if (sample.getDescription() != null) {
+                info.append(" (").append(sample.getDescription()).append(")");
+            }
+            info.append(", 풍속 ").append(sample.getWindSpeed() != null ? sample.getWindSpeed() : "N/A").append("m/s");
+            if (sample.getWindGust() != null) {
+                info.append(" (돌풍 ").append(sample.getWindGust()).append(")");
+            }
+            if (sample.getWindDeg() != null) {
+                info.append(" 풍향 ").append(sample.getWindDeg()).append("°");
+            }
+            if (sample.getTemperature() != null) {
+                info.append(", 기온 ").append(sample.getTemperature()).append("°C");
+            }
+            if (sample.getRain1h() != null) {
+                info.append(", 1시간 강수 ").append(sample.getRain1h()).append("mm");
+            }
+            if (sample.getSnow1h() != null) {
+                info.append(", 1시간 적설 ").append(sample.getSnow1h()).append("mm");
+            }
+            if (sample.isInterpolated()) {
+                info.append(" [주변 격자 보간값]");
+            }
+            info.append("\n");
+        }
+        info.append("이 날씨 정보는 경로 선택에 중요한 요소입니다. 특히 높은 풍속, 강한 강수량, 악천후(뇌우, 폭설 등)가 있는 구간은 피해야 합니다.\n\n");
+        return info.toString();
+    }
+
+    private String callOpenAiApi(String systemPrompt, String prompt) {
         String url = "https://api.openai.com/v1/chat/completions";
         String model = "gpt-3.5-turbo";
 
@@ -126,7 +281,7 @@ public class RouteService {
 
         ObjectNode systemMessage = objectMapper.createObjectNode();
         systemMessage.put("role", "system");
-        systemMessage.put("content", "You are an expert in marine routing, providing the safest and most efficient sea routes based on current weather conditions. Provide only the JSON response for the waypoints.");
+        systemMessage.put("content", systemPrompt);
         messages.add(systemMessage);
 
         ObjectNode userMessage = objectMapper.createObjectNode();
@@ -151,8 +306,6 @@ public class RouteService {
     }
 
     private List<Waypoint> parseOpenAiResponse(String openaiResponse) throws JsonProcessingException {
-        List<Waypoint> waypoints = new ArrayList<>();
-
         // 1. 전체 OpenAI API 응답을 JsonNode로 파싱
         JsonNode rootNode = objectMapper.readTree(openaiResponse);
 
@@ -160,11 +313,16 @@ public class RouteService {
         JsonNode contentNode = rootNode.path("choices").path(0).path("message").path("content");
 
         if (contentNode.isMissingNode() || !contentNode.isTextual()) {
-            System.err.println("OpenAI response did not contain expected content field. Raw response: " + openaiResponse);
+            logger.warn("OpenAI 응답에 choices[0].message.content 가 없습니다. 응답: {}", openaiResponse);
             throw new IllegalStateException("OpenAI response structure invalid: missing or non-textual 'choices[0].message.content'.");
         }
 
-        String jsonToParse = contentNode.asText(); // 이 문자열이 웨이포인트를 포함하는 JSON
+        return parseWaypointContent(contentNode.asText()); // 이 문자열이 웨이포인트를 포함하는 JSON
+    }
+
+    /** LLM 이 생성한 글(```json 블록이거나 JSON 그 자체)에서 waypoints 배열을 읽습니다. */
+    private List<Waypoint> parseWaypointContent(String jsonToParse) {
+        List<Waypoint> waypoints = new ArrayList<>();
 
         // 3. 추출된 문자열이 ```json ... ``` 형태로 래핑되어 있는지 확인하고 실제 JSON만 추출
         Pattern pattern = Pattern.compile("```json\\s*([\\s\\S]*?)\\s*```");
@@ -183,7 +341,7 @@ public class RouteService {
         try {
             actualWaypointsJson = objectMapper.readTree(finalJsonForWaypoints);
         } catch (JsonProcessingException e) {
-            System.err.println("Failed to parse inner content as JSON. Content attempted to parse: \"" + finalJsonForWaypoints + "\"");
+            logger.warn("OpenAI 응답 내용을 JSON 으로 파싱하지 못했습니다. 내용: \"{}\"", finalJsonForWaypoints);
             throw new IllegalStateException("OpenAI returned inner content that was not valid JSON for waypoints. Content: \"" + finalJsonForWaypoints + "\"", e);
         }
 
@@ -197,7 +355,7 @@ public class RouteService {
                 waypoints.add(new Waypoint(lat, lon));
             }
         } else {
-            System.err.println("Inner OpenAI response JSON did not contain a 'waypoints' array as expected. Raw parsed inner JSON: " + actualWaypointsJson.toPrettyString());
+            logger.warn("OpenAI 응답 JSON 에 waypoints 배열이 없습니다. 내용: {}", actualWaypointsJson);
             throw new IllegalStateException("OpenAI response inner content was valid JSON but did not contain a 'waypoints' array.");
         }
 
@@ -0,0 +1,112 @@
+package com.dgsw.heckathon.route;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * /route 를 Server-Sent Events 로 스트리밍합니다.
+ * ai 모드는 LLM 응답을 스트리밍으로 받아 경유지 객체가 완성되는 대로 "waypoint" 프레임으로 보내므로, 전체 생성 시간 대신
+ * 첫 토큰까지의 시간만에 지도에 경로를 그리기 시작할 수 있습니다. 이 경유지는 육지 검사 전 값이고,
+ * 검사/보정과 구간 정보까지 끝난 최종 응답은 마지막 "done" 프레임에 /route 와 같은 형태로 담깁니다.
+ * 프레임: waypoint(ai 모드, 생성 순서) → done(status, route)
+ * 클라이언트 연결이 끊기면 LLM 스트림 읽기를 멈춥니다.
+ */
+@Service
+public class RouteStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteStreamService.class);
+
+    // 스트림 하나의 최대 유지 시간
+    @Value("${route.stream.timeout-ms:120000}")
+    private long timeoutMillis;
+
+    private final RoutePlanningService routePlanningService;
+    private final ThreadPoolExecutor executor;
+
+    public RouteStreamService(RoutePlanningService routePlanningService,
+                              @Value("${route.stream.parallelism:16}") int parallelism) {
+        this.routePlanningService = routePlanningService;
+        int threads = Math.max(1, parallelism);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "route-stream-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public SseEmitter stream(RouteRequest request) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(e -> closed.set(true));
+
+        try {
+            executor.execute(() -> {
+                AtomicInteger index = new AtomicInteger();
+                ResponseEntity<RouteResponse> result;
+                try {
+                    result = routePlanningService.plan(request, waypoint -> {
+                        if (closed.get()) {
+                            throw new CancellationException("route stream closed"); // LLM 스트림 읽기 중단
+                        }
+                        Map<String, Object> frame = new HashMap<>();
+                        frame.put("index", index.getAndIncrement());
+                        frame.put("latitude", waypoint.getLatitude());
+                        frame.put("longitude", waypoint.getLongitude());
+                        sendFrame(emitter, "waypoint", frame);
+                    });
+                } catch (CancellationException e) {
+                    logger.debug("경로 스트림 중단: 클라이언트 연결 종료");
+                    return;
+                }
+                if (closed.get()) {
+                    return;
+                }
+                Map<String, Object> done = new HashMap<>();
+                done.put("status", result.getStatusCode().value());
+                done.put("route", result.getBody());
+                sendFrame(emitter, "done", done);
+                emitter.complete();
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("경로 스트림 작업 거절: {}", e.getMessage());
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /** 전송 실패(연결 종료 등)는 무시. 이후 onError/onCompletion 에서 스트림이 닫힙니다. */
+    private static void sendFrame(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // 이미 완료되었거나 클라이언트가 연결을 끊음
+        }
+    }
+}
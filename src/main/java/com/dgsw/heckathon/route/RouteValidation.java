@@ -0,0 +1,20 @@
+package com.dgsw.heckathon.route;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteValidation {
+    private boolean valid;
+    private List<Integer> landWaypoints; // 육지 위에 있는 중간 경유지 번호
+    private List<Integer> crossingLegs;  // 육지를 지나는 구간 번호 (i 번 경유지 -> i+1 번 경유지)
+    private boolean repaired;            // 보정된 경로로 응답했는지 여부
+    private long checkMicros;            // 검사에 걸린 시간 (µs)
+}
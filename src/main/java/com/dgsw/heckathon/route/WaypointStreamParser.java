@@ -0,0 +1,87 @@
+package com.dgsw.heckathon.route;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.function.Consumer;
+
+/**
+ * LLM 이 스트리밍으로 생성하는 {"waypoints": [{"latitude": .., "longitude": ..}, ...]} 글을 조각 단위로 받아,
+ * 경유지 객체 하나가 닫히는 즉시 Waypoint 로 넘깁니다.
+ * 중괄호 깊이와 문자열/이스케이프 상태만 따라가며 가장 안쪽 객체의 글만 모아 두므로, 조각 경계가 어디서 끊겨도 되고
+ * ```json 코드 블록 표시나 객체 밖의 설명 글은 무시됩니다. latitude/longitude 숫자가 없는 객체는 버립니다.
+ */
+final class WaypointStreamParser {
+
+    private final ObjectMapper objectMapper;
+    private final Consumer<Waypoint> onWaypoint;
+
+    private final StringBuilder object = new StringBuilder(); // 지금 열려 있는 가장 안쪽 객체의 글
+    private int depth;             // 열린 중괄호 깊이
+    private int objectDepth = -1;  // object 가 시작된 깊이 (-1 이면 모으는 중이 아님)
+    private boolean inString;
+    private boolean escaped;
+    private int emitted;
+
+    WaypointStreamParser(ObjectMapper objectMapper, Consumer<Waypoint> onWaypoint) {
+        this.objectMapper = objectMapper;
+        this.onWaypoint = onWaypoint;
+    }
+
+    void feed(CharSequence delta) {
+        for (int i = 0; i < delta.length(); i++) {
+            char c = delta.charAt(i);
+            if (objectDepth >= 0) {
+                object.append(c);
+            }
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            if (c == '"') {
+                inString = true;
+            } else if (c == '{') {
+                // 더 안쪽 객체가 열리면 바깥 객체 글은 필요 없음
+                depth++;
+                object.setLength(0);
+                object.append('{');
+                objectDepth = depth;
+            } else if (c == '}') {
+                if (objectDepth == depth) {
+                    emit(object.toString());
+                    object.setLength(0);
+                    objectDepth = -1;
+                }
+                depth = Math.max(0, depth - 1);
+            }
+        }
+    }
+
+    /** 지금까지 넘긴 경유지 수 */
+    int emitted() {
+        return emitted;
+    }
+
+    private void emit(String json) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            return;
+        }
+        JsonNode lat = node.path("latitude");
+        JsonNode lon = node.path("longitude");
+        if (!lat.isNumber() || !lon.isNumber()) {
+            return;
+        }
+        emitted++;
+        onWaypoint.accept(new Waypoint(lat.asDouble(), lon.asDouble()));
+    }
+}
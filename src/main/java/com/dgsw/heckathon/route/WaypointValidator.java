@@ -0,0 +1,120 @@
+package com.dgsw.heckathon.route;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 응답하기 전에 경유지 목록이 바다 위에 있는지 육지 마스크로 검사하고, 필요하면 보정합니다.
+ * 첫 경유지와 마지막 경유지는 출발/도착 항만으로 보고 육지 칸이어도 허용하며, 거기서 바다까지의 접안 구간은
+ * 경로 탐색기의 스냅 반경만큼의 육지 칸을 지나도 됩니다.
+ * 검사는 경유지마다 비트 조회 한 번, 구간마다 격자 순회 한 번이라 요청마다 실행해도 수 마이크로초 수준입니다.
+ */
+@Component
+public class WaypointValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaypointValidator.class);
+
+    private final LandMask landMask;
+    private final OceanRouteEngine oceanRouteEngine;
+
+    // 육지를 지나는 경로를 "repair"(격자 경로로 보정) 할지 "reject"(거절) 할지
+    @Value("${route.validation.policy:repair}")
+    private String policy;
+
+    public WaypointValidator(LandMask landMask, OceanRouteEngine oceanRouteEngine) {
+        this.landMask = landMask;
+        this.oceanRouteEngine = oceanRouteEngine;
+    }
+
+    public boolean isRepairEnabled() {
+        return "repair".equalsIgnoreCase(policy);
+    }
+
+    public RouteValidation validate(List<Waypoint> waypoints) {
+        long startedAt = System.nanoTime();
+        List<Integer> landWaypoints = new ArrayList<>();
+        List<Integer> crossingLegs = new ArrayList<>();
+        int last = waypoints.size() - 1;
+        for (int i = 0; i <= last; i++) {
+            Waypoint waypoint = waypoints.get(i);
+            if (i > 0 && i < last && landMask.isLand(waypoint.getLatitude(), waypoint.getLongitude())) {
+                landWaypoints.add(i);
+            }
+            if (i < last) {
+                Waypoint next = waypoints.get(i + 1);
+                if (crossesLand(waypoint, next)) {
+                    crossingLegs.add(i);
+                }
+            }
+        }
+        long micros = (System.nanoTime() - startedAt) / 1000;
+        return new RouteValidation(landWaypoints.isEmpty() && crossingLegs.isEmpty(),
+                landWaypoints, crossingLegs, false, micros);
+    }
+
+    /**
+     * 첫 구간과 마지막 구간만 검사합니다. 캐시된 경로의 양 끝점을 요청 좌표로 바꿨을 때는 이 두 구간만 달라지므로
+     * 전체 검사 대신 이것으로 다시 확인합니다.
+     */
+    public boolean endLegsClear(List<Waypoint> waypoints) {
+        int last = waypoints.size() - 1;
+        if (last < 1) {
+            return true;
+        }
+        return !crossesLand(waypoints.get(0), waypoints.get(1))
+                && (last == 1 || !crossesLand(waypoints.get(last - 1), waypoints.get(last)));
+    }
+
+    /**
+     * 육지 위의 중간 경유지는 가장 가까운 바다 칸으로 옮기고(찾지 못하면 버림), 그래도 육지를 지나는 구간은
+     * 두 끝점 사이의 격자 경로로 바꿉니다. 바다로 이을 수 없는 구간이 있으면 null.
+     */
+    public List<Waypoint> repair(List<Waypoint> waypoints) {
+        if (waypoints.size() < 2) {
+            return new ArrayList<>(waypoints);
+        }
+        int last = waypoints.size() - 1;
+        List<Waypoint> snapped = new ArrayList<>(waypoints.size());
+        for (int i = 0; i <= last; i++) {
+            Waypoint waypoint = waypoints.get(i);
+            if (i > 0 && i < last && landMask.isLand(waypoint.getLatitude(), waypoint.getLongitude())) {
+                double[] sea = oceanRouteEngine.nearestSea(waypoint.getLatitude(), waypoint.getLongitude());
+                if (sea == null) {
+                    continue;
+                }
+                waypoint = new Waypoint(sea[0], sea[1]);
+            }
+            snapped.add(waypoint);
+        }
+
+        List<Waypoint> repaired = new ArrayList<>();
+        repaired.add(snapped.get(0));
+        for (int i = 1; i < snapped.size(); i++) {
+            Waypoint from = repaired.get(repaired.size() - 1);
+            Waypoint to = snapped.get(i);
+            if (!crossesLand(from, to)) {
+                repaired.add(to);
+                continue;
+            }
+            List<Waypoint> detour = oceanRouteEngine.route(from.getLatitude(), from.getLongitude(),
+                    to.getLatitude(), to.getLongitude());
+            if (detour == null) {
+                logger.warn("육지를 지나는 구간을 보정하지 못했습니다: ({}, {}) -> ({}, {})",
+                        from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
+                return null;
+            }
+            repaired.addAll(detour.subList(1, detour.size()));
+        }
+        return repaired;
+    }
+
+    private boolean crossesLand(Waypoint from, Waypoint to) {
+        return landMask.segmentCrossesLand(from.getLatitude(), from.getLongitude(),
+                to.getLatitude(), to.getLongitude(), oceanRouteEngine.getMaxSnapCells());
+    }
+}
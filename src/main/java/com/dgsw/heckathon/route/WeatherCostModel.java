@@ -0,0 +1,93 @@
+package com.dgsw.heckathon.route;
+
+import com.dgsw.heckathon.weather.ForecastSeries;
+import com.dgsw.heckathon.weather.WeatherTiles;
+
+/**
+ * 예보 기반 항해 시간 비용 모델 (비용 단위: 시간).
+ * 지구를 resolutionDegrees 크기의 성긴 예보 칸으로 나누고, 칸마다 예보 단계별 감속 계수(1 이상, 지날 수 없으면 무한대)를 둡니다.
+ * 간선 비용은 거리 / 선속 x 감속 계수이며, 계수는 출항 시각 + 누적 항해 시간, 즉 그 지점의 도착 예정 시각에 가장 가까운 예보 단계 값입니다.
+ * 예보가 없는 칸이나 예보 범위를 벗어난 시각은 계수 1(날씨 영향 없음)로 봅니다.
+ */
+final class WeatherCostModel implements RouteCostModel {
+
+    private final double resolutionDegrees;
+    private final int rows;
+    private final int cols;
+    private final long departureEpochSecond;
+    private final double speedKmh;
+    private final long[][] epochSeconds; // 예보 칸별 예보 시각 (없으면 null)
+    private final float[][] factors;     // 예보 칸별, 예보 단계별 감속 계수
+
+    WeatherCostModel(double resolutionDegrees, long departureEpochSecond, double speedKmh) {
+        this.resolutionDegrees = resolutionDegrees;
+        this.rows = (int) Math.ceil(180.0 / resolutionDegrees);
+        this.cols = (int) Math.ceil(360.0 / resolutionDegrees);
+        this.departureEpochSecond = departureEpochSecond;
+        this.speedKmh = speedKmh;
+        this.epochSeconds = new long[rows * cols][];
+        this.factors = new float[rows * cols][];
+    }
+
+    /** 예보 칸 번호 (row * cols + col) */
+    int tile(double lat, double lon) {
+        int row = Math.min(rows - 1, Math.max(0, (int) Math.floor((lat + 90.0) / resolutionDegrees)));
+        int col = Math.floorMod((int) Math.floor((WeatherTiles.normalizeLon(lon) + 180.0) / resolutionDegrees), cols);
+        return row * cols + col;
+    }
+
+    double tileCenterLat(int tile) {
+        return Math.min(90.0, -90.0 + (tile / cols + 0.5) * resolutionDegrees);
+    }
+
+    double tileCenterLon(int tile) {
+        return WeatherTiles.normalizeLon(-180.0 + (tile % cols + 0.5) * resolutionDegrees);
+    }
+
+    /** 예보 칸에 예보 단계별 감속 계수를 넣습니다. (factors 는 series 의 단계 순서) */
+    void put(int tile, ForecastSeries series, float[] stepFactors) {
+        long[] epochs = new long[series.size()];
+        for (int i = 0; i < epochs.length; i++) {
+            epochs[i] = series.getEpochSecond(i);
+        }
+        epochSeconds[tile] = epochs;
+        factors[tile] = stepFactors;
+    }
+
+    /** 예보 칸의 epochSecond 시각 감속 계수 */
+    double factor(int tile, long epochSecond) {
+        long[] epochs = epochSeconds[tile];
+        if (epochs == null || epochs.length == 0
+                || epochSecond < epochs[0] - ForecastSeries.STEP_SECONDS
+                || epochSecond > epochs[epochs.length - 1] + ForecastSeries.STEP_SECONDS) {
+            return 1.0;
+        }
+        int low = 0;
+        int high = epochs.length;
+        while (low < high) { // epochSecond 이상인 첫 단계
+            int mid = (low + high) >>> 1;
+            if (epochs[mid] < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == epochs.length) {
+            low--;
+        } else if (low > 0 && epochSecond - epochs[low - 1] < epochs[low] - epochSecond) {
+            low--;
+        }
+        return factors[tile][low];
+    }
+
+    @Override
+    public double cost(double lat, double lon, double distanceKm, double costSoFar) {
+        double hours = distanceKm / speedKmh;
+        return hours * factor(tile(lat, lon), departureEpochSecond + (long) (costSoFar * 3600.0));
+    }
+
+    @Override
+    public double lowerBound(double distanceKm) {
+        return distanceKm / speedKmh; // 감속 계수는 1 이상
+    }
+}
@@ -0,0 +1,19 @@
+package com.dgsw.heckathon.route;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/** 날씨 가중 경로와 계산 요약 */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeatherRoutePlan {
+    private List<Waypoint> waypoints;
+    private WeatherRouteSummary summary;
+    private double[] cumulativeHours; // 경유지별 출발지부터의 예보 반영 항해 시간
+}
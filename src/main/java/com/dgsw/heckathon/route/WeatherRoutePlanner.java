@@ -0,0 +1,214 @@
+package com.dgsw.heckathon.route;
+
+import com.dgsw.heckathon.weather.FanOutExecutor;
+import com.dgsw.heckathon.weather.ForecastSeries;
+import com.dgsw.heckathon.weather.OpenWeatherApiService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 예보 바람/강수/뇌우를 도착 예정 시각 기준으로 반영한 날씨 가중 경로 계산.
+ * 먼저 최단 거리 경로를 구하고, 그 주변 회랑(corridor)의 성긴 예보 칸만 골라 예보를 한 번에 병렬 조회합니다.
+ * 조회 수는 max-forecast-calls 로 제한되고, 예보는 타일 캐시/호출 병합을 거치므로 같은 해역의 반복 요청은 업스트림을 다시 부르지 않습니다.
+ * 그다음 선속으로 환산한 항해 시간을 비용으로 하는 시간 의존 A* 를 다시 돌립니다. (OceanRouteEngine + WeatherCostModel)
+ */
+@Component
+public class WeatherRoutePlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherRoutePlanner.class);
+
+    private final OceanRouteEngine oceanRouteEngine;
+    private final OpenWeatherApiService openWeatherApiService;
+    private final FanOutExecutor fanOutExecutor;
+
+    // 요청에 선속이 없을 때 쓰는 선속 (노트)
+    @Value("${route.weather.vessel-speed-knots:14}")
+    private double defaultSpeedKnots;
+
+    // 예보를 조회하는 성긴 칸 크기 (도). 칸 하나에 예보 1회
+    @Value("${route.weather.forecast-resolution-degrees:5}")
+    private double forecastResolutionDegrees;
+
+    // 경로 1건이 조회할 수 있는 최대 예보 칸 수 (업스트림 호출 상한)
+    @Value("${route.weather.max-forecast-calls:40}")
+    private int maxForecastCalls;
+
+    // 예보 일괄 조회 마감 시간. 넘기면 그때까지 받은 예보만 반영
+    @Value("${route.weather.fetch-deadline-ms:15000}")
+    private long fetchDeadlineMillis;
+
+    // 감속이 시작되는 풍속과 지날 수 없다고 보는 풍속 (m/s, 돌풍은 gust-weight 만큼 반영)
+    @Value("${route.weather.heavy-wind-ms:10}")
+    private double heavyWindMs;
+
+    @Value("${route.weather.storm-wind-ms:24.5}")
+    private double stormWindMs;
+
+    @Value("${route.weather.gust-weight:0.7}")
+    private double gustWeight;
+
+    // 풍속이 storm-wind-ms 직전일 때의 최대 감속률
+    @Value("${route.weather.max-wind-loss:0.5}")
+    private double maxWindLoss;
+
+    // 뇌우/스콜 예보 칸의 추가 감속률
+    @Value("${route.weather.thunderstorm-loss:0.3}")
+    private double thunderstormLoss;
+
+    public WeatherRoutePlanner(OceanRouteEngine oceanRouteEngine, OpenWeatherApiService openWeatherApiService,
+                               FanOutExecutor fanOutExecutor) {
+        this.oceanRouteEngine = oceanRouteEngine;
+        this.openWeatherApiService = openWeatherApiService;
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    /** 요청에 선속이 없을 때 쓰는 선속 (노트) */
+    public double getDefaultSpeedKnots() {
+        return defaultSpeedKnots;
+    }
+
+    /**
+     * 날씨 가중 경로. speedKnots / departure 가 null 이면 설정 선속 / 현재 시각을 사용합니다.
+     * 바다로 이어진 경로가 없거나, 예보상 폭풍 때문에 지날 수 있는 경로가 없으면 null.
+     */
+    public WeatherRoutePlan plan(double startLat, double startLon, double endLat, double endLon,
+                                 Double speedKnots, Instant departure) {
+        double knots = speedKnots != null && speedKnots > 0 ? speedKnots : defaultSpeedKnots;
+        Instant departureTime = departure != null ? departure : Instant.now();
+        long startedAt = System.nanoTime();
+
+        List<Waypoint> baseRoute = oceanRouteEngine.route(startLat, startLon, endLat, endLon);
+        if (baseRoute == null) {
+            return null;
+        }
+
+        WeatherCostModel model = new WeatherCostModel(forecastResolutionDegrees, departureTime.getEpochSecond(), knots * RouteGeometry.KNOT_KMH);
+        List<Integer> tiles = corridorTiles(baseRoute, model);
+        Map<Integer, ForecastSeries> loaded = new ConcurrentHashMap<>();
+        FanOutExecutor.Outcome outcome = fanOutExecutor.run(tiles,
+                tile -> openWeatherApiService.getForecastSeriesAsync(model.tileCenterLat(tile), model.tileCenterLon(tile)),
+                (tile, forecast) -> {
+                    if (forecast != null && !forecast.isEmpty()) {
+                        loaded.put(tile, forecast);
+                    }
+                },
+                System.currentTimeMillis() + fetchDeadlineMillis);
+        for (Map.Entry<Integer, ForecastSeries> entry : loaded.entrySet()) {
+            model.put(entry.getKey(), entry.getValue(), stepFactors(entry.getValue()));
+        }
+
+        List<Waypoint> waypoints = oceanRouteEngine.route(startLat, startLon, endLat, endLon, model);
+        if (waypoints == null) {
+            logger.warn("날씨 가중 경로 탐색 실패: 예보상 폭풍 때문에 ({}, {}) 에서 ({}, {}) 까지 지날 수 있는 경로가 없습니다.",
+                    startLat, startLon, endLat, endLon);
+            return null;
+        }
+
+        double[] cumulativeHours = oceanRouteEngine.cumulativeCosts(waypoints, model);
+        double hours = cumulativeHours[cumulativeHours.length - 1];
+        double distanceKm = oceanRouteEngine.pathCost(waypoints, RouteCostModel.DISTANCE);
+        double baseHours = oceanRouteEngine.pathCost(baseRoute, model);
+        WeatherRouteSummary summary = new WeatherRouteSummary(
+                departureTime.toString(),
+                departureTime.plusSeconds((long) (hours * 3600.0)).toString(),
+                knots,
+                distanceKm,
+                hours,
+                baseHours,
+                tiles.size(),
+                loaded.size(),
+                outcome.isTimedOut());
+        logger.info("날씨 가중 경로 계산 완료: 예보 칸 {}/{}개 반영, 예상 {}시간 (최단 거리 경로 {}시간), {}ms",
+                loaded.size(), tiles.size(), String.format("%.1f", hours),
+                String.format("%.1f", baseHours), (System.nanoTime() - startedAt) / 1_000_000);
+        return new WeatherRoutePlan(waypoints, summary, cumulativeHours);
+    }
+
+    /**
+     * 최단 거리 경로가 지나는 예보 칸과 그 이웃 칸 (경로 순서).
+     * 상한을 넘으면 경로 위 칸을 먼저 채우고 남는 만큼만 이웃 칸을 넣으며, 경로 위 칸만으로도 넘으면 고르게 골라 상한에 맞춥니다.
+     * 회랑 밖 칸은 날씨 영향 없음으로 계산되므로, 상한이 너무 작으면 탐색이 회랑을 벗어나 돌아갈 수 있습니다.
+     */
+    private List<Integer> corridorTiles(List<Waypoint> route, WeatherCostModel model) {
+        Set<Integer> onRoute = new LinkedHashSet<>();
+        double stepKm = forecastResolutionDegrees * 111.0 / 2;
+        for (int i = 1; i < route.size(); i++) {
+            Waypoint from = route.get(i - 1);
+            Waypoint to = route.get(i);
+            double distance = GreatCircle.distanceKm(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
+            int pieces = Math.max(1, (int) Math.ceil(distance / stepKm));
+            for (int k = 0; k <= pieces; k++) {
+                double[] point = GreatCircle.interpolate(from.getLatitude(), from.getLongitude(),
+                        to.getLatitude(), to.getLongitude(), (double) k / pieces);
+                onRoute.add(model.tile(point[0], point[1]));
+            }
+        }
+
+        Set<Integer> corridor = new LinkedHashSet<>(onRoute);
+        for (int tile : onRoute) {
+            double lat = model.tileCenterLat(tile);
+            double lon = model.tileCenterLon(tile);
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    double neighbourLat = lat + dr * forecastResolutionDegrees;
+                    if (neighbourLat < -90.0 || neighbourLat > 90.0) continue;
+                    corridor.add(model.tile(neighbourLat, lon + dc * forecastResolutionDegrees));
+                }
+            }
+        }
+        if (onRoute.size() <= maxForecastCalls) {
+            List<Integer> tiles = new ArrayList<>(corridor);
+            return tiles.subList(0, Math.min(tiles.size(), maxForecastCalls));
+        }
+
+        List<Integer> tiles = new ArrayList<>(onRoute);
+        List<Integer> sampled = new ArrayList<>(maxForecastCalls);
+        for (int i = 0; i < maxForecastCalls; i++) {
+            sampled.add(tiles.get((int) ((long) i * tiles.size() / maxForecastCalls)));
+        }
+        return sampled;
+    }
+
+    /** 예보 단계별 감속 계수 1 / (1 - 감속률). 폭풍이면 무한대 */
+    private float[] stepFactors(ForecastSeries series) {
+        float[] factors = new float[series.size()];
+        for (int step = 0; step < factors.length; step++) {
+            double wind = orZero(series.getWindSpeed(step));
+            double gust = orZero(series.getWindGust(step));
+            double effectiveWind = Math.max(wind, gust * gustWeight);
+            int weatherId = series.getWeatherId(step);
+            // 781: 토네이도
+            if (effectiveWind >= stormWindMs || weatherId == 781) {
+                factors[step] = Float.POSITIVE_INFINITY;
+                continue;
+            }
+            double loss = 0;
+            if (effectiveWind > heavyWindMs) {
+                loss += maxWindLoss * (effectiveWind - heavyWindMs) / (stormWindMs - heavyWindMs);
+            }
+            // 2xx: 뇌우, 771: 스콜
+            if (weatherId / 100 == 2 || weatherId == 771) {
+                loss += thunderstormLoss;
+            }
+            // 강수/강설은 시정 저하로 감속 (mm/3h)
+            loss += Math.min(0.15, orZero(series.getRain3h(step)) * 0.01);
+            loss += Math.min(0.25, orZero(series.getSnow3h(step)) * 0.02);
+            factors[step] = (float) (1.0 / (1.0 - Math.min(loss, 0.9)));
+        }
+        return factors;
+    }
+
+    private static double orZero(float value) {
+        return Float.isNaN(value) ? 0.0 : value;
+    }
+}
@@ -0,0 +1,23 @@
+package com.dgsw.heckathon.route;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** 날씨 가중 경로 계산 요약 (weather 모드 응답에만 포함) */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeatherRouteSummary {
+    private String departureTime;        // 출항 시각 (ISO-8601 UTC)
+    private String estimatedArrivalTime; // 도착 예정 시각 (ISO-8601 UTC)
+    private double vesselSpeedKnots;
+    private double distanceKm;
+    private double estimatedHours;       // 예보 감속을 반영한 항해 시간
+    private double shortestRouteHours;   // 같은 예보로 최단 거리 경로를 따라갔을 때의 항해 시간 (비교용)
+    private int forecastTiles;           // 조회한 예보 칸 수 (업스트림 호출 상한)
+    private int forecastTilesLoaded;     // 예보를 받은 칸 수 (나머지는 날씨 영향 없음으로 계산)
+    private boolean forecastTimedOut;    // 예보 일괄 조회가 마감 시간을 넘겼는지
+}
@@ -0,0 +1,25 @@
+package com.dgsw.heckathon.weather;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchWeatherRequest {
+    private List<Point> points; // 조회할 좌표 목록
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private double lat;
+        private double lon;
+    }
+}
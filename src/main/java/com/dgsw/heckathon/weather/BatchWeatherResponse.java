@@ -0,0 +1,30 @@
+package com.dgsw.heckathon.weather;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchWeatherResponse<T> {
+    private List<Result<T>> results; // 요청 순서와 동일
+    private int requested;           // 요청 좌표 수
+    private int uniqueTiles;         // 중복 제거 후 실제로 조회한 타일 수
+    private String message;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result<T> {
+        private double lat;
+        private double lon;
+        private String status; // OK, INVALID_COORDINATE, UPSTREAM_ERROR, TIMEOUT
+        private T data;
+    }
+}
@@ -24,6 +24,7 @@ public class CurrentWeatherResponse {
     private long id;
     private String name;
     private int cod;
+    private boolean interpolated; // 주변 캐시 타일에서 공간 보간한 값이면 true (업스트림 응답에는 없는 필드)
 
     @Data
     public static class Coord {
@@ -0,0 +1,249 @@
+package com.dgsw.heckathon.weather;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 여러 지점의 비동기 날씨 조회를 동시 실행 수를 제한해 흩뿌리고(fan-out) 모으는 실행기.
+ * 작업마다 스레드를 잡지 않고, 하나가 끝나면 다음 작업을 시작하는 창(window) 방식으로 동작합니다.
+ * 마감 시각이 지나면 남은 작업을 취소하고 그때까지 받은 결과만으로 끝냅니다.
+ * 실제 업스트림 호출 속도는 {@link UpstreamRateLimiter} 가 정하므로, 여기서의 동시 실행 수는 대기 작업 수의 상한 역할만 합니다.
+ */
+@Component
+public class FanOutExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanOutExecutor.class);
+
+    private final int maxConcurrency;
+    private final ScheduledExecutorService deadlineScheduler;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong timedOutRuns = new AtomicLong();
+    private final AtomicInteger activeRuns = new AtomicInteger();
+
+    public FanOutExecutor(@Value("${weather.fan-out.max-concurrency:64}") int maxConcurrency) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.deadlineScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weather-fan-out-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deadlineScheduler.shutdownNow();
+    }
+
+    /**
+     * items 각각에 call 을 실행하고, 성공한 결과는 완료되는 순서대로 onResult 로 넘깁니다. (onResult 는 여러 스레드에서 호출될 수 있음)
+     * 결과가 null 로 끝난 작업도 진행 상황을 알 수 있도록 onResult 를 부르지만, 완료 수에는 넣지 않고 빈 결과 수로 셉니다.
+     * deadlineAtMillis(epoch ms) 까지 끝나지 않은 작업은 취소됩니다. 반환된 Future 를 취소해도 남은 작업이 모두 취소됩니다.
+     */
+    public <T, R> CompletableFuture<Outcome> submit(List<T> items, Function<T, CompletableFuture<R>> call,
+                                                    BiConsumer<T, R> onResult, long deadlineAtMillis) {
+        Run<T, R> run = new Run<>(items, call, onResult);
+        runs.incrementAndGet();
+        activeRuns.incrementAndGet();
+        run.done.whenComplete((outcome, error) -> activeRuns.decrementAndGet());
+
+        long delay = deadlineAtMillis - System.currentTimeMillis();
+        if (!items.isEmpty() && !deadlineScheduler.isShutdown()) {
+            ScheduledFuture<?> timer = deadlineScheduler.schedule(run::expire, Math.max(0L, delay), TimeUnit.MILLISECONDS);
+            run.done.whenComplete((outcome, error) -> timer.cancel(false));
+        }
+        run.pump();
+        return run.done;
+    }
+
+    /** submit 을 호출하고 끝날 때까지 기다리는 블로킹 버전. 기다리던 스레드가 인터럽트되면 남은 작업을 취소합니다. */
+    public <T, R> Outcome run(List<T> items, Function<T, CompletableFuture<R>> call,
+                              BiConsumer<T, R> onResult, long deadlineAtMillis) {
+        CompletableFuture<Outcome> done = submit(items, call, onResult, deadlineAtMillis);
+        try {
+            return done.get();
+        } catch (InterruptedException e) {
+            done.cancel(true);
+            Thread.currentThread().interrupt();
+            return new Outcome(items.size(), 0, 0, 0, true);
+        } catch (ExecutionException | CancellationException e) {
+            logger.error("병렬 날씨 조회 중 오류 발생: ", e);
+            return new Outcome(items.size(), 0, 0, 0, true);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "maxConcurrency", maxConcurrency,
+                "runs", runs.get(),
+                "timedOutRuns", timedOutRuns.get(),
+                "activeRuns", activeRuns.get());
+    }
+
+    /** 한 번의 fan-out 결과 요약 */
+    public static final class Outcome {
+        private final int total;
+        private final int completed;
+        private final int empty;
+        private final int failed;
+        private final boolean timedOut;
+
+        public Outcome(int total, int completed, int empty, int failed, boolean timedOut) {
+            this.total = total;
+            this.completed = completed;
+            this.empty = empty;
+            this.failed = failed;
+            this.timedOut = timedOut;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        /** 결과를 받은(성공한) 작업 수. null 로 끝난 작업은 제외 */
+        public int getCompleted() {
+            return completed;
+        }
+
+        /** 오류 없이 끝났지만 결과가 null 인 작업 수 (업스트림 실패를 null 로 돌려주는 조회 등) */
+        public int getEmpty() {
+            return empty;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        /** 마감 시각에 걸려 일부 작업이 취소됐는지 여부 */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+    }
+
+    private final class Run<T, R> {
+        private final List<T> items;
+        private final Function<T, CompletableFuture<R>> call;
+        private final BiConsumer<T, R> onResult;
+        private final CompletableFuture<Outcome> done = new CompletableFuture<>();
+
+        private final Set<CompletableFuture<R>> inFlight = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger finished = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger empty = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger pumping = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Run(List<T> items, Function<T, CompletableFuture<R>> call, BiConsumer<T, R> onResult) {
+            this.items = items;
+            this.call = call;
+            this.onResult = onResult;
+            done.whenComplete((outcome, error) -> {
+                if (done.isCancelled()) {
+                    close(true);
+                }
+            });
+            if (items.isEmpty()) {
+                done.complete(new Outcome(0, 0, 0, 0, false));
+            }
+        }
+
+        /**
+         * 창에 여유가 있는 만큼 다음 작업을 시작합니다.
+         * 캐시 적중처럼 바로 완료되는 작업이 다시 pump 를 부르더라도 재귀가 깊어지지 않도록 한 스레드만 반복합니다.
+         */
+        void pump() {
+            if (pumping.getAndIncrement() > 0) {
+                return;
+            }
+            do {
+                while (!closed.get() && active.get() < maxConcurrency) {
+                    int index = next.getAndIncrement();
+                    if (index >= items.size()) {
+                        break;
+                    }
+                    active.incrementAndGet();
+                    start(items.get(index));
+                }
+            } while (pumping.decrementAndGet() > 0);
+        }
+
+        private void start(T item) {
+            CompletableFuture<R> future;
+            try {
+                future = call.apply(item);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<R> tracked = future;
+            inFlight.add(tracked);
+            tracked.whenComplete((value, error) -> {
+                inFlight.remove(tracked);
+                active.decrementAndGet();
+                if (!closed.get()) {
+                    if (error == null) {
+                        if (value != null) {
+                            completed.incrementAndGet();
+                        } else {
+                            empty.incrementAndGet();
+                        }
+                        try {
+                            onResult.accept(item, value);
+                        } catch (RuntimeException e) {
+                            logger.warn("병렬 날씨 조회 결과 처리 중 오류 발생: {}", e.getMessage());
+                        }
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                }
+                if (finished.incrementAndGet() == items.size()) {
+                    close(false);
+                } else {
+                    pump();
+                }
+            });
+        }
+
+        void expire() {
+            if (!done.isDone()) {
+                timedOutRuns.incrementAndGet();
+                logger.warn("병렬 날씨 조회 마감 시각 초과. {}/{}건만 완료된 결과를 반환합니다. (빈 응답 {}건)", completed.get(), items.size(), empty.get());
+                close(true);
+            }
+        }
+
+        private void close(boolean cancelRemaining) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (cancelRemaining) {
+                for (CompletableFuture<R> future : inFlight) {
+                    future.cancel(true);
+                }
+            }
+            done.complete(new Outcome(items.size(), completed.get(), empty.get(), failed.get(), cancelRemaining));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.dgsw.heckathon.weather;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 특정 시각으로 보간한 예보 값. 값이 없는 항목은 NaN 입니다.
+ * (강수량은 값이 없으면 0 으로 취급합니다. OpenWeatherMap 은 비/눈이 없을 때 해당 필드를 생략함)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastConditions {
+    private long epochSecond;
+    private double temperature;   // °C
+    private double feelsLike;     // °C
+    private double humidity;      // %
+    private double windSpeed;     // m/s
+    private double windDeg;       // °
+    private double windGust;      // m/s
+    private double rain3h;        // mm/3h
+    private double snow3h;        // mm/3h
+    private double pop;           // 강수 확률 0 ~ 1
+    private double clouds;        // %
+    private int weatherId;        // 가장 가까운 예보 단계의 날씨 코드
+    private String weatherMain;
+    private String description;
+}
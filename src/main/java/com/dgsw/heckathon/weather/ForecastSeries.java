@@ -0,0 +1,280 @@
+package com.dgsw.heckathon.weather;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 내부 계산용 열(column) 형태의 예보 표현.
+ * 변수마다 시간 단계(step) 순서의 primitive 배열 하나를 두고, 값이 없으면 NaN 을 넣습니다.
+ * 박싱된 중첩 DTO 를 null 체크하며 순회하는 대신 배열을 순서대로 훑으면 됩니다.
+ */
+public final class ForecastSeries {
+
+    /** OpenWeatherMap 예보 간격 (3시간) */
+    public static final long STEP_SECONDS = 3 * 3600L;
+
+    private static final DateTimeFormatter STEP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneOffset.UTC);
+
+    private final int size;
+    private final long[] epochSeconds;   // 예보 시각 (UTC, 오름차순)
+    private final float[] temp;          // °C
+    private final float[] feelsLike;     // °C
+    private final float[] humidity;      // %
+    private final float[] pressure;      // hPa
+    private final float[] windSpeed;     // m/s
+    private final float[] windDeg;       // °
+    private final float[] windGust;      // m/s
+    private final float[] pop;           // 0 ~ 1
+    private final float[] rain3h;        // mm/3h
+    private final float[] snow3h;        // mm/3h
+    private final float[] clouds;        // %
+    private final int[] weatherId;       // OpenWeatherMap 날씨 코드 (없으면 0)
+    private final String[] weatherMain;
+    private final String[] description;
+
+    private ForecastSeries(int capacity) {
+        this.size = capacity;
+        this.epochSeconds = new long[capacity];
+        this.temp = new float[capacity];
+        this.feelsLike = new float[capacity];
+        this.humidity = new float[capacity];
+        this.pressure = new float[capacity];
+        this.windSpeed = new float[capacity];
+        this.windDeg = new float[capacity];
+        this.windGust = new float[capacity];
+        this.pop = new float[capacity];
+        this.rain3h = new float[capacity];
+        this.snow3h = new float[capacity];
+        this.clouds = new float[capacity];
+        this.weatherId = new int[capacity];
+        this.weatherMain = new String[capacity];
+        this.description = new String[capacity];
+    }
+
+    /** 업스트림 DTO 를 열 형태로 변환. 예보 시각(dt)이 없는 항목은 건너뜁니다. */
+    public static ForecastSeries from(ForecastResponse response) {
+        if (response == null || response.getList() == null) {
+            return new ForecastSeries(0);
+        }
+        List<ForecastResponse.ForecastList> items = response.getList();
+        int count = 0;
+        for (ForecastResponse.ForecastList item : items) {
+            if (item != null && item.getDt() != null) count++;
+        }
+
+        ForecastSeries series = new ForecastSeries(count);
+        int i = 0;
+        for (ForecastResponse.ForecastList item : items) {
+            if (item == null || item.getDt() == null) continue;
+            series.epochSeconds[i] = item.getDt();
+
+            ForecastResponse.ForecastList.Main main = item.getMain();
+            series.temp[i] = f(main != null ? main.getTemp() : null);
+            series.feelsLike[i] = f(main != null ? main.getFeelsLike() : null);
+            series.humidity[i] = f(main != null ? main.getHumidity() : null);
+            series.pressure[i] = f(main != null ? main.getPressure() : null);
+
+            ForecastResponse.ForecastList.Wind wind = item.getWind();
+            series.windSpeed[i] = f(wind != null ? wind.getSpeed() : null);
+            series.windDeg[i] = f(wind != null ? wind.getDeg() : null);
+            series.windGust[i] = f(wind != null ? wind.getGust() : null);
+
+            series.pop[i] = f(item.getPop());
+            series.rain3h[i] = f(item.getRain() != null ? item.getRain().get_3h() : null);
+            series.snow3h[i] = f(item.getSnow() != null ? item.getSnow().get_3h() : null);
+            series.clouds[i] = f(item.getClouds() != null ? item.getClouds().getAll() : null);
+
+            List<ForecastResponse.ForecastList.Weather> weather = item.getWeather();
+            if (weather != null && !weather.isEmpty() && weather.get(0) != null) {
+                series.weatherId[i] = weather.get(0).getId();
+                series.weatherMain[i] = weather.get(0).getMain();
+                series.description[i] = weather.get(0).getDescription();
+            }
+            i++;
+        }
+        return series;
+    }
+
+    /**
+     * 주어진 시각(epoch 초)의 예보 값을 앞뒤 예보 단계 사이에서 선형 보간해 반환합니다.
+     * 풍향은 짧은 쪽 호를 따라 보간하고, 날씨 코드/설명은 가까운 단계의 값을 사용합니다.
+     * 첫 단계보다 한 간격(3시간) 이상 이르거나 마지막 단계 이후면 예보 범위 밖이므로 null.
+     */
+    public ForecastConditions at(long epochSecond) {
+        if (size == 0 || epochSecond < epochSeconds[0] - STEP_SECONDS || epochSecond > epochSeconds[size - 1]) {
+            return null;
+        }
+        int i = indexAtOrBefore(epochSecond);
+        int j;
+        double t;
+        if (i < 0) {
+            // 첫 단계 이전 구간은 첫 단계 값으로 유지
+            i = 0;
+            j = 0;
+            t = 0.0;
+        } else if (i == size - 1 || epochSeconds[i] == epochSecond) {
+            j = i;
+            t = 0.0;
+        } else {
+            j = i + 1;
+            t = (double) (epochSecond - epochSeconds[i]) / (epochSeconds[j] - epochSeconds[i]);
+        }
+        int nearest = t < 0.5 ? i : j;
+
+        return new ForecastConditions(
+                epochSecond,
+                lerp(temp, i, j, t),
+                lerp(feelsLike, i, j, t),
+                lerp(humidity, i, j, t),
+                lerp(windSpeed, i, j, t),
+                lerpAngle(windDeg, i, j, t),
+                lerp(windGust, i, j, t),
+                lerpOrZero(rain3h, i, j, t),
+                lerpOrZero(snow3h, i, j, t),
+                lerp(pop, i, j, t),
+                lerp(clouds, i, j, t),
+                weatherId[nearest],
+                weatherMain[nearest],
+                description[nearest]);
+    }
+
+    /** epochSecond 이하인 마지막 단계의 인덱스 (없으면 -1) */
+    public int indexAtOrBefore(long epochSecond) {
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (epochSeconds[mid] <= epochSecond) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /** untilEpochSecond 이전(포함)에 시작하는 단계 수. 최소 1 (예보가 있다면) */
+    public int countUntil(long untilEpochSecond) {
+        if (size == 0) return 0;
+        return Math.max(1, indexAtOrBefore(untilEpochSecond) + 1);
+    }
+
+    public long getFirstEpochSecond() {
+        return size > 0 ? epochSeconds[0] : 0L;
+    }
+
+    public long getLastEpochSecond() {
+        return size > 0 ? epochSeconds[size - 1] : 0L;
+    }
+
+    /** 한쪽 값이 없으면 다른 쪽 값을 사용 */
+    private static double lerp(float[] column, int i, int j, double t) {
+        float a = column[i];
+        float b = column[j];
+        if (Float.isNaN(a)) return b;
+        if (Float.isNaN(b)) return a;
+        return a + (b - a) * t;
+    }
+
+    private static double lerpOrZero(float[] column, int i, int j, double t) {
+        float a = Float.isNaN(column[i]) ? 0f : column[i];
+        float b = Float.isNaN(column[j]) ? 0f : column[j];
+        return a + (b - a) * t;
+    }
+
+    private static double lerpAngle(float[] column, int i, int j, double t) {
+        float a = column[i];
+        float b = column[j];
+        if (Float.isNaN(a)) return b;
+        if (Float.isNaN(b)) return a;
+        double delta = ((b - a) % 360.0 + 540.0) % 360.0 - 180.0; // -180 ~ 180 사이의 짧은 쪽 차이
+        double angle = (a + delta * t) % 360.0;
+        return angle < 0 ? angle + 360.0 : angle;
+    }
+
+    private static float f(Number value) {
+        return value != null ? value.floatValue() : Float.NaN;
+    }
+
+    public static boolean isMissing(float value) {
+        return Float.isNaN(value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getEpochSecond(int step) {
+        return epochSeconds[step];
+    }
+
+    /** 예보 시각을 "yyyy-MM-dd HH:mm" (UTC) 형식으로 반환 (dt_txt 앞 16자리와 동일) */
+    public String getStepText(int step) {
+        return STEP_FORMAT.format(Instant.ofEpochSecond(epochSeconds[step]));
+    }
+
+    public float getTemp(int step) {
+        return temp[step];
+    }
+
+    public float getFeelsLike(int step) {
+        return feelsLike[step];
+    }
+
+    public float getHumidity(int step) {
+        return humidity[step];
+    }
+
+    public float getPressure(int step) {
+        return pressure[step];
+    }
+
+    public float getWindSpeed(int step) {
+        return windSpeed[step];
+    }
+
+    public float getWindDeg(int step) {
+        return windDeg[step];
+    }
+
+    public float getWindGust(int step) {
+        return windGust[step];
+    }
+
+    public float getPop(int step) {
+        return pop[step];
+    }
+
+    public float getRain3h(int step) {
+        return rain3h[step];
+    }
+
+    public float getSnow3h(int step) {
+        return snow3h[step];
+    }
+
+    public float getClouds(int step) {
+        return clouds[step];
+    }
+
+    public int getWeatherId(int step) {
+        return weatherId[step];
+    }
+
+    public String getWeatherMain(int step) {
+        return weatherMain[step];
+    }
+
+    public String getDescription(int step) {
+        return description[step];
+    }
+}
@@ -0,0 +1,264 @@
+package com.dgsw.heckathon.weather;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 예보 응답을 Jackson 스트리밍 파서로 InputStream 에서 바로 읽어 {@link ForecastResponse} 를 만듭니다.
+ * 응답 본문 문자열이나 트리 노드를 만들지 않고, ObjectMapper 로 바인딩했을 때와 같은 DTO 필드를 모두 채웁니다.
+ * (/weather 응답이 파싱 방식에 따라 달라지지 않도록, ForecastResponse 에 필드를 추가하면 여기에도 추가해야 합니다)
+ */
+public class ForecastStreamParser {
+
+    private final JsonFactory jsonFactory;
+
+    public ForecastStreamParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    public ForecastResponse parse(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("예보 응답이 JSON 객체가 아닙니다.");
+            }
+            ForecastResponse response = new ForecastResponse();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) continue;
+                switch (field) {
+                    case "cod" -> response.setCod(parser.getValueAsString());
+                    case "message" -> response.setMessage(parser.getValueAsInt());
+                    case "cnt" -> response.setCnt(parser.getValueAsInt());
+                    case "list" -> response.setList(readList(parser));
+                    case "city" -> response.setCity(readCity(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            return response;
+        }
+    }
+
+    private List<ForecastResponse.ForecastList> readList(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<ForecastResponse.ForecastList> list = new ArrayList<>(40); // 5일 x 8회 = 40개
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                list.add(readItem(parser));
+            } else {
+                parser.skipChildren(); // null 등 객체가 아닌 요소는 건너뛰고 나머지 항목을 계속 읽음
+            }
+        }
+        return list;
+    }
+
+    private ForecastResponse.ForecastList readItem(JsonParser parser) throws IOException {
+        ForecastResponse.ForecastList item = new ForecastResponse.ForecastList();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) continue;
+            switch (field) {
+                case "dt" -> item.setDt(parser.getLongValue());
+                case "dt_txt" -> item.setDtTxt(parser.getText());
+                case "main" -> item.setMain(readMain(parser));
+                case "weather" -> item.setWeather(readWeather(parser));
+                case "clouds" -> item.setClouds(readClouds(parser));
+                case "wind" -> item.setWind(readWind(parser));
+                case "visibility" -> item.setVisibility(parser.getValueAsInt());
+                case "pop" -> item.setPop(parser.getValueAsDouble());
+                case "sys" -> item.setSys(readSys(parser));
+                case "rain" -> {
+                    Double volume = readThreeHourVolume(parser);
+                    if (volume != null) {
+                        ForecastResponse.ForecastList.Rain rain = new ForecastResponse.ForecastList.Rain();
+                        rain.set_3h(volume);
+                        item.setRain(rain);
+                    }
+                }
+                case "snow" -> {
+                    Double volume = readThreeHourVolume(parser);
+                    if (volume != null) {
+                        ForecastResponse.ForecastList.Snow snow = new ForecastResponse.ForecastList.Snow();
+                        snow.set_3h(volume);
+                        item.setSnow(snow);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return item;
+    }
+
+    private ForecastResponse.ForecastList.Main readMain(JsonParser parser) throws IOException {
+        if (!isObject(parser)) return null;
+        ForecastResponse.ForecastList.Main main = new ForecastResponse.ForecastList.Main();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) continue;
+            switch (field) {
+                case "temp" -> main.setTemp(parser.getValueAsDouble());
+                case "feels_like" -> main.setFeelsLike(parser.getValueAsDouble());
+                case "temp_min" -> main.setTempMin(parser.getValueAsDouble());
+                case "temp_max" -> main.setTempMax(parser.getValueAsDouble());
+                case "pressure" -> main.setPressure(parser.getValueAsInt());
+                case "humidity" -> main.setHumidity(parser.getValueAsInt());
+                case "sea_level" -> main.setSeaLevel(parser.getValueAsInt());
+                case "grnd_level" -> main.setGrndLevel(parser.getValueAsInt());
+                case "temp_kf" -> main.setTempKf(parser.getValueAsDouble());
+                default -> parser.skipChildren();
+            }
+        }
+        return main;
+    }
+
+    private List<ForecastResponse.ForecastList.Weather> readWeather(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<ForecastResponse.ForecastList.Weather> weather = new ArrayList<>(1);
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            ForecastResponse.ForecastList.Weather w = new ForecastResponse.ForecastList.Weather();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) continue;
+                switch (field) {
+                    case "id" -> w.setId(parser.getValueAsInt());
+                    case "main" -> w.setMain(parser.getText());
+                    case "description" -> w.setDescription(parser.getText());
+                    case "icon" -> w.setIcon(parser.getText());
+                    default -> parser.skipChildren();
+                }
+            }
+            weather.add(w);
+        }
+        return weather;
+    }
+
+    private ForecastResponse.ForecastList.Clouds readClouds(JsonParser parser) throws IOException {
+        if (!isObject(parser)) return null;
+        ForecastResponse.ForecastList.Clouds clouds = new ForecastResponse.ForecastList.Clouds();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.VALUE_NULL && "all".equals(field)) {
+                clouds.setAll(parser.getValueAsInt());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return clouds;
+    }
+
+    private ForecastResponse.ForecastList.Wind readWind(JsonParser parser) throws IOException {
+        if (!isObject(parser)) return null;
+        ForecastResponse.ForecastList.Wind wind = new ForecastResponse.ForecastList.Wind();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) continue;
+            switch (field) {
+                case "speed" -> wind.setSpeed(parser.getValueAsDouble());
+                case "deg" -> wind.setDeg(parser.getValueAsInt());
+                case "gust" -> wind.setGust(parser.getValueAsDouble());
+                default -> parser.skipChildren();
+            }
+        }
+        return wind;
+    }
+
+    private ForecastResponse.ForecastList.Sys readSys(JsonParser parser) throws IOException {
+        if (!isObject(parser)) return null;
+        ForecastResponse.ForecastList.Sys sys = new ForecastResponse.ForecastList.Sys();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.VALUE_NULL && "pod".equals(field)) {
+                sys.setPod(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return sys;
+    }
+
+    /** rain/snow 객체에서 "3h" 값만 읽음 */
+    private Double readThreeHourVolume(JsonParser parser) throws IOException {
+        if (!isObject(parser)) return null;
+        Double volume = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.VALUE_NULL && "3h".equals(field)) {
+                volume = parser.getValueAsDouble();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return volume;
+    }
+
+    private ForecastResponse.City readCity(JsonParser parser) throws IOException {
+        if (!isObject(parser)) return null;
+        ForecastResponse.City city = new ForecastResponse.City();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) continue;
+            switch (field) {
+                case "id" -> city.setId(parser.getValueAsInt());
+                case "name" -> city.setName(parser.getText());
+                case "country" -> city.setCountry(parser.getText());
+                case "timezone" -> city.setTimezone(parser.getValueAsInt());
+                case "population" -> city.setPopulation(parser.getValueAsLong());
+                case "sunrise" -> city.setSunrise(parser.getValueAsLong());
+                case "sunset" -> city.setSunset(parser.getValueAsLong());
+                case "coord" -> {
+                    ForecastResponse.City.Coord coord = new ForecastResponse.City.Coord();
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String coordField = parser.currentName();
+                        JsonToken coordValue = parser.nextToken();
+                        if (coordValue == JsonToken.VALUE_NULL) continue;
+                        if ("lat".equals(coordField)) {
+                            coord.setLat(parser.getValueAsDouble());
+                        } else if ("lon".equals(coordField)) {
+                            coord.setLon(parser.getValueAsDouble());
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    city.setCoord(coord);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return city;
+    }
+
+    /** 객체가 아닌 값이 오면 건너뛰고 false */
+    private static boolean isObject(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            return true;
+        }
+        parser.skipChildren();
+        return false;
+    }
+}
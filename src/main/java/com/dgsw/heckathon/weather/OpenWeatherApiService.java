@@ -2,6 +2,7 @@ package com.dgsw.heckathon.weather;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,10 +10,24 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class OpenWeatherApiService {
@@ -25,16 +40,158 @@ public class OpenWeatherApiService {
     @Value("${openweathermap.api.base-url}")
     private String baseUrl;  // 예: "https://api.openweathermap.org/data/2.5"
 
+    // 예보 응답을 문자열 없이 InputStream 에서 바로 파싱할지 여부
+    @Value("${weather.forecast.streaming-parse:true}")
+    private boolean streamingForecastParse;
+
+    // 요청 1건당 응답 대기 제한 시간
+    @Value("${weather.api.request-timeout-ms:10000}")
+    private long requestTimeoutMillis;
+
     private final HttpClient httpClient;
+    private final ExecutorService httpExecutor;
     private final ObjectMapper objectMapper;
+    private final WeatherTileCache tileCache;
+    private final WeatherInterpolator interpolator;
+    private final UpstreamRateLimiter rateLimiter;
+    private final ForecastStreamParser forecastStreamParser;
+
+    // 같은 타일에 대한 동시 조회는 하나의 HTTP 호출/역직렬화로 합침
+    private final SingleFlight<Long, CurrentWeatherResponse> currentInFlight = new SingleFlight<>();
+    private final SingleFlight<Long, ForecastResponse> forecastInFlight = new SingleFlight<>();
 
-    public OpenWeatherApiService(ObjectMapper objectMapper) {
-        this.httpClient = HttpClient.newBuilder().build();
+    public OpenWeatherApiService(ObjectMapper objectMapper, WeatherTileCache tileCache,
+                                 WeatherInterpolator interpolator, UpstreamRateLimiter rateLimiter) {
+        // 응답 콜백과 스트리밍 파싱은 HttpClient 전용 스레드에서 처리 (호출자 스레드를 붙잡지 않음)
+        AtomicInteger threadCount = new AtomicInteger();
+        this.httpExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "openweather-http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder().executor(httpExecutor).build();
         this.objectMapper = objectMapper;
         this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.tileCache = tileCache;
+        this.interpolator = interpolator;
+        this.rateLimiter = rateLimiter;
+        this.forecastStreamParser = new ForecastStreamParser(objectMapper.getFactory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpExecutor.shutdownNow();
     }
 
+    /* ---------- 블로킹 API (기존 호출자용 얇은 래퍼) ---------- */
+
     public CurrentWeatherResponse getCurrentWeather(double lat, double lon) {
+        return await(getCurrentWeatherAsync(lat, lon), "현재 날씨");
+    }
+
+    /** allowInterpolation 이 true 면 주변 캐시 타일로 보간할 수 있을 때 업스트림 호출을 생략 */
+    public CurrentWeatherResponse getCurrentWeather(double lat, double lon, boolean allowInterpolation) {
+        return await(getCurrentWeatherAsync(lat, lon, allowInterpolation), "현재 날씨");
+    }
+
+    public ForecastResponse getForecast(double lat, double lon) {
+        return await(getForecastAsync(lat, lon), "예보");
+    }
+
+    /** 예보를 내부 계산용 열 형태로 조회 (실패 시 null) */
+    public ForecastSeries getForecastSeries(double lat, double lon) {
+        ForecastResponse forecast = getForecast(lat, lon);
+        return forecast != null ? ForecastSeries.from(forecast) : null;
+    }
+
+    /**
+     * 예보 범위 안의 임의 시각으로 보간한 기상 조건을 반환합니다.
+     * 이미 받아 둔(캐시된) 예보가 있으면 추가 업스트림 호출 없이 계산합니다.
+     * 예보를 가져오지 못하거나 시각이 예보 범위 밖이면 null.
+     */
+    public ForecastConditions getForecastAt(double lat, double lon, Instant time) {
+        ForecastSeries series = getForecastSeries(lat, lon);
+        return series != null ? series.at(time.getEpochSecond()) : null;
+    }
+
+    /* ---------- 비동기 API ---------- */
+
+    /**
+     * 현재 날씨를 비동기로 조회합니다. 호출 스레드를 점유하지 않으며, 반환된 Future 를 취소하면
+     * (같은 타일을 기다리는 다른 호출자가 없을 때) 진행 중인 HTTP 요청도 취소됩니다.
+     * 업스트림 오류 시에는 기존과 같이 null 로 완료됩니다.
+     */
+    public CompletableFuture<CurrentWeatherResponse> getCurrentWeatherAsync(double lat, double lon) {
+        return getCurrentWeatherAsync(lat, lon, false);
+    }
+
+    /**
+     * allowInterpolation 이 true 이고 요청 타일은 없지만 주변 타일이 충분히 최근에 조회되어 있으면,
+     * 업스트림 호출 대신 공간 보간한 값({@code interpolated = true})을 반환합니다.
+     */
+    public CompletableFuture<CurrentWeatherResponse> getCurrentWeatherAsync(double lat, double lon, boolean allowInterpolation) {
+        // 같은 타일을 최근에 조회했다면 업스트림 호출 없이 캐시에서 반환
+        // 만료 직후(max-stale 이내)라면 이전 값을 먼저 돌려주고 백그라운드에서 갱신
+        WeatherTileCache.CachedTile<CurrentWeatherResponse> cached = tileCache.lookupCurrent(lat, lon);
+        if (cached != null) {
+            if (!cached.isFresh(System.currentTimeMillis())) {
+                refreshCurrent(cached.lat, cached.lon);
+            }
+            return CompletableFuture.completedFuture(cached.value);
+        }
+        if (allowInterpolation) {
+            CurrentWeatherResponse interpolated = interpolator.interpolateCurrent(lat, lon);
+            if (interpolated != null) {
+                return CompletableFuture.completedFuture(interpolated);
+            }
+        }
+
+        return currentInFlight.execute(tileCache.tileKey(lat, lon), () -> fetchCurrentWeather(lat, lon, false));
+    }
+
+    /** 5일/3시간 단위 예보를 비동기로 조회합니다. */
+    public CompletableFuture<ForecastResponse> getForecastAsync(double lat, double lon) {
+        WeatherTileCache.CachedTile<ForecastResponse> cached = tileCache.lookupForecast(lat, lon);
+        if (cached != null) {
+            if (!cached.isFresh(System.currentTimeMillis())) {
+                refreshForecast(cached.lat, cached.lon);
+            }
+            return CompletableFuture.completedFuture(cached.value);
+        }
+
+        return forecastInFlight.execute(tileCache.tileKey(lat, lon), () -> fetchForecast(lat, lon, false));
+    }
+
+    public CompletableFuture<ForecastSeries> getForecastSeriesAsync(double lat, double lon) {
+        return getForecastAsync(lat, lon).thenApply(forecast -> forecast != null ? ForecastSeries.from(forecast) : null);
+    }
+
+    /**
+     * 캐시 상태와 관계없이 타일을 다시 조회해 캐시를 갱신합니다. (백그라운드 갱신용, 결과를 기다리지 않음)
+     * 같은 타일의 조회가 이미 진행 중이면 그 호출에 합쳐집니다.
+     */
+    public CompletableFuture<CurrentWeatherResponse> refreshCurrent(double lat, double lon) {
+        return currentInFlight.execute(tileCache.tileKey(lat, lon), () -> fetchCurrentWeather(lat, lon, true));
+    }
+
+    public CompletableFuture<ForecastResponse> refreshForecast(double lat, double lon) {
+        return forecastInFlight.execute(tileCache.tileKey(lat, lon), () -> fetchForecast(lat, lon, true));
+    }
+
+    /** 동시 호출 병합 카운터 */
+    public Map<String, Object> singleFlightStats() {
+        return Map.of(
+                "current", currentInFlight.stats(),
+                "forecast", forecastInFlight.stats());
+    }
+
+    private CompletableFuture<CurrentWeatherResponse> fetchCurrentWeather(double lat, double lon, boolean revalidate) {
+        // 대기 중 다른 호출이 먼저 채웠을 수 있으므로 한 번 더 확인
+        CurrentWeatherResponse cached = revalidate ? null : tileCache.getCurrent(lat, lon);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
         URI uri = UriComponentsBuilder.fromUriString(baseUrl)
                 .path("/weather")
                 .queryParam("lat", lat)
@@ -46,10 +203,26 @@ public class OpenWeatherApiService {
 
         logger.info("Current Weather API 호출 URI: {}", uri);
 
-        return executeCurrentWeatherApiCall(uri);
+        CompletableFuture<HttpResponse<String>> exchange = send(uri, HttpResponse.BodyHandlers.ofString());
+        CompletableFuture<CurrentWeatherResponse> result = exchange
+                .thenApply(this::handleCurrentWeatherResponse)
+                .thenApply(response -> {
+                    tileCache.putCurrent(lat, lon, response);
+                    return response;
+                })
+                .exceptionally(e -> {
+                    logger.error("현재 날씨 API 호출 중 오류 발생: ", unwrap(e));
+                    return null;
+                });
+        return cancelWith(result, exchange);
     }
 
-    public ForecastResponse getForecast(double lat, double lon) {
+    private CompletableFuture<ForecastResponse> fetchForecast(double lat, double lon, boolean revalidate) {
+        ForecastResponse cached = revalidate ? null : tileCache.getForecast(lat, lon);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
         // OpenWeatherMap의 기본 예보는 5일치 3시간 단위이므로, 별도의 timesteps, startTime, endTime 필요 없음
         URI uri = UriComponentsBuilder.fromUriString(baseUrl)
                 .path("/forecast")
@@ -62,58 +235,148 @@ public class OpenWeatherApiService {
 
         logger.info("Forecast API 호출 URI: {}", uri);
 
-        return executeForecastApiCall(uri);
+        CompletableFuture<?> exchange;
+        CompletableFuture<ForecastResponse> parsed;
+        // 두 경로는 같은 ForecastResponse 를 만들므로 응답 모양은 설정/로그 레벨과 무관
+        if (streamingForecastParse) {
+            CompletableFuture<HttpResponse<InputStream>> streaming = send(uri, HttpResponse.BodyHandlers.ofInputStream());
+            exchange = streaming;
+            parsed = streaming.thenApplyAsync(this::handleStreamingForecastResponse, httpExecutor);
+        } else {
+            CompletableFuture<HttpResponse<String>> buffered = send(uri, HttpResponse.BodyHandlers.ofString());
+            exchange = buffered;
+            parsed = buffered.thenApply(this::handleForecastResponse);
+        }
+
+        CompletableFuture<ForecastResponse> result = parsed
+                .thenApply(response -> {
+                    tileCache.putForecast(lat, lon, response);
+                    return response;
+                })
+                .exceptionally(e -> {
+                    logger.error("예보 API 호출 중 오류 발생: ", unwrap(e));
+                    return null;
+                });
+        return cancelWith(result, exchange);
+    }
+
+    /**
+     * 공용 제한기의 허가를 받은 뒤 요청을 보냅니다. 응답 헤더를 받거나 실패하면 허가를 돌려주고,
+     * 반환된 Future 가 취소되면 대기열에서 빠지거나 진행 중인 요청을 취소합니다.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> send(URI uri, HttpResponse.BodyHandler<T> bodyHandler) {
+        CompletableFuture<UpstreamRateLimiter.Permit> permit = rateLimiter.acquire();
+        AtomicReference<CompletableFuture<HttpResponse<T>>> sent = new AtomicReference<>();
+        CompletableFuture<HttpResponse<T>> exchange = permit.thenCompose(p -> {
+            CompletableFuture<HttpResponse<T>> request = httpClient.sendAsync(newRequest(uri), bodyHandler);
+            sent.set(request);
+            request.whenComplete((response, error) -> {
+                if (response != null) {
+                    p.release(response.statusCode());
+                } else {
+                    p.release(request.isCancelled() ? UpstreamRateLimiter.CANCELLED : UpstreamRateLimiter.FAILED);
+                }
+            });
+            return request;
+        });
+        exchange.whenComplete((response, error) -> {
+            if (!exchange.isCancelled()) {
+                return;
+            }
+            CompletableFuture<HttpResponse<T>> request = sent.get();
+            if (request != null) {
+                request.cancel(true);
+            } else if (!permit.cancel(true) && !permit.isCompletedExceptionally()) {
+                // 허가는 받았지만 요청을 보내기 전에 취소됨
+                permit.join().release(UpstreamRateLimiter.CANCELLED);
+            }
+        });
+        return exchange;
     }
 
-    private CurrentWeatherResponse executeCurrentWeatherApiCall(URI uri) {
-        HttpRequest request = HttpRequest.newBuilder()
+    private HttpRequest newRequest(URI uri) {
+        return HttpRequest.newBuilder()
                 .uri(uri)
+                .timeout(Duration.ofMillis(requestTimeoutMillis))
                 .header("Accept", "application/json")
                 .GET()
                 .build();
+    }
 
-        try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            logger.info("현재 날씨 API 상태 코드: {}", response.statusCode());
-            logger.debug("현재 날씨 API 응답 본문: {}", response.body());
+    private CurrentWeatherResponse handleCurrentWeatherResponse(HttpResponse<String> response) {
+        logger.info("현재 날씨 API 상태 코드: {}", response.statusCode());
+        logger.debug("현재 날씨 API 응답 본문: {}", response.body());
 
-            if (response.statusCode() == 200) {
-                return objectMapper.readValue(response.body(), CurrentWeatherResponse.class);
-            } else {
-                logger.error("현재 날씨 API 호출 실패. 상태 코드: {}, 응답: {}", response.statusCode(), response.body());
-                return null;
-            }
-        } catch (IOException | InterruptedException e) {
-            logger.error("현재 날씨 API 호출 중 오류 발생: ", e);
-            Thread.currentThread().interrupt();
+        if (response.statusCode() != 200) {
+            logger.error("현재 날씨 API 호출 실패. 상태 코드: {}, 응답: {}", response.statusCode(), response.body());
             return null;
         }
+        try {
+            return objectMapper.readValue(response.body(), CurrentWeatherResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private ForecastResponse executeForecastApiCall(URI uri) {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(uri)
-                .header("Accept", "application/json")
-                .GET()
-                .build();
+    private ForecastResponse handleForecastResponse(HttpResponse<String> response) {
+        logger.info("예보 API 상태 코드: {}", response.statusCode());
+        logger.debug("예보 API 응답 본문: {}", response.body());
 
+        if (response.statusCode() != 200) {
+            logger.error("예보 API 호출 실패. 상태 코드: {}, 응답: {}", response.statusCode(), response.body());
+            return null;
+        }
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return objectMapper.readValue(response.body(), ForecastResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            logger.info("예보 API 상태 코드: {}", response.statusCode());
-            logger.debug("예보 API 응답 본문: {}", response.body());
+    private ForecastResponse handleStreamingForecastResponse(HttpResponse<InputStream> response) {
+        logger.info("예보 API 상태 코드: {}", response.statusCode());
 
+        try (InputStream body = response.body()) {
             if (response.statusCode() == 200) {
-                return objectMapper.readValue(response.body(), ForecastResponse.class);
-            } else {
-                logger.error("예보 API 호출 실패. 상태 코드: {}, 응답: {}", response.statusCode(), response.body());
-                return null;
+                ForecastResponse forecast = forecastStreamParser.parse(body);
+                logger.debug("예보 API 응답 (스트리밍 파싱): 예보 단계 {}개", forecast.getList() != null ? forecast.getList().size() : 0);
+                return forecast;
             }
-        } catch (IOException | InterruptedException e) {
-            logger.error("예보 API 호출 중 오류 발생: ", e);
+            String errorBody = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            logger.error("예보 API 호출 실패. 상태 코드: {}, 응답: {}", response.statusCode(), errorBody);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** 결과 Future 가 취소되면 진행 중인 HTTP 교환도 함께 취소 */
+    private static <T> CompletableFuture<T> cancelWith(CompletableFuture<T> result, CompletableFuture<?> exchange) {
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private <T> T await(CompletableFuture<T> future, String label) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
             Thread.currentThread().interrupt();
             return null;
+        } catch (ExecutionException | CancellationException e) {
+            logger.error("{} API 호출 중 오류 발생: ", label, unwrap(e));
+            return null;
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
         }
+        return e;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package com.dgsw.heckathon.weather;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키에 대한 동시 호출을 하나의 실행으로 합치는 in-flight 요청 테이블.
+ * 먼저 들어온 호출(leader)만 실제로 loader 를 실행하고, 실행 중에 들어온 호출들은 그 결과를 함께 받습니다.
+ * 호출자마다 별도의 Future 를 돌려주므로 한 호출자의 취소가 다른 호출자에게 번지지 않으며,
+ * 기다리는 호출자가 모두 취소하면 그때 실제 업스트림 작업을 취소합니다.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Call<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        while (true) {
+            Call<V> existing = inFlight.get(key);
+            if (existing != null) {
+                CompletableFuture<V> waiter = existing.join();
+                if (waiter != null) {
+                    collapsed.incrementAndGet();
+                    return waiter;
+                }
+                // 모든 호출자가 취소해 닫힌 호출이면 새로 시작
+                inFlight.remove(key, existing);
+                continue;
+            }
+
+            Call<V> mine = new Call<>();
+            if (inFlight.putIfAbsent(key, mine) != null) {
+                continue;
+            }
+            executions.incrementAndGet();
+            CompletableFuture<V> waiter = mine.join();
+            mine.shared.whenComplete((value, error) -> {
+                inFlight.remove(key, mine);
+                if (mine.shared.isCancelled()) {
+                    cancelled.incrementAndGet();
+                }
+            });
+
+            CompletableFuture<V> source;
+            try {
+                source = loader.get();
+            } catch (RuntimeException e) {
+                source = CompletableFuture.failedFuture(e);
+            }
+            mine.bind(source);
+            return waiter;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "executions", executions.get(),
+                "collapsed", collapsed.get(),
+                "cancelled", cancelled.get(),
+                "inFlight", inFlight.size());
+    }
+
+    /** 하나의 업스트림 실행과 그 결과를 기다리는 호출자 수 */
+    private static final class Call<V> {
+        final CompletableFuture<V> shared = new CompletableFuture<>();
+        private int waiters;
+        private boolean closed;
+
+        synchronized CompletableFuture<V> join() {
+            if (closed) {
+                return null;
+            }
+            waiters++;
+            CompletableFuture<V> waiter = shared.thenApply(Function.identity());
+            waiter.whenComplete((value, error) -> {
+                if (waiter.isCancelled()) {
+                    leave();
+                }
+            });
+            return waiter;
+        }
+
+        private void leave() {
+            boolean cancelShared;
+            synchronized (this) {
+                cancelShared = --waiters == 0 && !shared.isDone();
+                if (cancelShared) {
+                    closed = true;
+                }
+            }
+            if (cancelShared) {
+                shared.cancel(true);
+            }
+        }
+
+        void bind(CompletableFuture<V> source) {
+            source.whenComplete((value, error) -> {
+                if (error != null) {
+                    shared.completeExceptionally(error);
+                } else {
+                    shared.complete(value);
+                }
+            });
+            shared.whenComplete((value, error) -> {
+                if (shared.isCancelled()) {
+                    source.cancel(true);
+                }
+            });
+        }
+    }
+}
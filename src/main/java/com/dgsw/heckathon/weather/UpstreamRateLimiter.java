@@ -0,0 +1,227 @@
+package com.dgsw.heckathon.weather;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * OpenWeatherMap 호출 앞단의 공용 제한기.
+ * 분당 호출 한도를 지키는 토큰 버킷과, 응답 상태/지연 시간에 따라 늘고 줄어드는 동시 호출 한도(AIMD)를 함께 적용합니다.
+ * 지연이 목표 이내인 성공 응답이 오면 한도를 조금씩 올리고, 429/5xx/네트워크 오류가 오면 절반으로 줄입니다.
+ * 대기 중인 호출은 들어온 순서(FIFO)대로 허가를 받으며, 스레드를 막지 않고 Future 로 기다립니다.
+ */
+@Component
+public class UpstreamRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamRateLimiter.class);
+
+    /** 응답을 받지 못한 경우(타임아웃, 연결 오류 등)의 상태 코드 */
+    public static final int FAILED = -1;
+    /** 호출자가 취소해 결과를 판단할 수 없는 경우 */
+    public static final int CANCELLED = 0;
+
+    private final boolean enabled;
+    private final double tokensPerNano;
+    private final double burst;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long latencyTargetNanos;
+    private final int maxQueue;
+    private final long maxQueueWaitMillis;
+
+    private final ArrayDeque<CompletableFuture<Permit>> queue = new ArrayDeque<>();
+    private final ScheduledExecutorService scheduler;
+
+    // 아래 상태는 모두 this 로 동기화
+    private double tokens;
+    private long lastRefillNanos;
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+    private boolean drainScheduled;
+
+    private long granted;
+    private long rejected;
+    private long throttled;
+    private long failures;
+
+    public UpstreamRateLimiter(@Value("${weather.rate-limit.enabled:true}") boolean enabled,
+                               @Value("${weather.rate-limit.requests-per-minute:60}") double requestsPerMinute,
+                               @Value("${weather.rate-limit.burst:10}") double burst,
+                               @Value("${weather.rate-limit.initial-concurrency:4}") double initialConcurrency,
+                               @Value("${weather.rate-limit.min-concurrency:1}") double minConcurrency,
+                               @Value("${weather.rate-limit.max-concurrency:32}") double maxConcurrency,
+                               @Value("${weather.rate-limit.latency-target-ms:1500}") long latencyTargetMillis,
+                               @Value("${weather.rate-limit.max-queue:1000}") int maxQueue,
+                               @Value("${weather.rate-limit.max-queue-wait-ms:30000}") long maxQueueWaitMillis) {
+        this.enabled = enabled;
+        this.tokensPerNano = requestsPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.burst = Math.max(1.0, burst);
+        this.minLimit = Math.max(1.0, minConcurrency);
+        this.maxLimit = Math.max(this.minLimit, maxConcurrency);
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+        this.maxQueue = maxQueue;
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialConcurrency));
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "openweather-rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 호출 허가를 요청합니다. 토큰과 동시 호출 여유가 생기면 완료되고,
+     * 대기열이 가득 차면 즉시, 대기 시간이 max-queue-wait-ms 를 넘으면 예외로 완료됩니다.
+     * 받은 허가는 반드시 {@link Permit#release(int)} 로 돌려줘야 합니다.
+     * 반환된 Future 를 취소하면 대기열에서 빠집니다.
+     */
+    public CompletableFuture<Permit> acquire() {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(new Permit(System.nanoTime(), false));
+        }
+        CompletableFuture<Permit> waiter = new CompletableFuture<>();
+        synchronized (this) {
+            if (queue.size() >= maxQueue) {
+                rejected++;
+                logger.warn("OpenWeatherMap 호출 대기열이 가득 찼습니다. (대기 {}건)", queue.size());
+                return CompletableFuture.failedFuture(new RejectedExecutionException("OpenWeatherMap 호출 대기열 초과"));
+            }
+            queue.addLast(waiter);
+        }
+        waiter.orTimeout(maxQueueWaitMillis, TimeUnit.MILLISECONDS);
+        // 취소되거나 대기 시간이 지나면 대기열에서 제거
+        waiter.whenComplete((permit, error) -> {
+            if (error != null) {
+                synchronized (this) {
+                    queue.remove(waiter);
+                }
+            }
+        });
+        drain();
+        return waiter;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        refill(System.nanoTime());
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("concurrencyLimit", Math.round(limit * 100) / 100.0);
+        stats.put("inFlight", inFlight);
+        stats.put("queued", queue.size());
+        stats.put("tokens", Math.round(tokens * 100) / 100.0);
+        stats.put("granted", granted);
+        stats.put("rejected", rejected);
+        stats.put("throttled", throttled);
+        stats.put("failures", failures);
+        return stats;
+    }
+
+    /** 토큰과 동시 호출 여유가 허락하는 만큼 대기열 앞에서부터 허가를 내줌 */
+    private void drain() {
+        List<CompletableFuture<Permit>> ready = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (this) {
+            refill(now);
+            while (!queue.isEmpty() && inFlight < (int) limit && tokens >= 1.0) {
+                CompletableFuture<Permit> waiter = queue.pollFirst();
+                if (waiter.isDone()) continue;
+                tokens -= 1.0;
+                inFlight++;
+                granted++;
+                ready.add(waiter);
+            }
+            // 토큰이 모자라 남은 대기자가 있으면 다음 토큰이 찰 시점에 다시 시도
+            if (!queue.isEmpty() && tokens < 1.0 && !drainScheduled && !scheduler.isShutdown()) {
+                long delayNanos = (long) Math.ceil((1.0 - tokens) / tokensPerNano);
+                drainScheduled = true;
+                scheduler.schedule(() -> {
+                    synchronized (this) {
+                        drainScheduled = false;
+                    }
+                    drain();
+                }, delayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        for (CompletableFuture<Permit> waiter : ready) {
+            Permit permit = new Permit(now, true);
+            if (!waiter.complete(permit)) {
+                // 허가 직전에 취소/타임아웃된 경우 자리를 돌려줌
+                permit.release(CANCELLED);
+            }
+        }
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+
+    private void onRelease(int statusCode, long latencyNanos) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            inFlight--;
+            boolean overloaded = statusCode == FAILED || statusCode == 429 || statusCode >= 500;
+            if (overloaded) {
+                failures++;
+                if (statusCode == 429) {
+                    throttled++;
+                    // 업스트림이 한도 초과를 알렸으므로 모아 둔 토큰도 비움
+                    tokens = 0.0;
+                }
+                // 같은 시점에 몰려 온 실패로 한도가 연쇄적으로 줄지 않도록 목표 지연 시간당 한 번만 감소
+                if (now - lastDecreaseNanos >= latencyTargetNanos) {
+                    limit = Math.max(minLimit, limit / 2.0);
+                    lastDecreaseNanos = now;
+                    logger.warn("OpenWeatherMap 응답 이상(상태 {}). 동시 호출 한도를 {} 로 낮춥니다.", statusCode, (int) limit);
+                }
+            } else if (statusCode != CANCELLED && latencyNanos <= latencyTargetNanos && inFlight + 1 >= (int) limit / 2) {
+                // 한도를 실제로 쓰고 있을 때만 천천히 늘림
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+        drain();
+    }
+
+    /** 업스트림 호출 1건에 대한 허가. 응답 상태 코드와 함께 한 번만 돌려줍니다. */
+    public final class Permit {
+        private final long startNanos;
+        private final boolean counted;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos, boolean counted) {
+            this.startNanos = startNanos;
+            this.counted = counted;
+        }
+
+        /** statusCode: HTTP 상태 코드, 응답이 없으면 {@link #FAILED}, 취소면 {@link #CANCELLED} */
+        public void release(int statusCode) {
+            if (counted && released.compareAndSet(false, true)) {
+                onRelease(statusCode, System.nanoTime() - startNanos);
+            }
+        }
+    }
+}
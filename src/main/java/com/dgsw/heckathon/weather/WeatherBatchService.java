@@ -0,0 +1,124 @@
+package com.dgsw.heckathon.weather;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * 여러 좌표의 날씨를 한 번에 조회합니다.
+ * 같은 타일에 속한 좌표는 한 번만 조회하고, 서로 다른 타일은 비동기 API 로 동시에 요청합니다.
+ */
+@Service
+public class WeatherBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherBatchService.class);
+
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_INVALID = "INVALID_COORDINATE";
+    public static final String STATUS_UPSTREAM_ERROR = "UPSTREAM_ERROR";
+    public static final String STATUS_TIMEOUT = "TIMEOUT";
+
+    @Value("${weather.batch.max-points:500}")
+    private int maxPoints;
+
+    @Value("${weather.batch.timeout-ms:15000}")
+    private long timeoutMillis;
+
+    @Value("${weather.interpolation.batch.enabled:false}")
+    private boolean interpolationEnabled;
+
+    private final OpenWeatherApiService openWeatherApiService;
+    private final WeatherTileCache tileCache;
+
+    public WeatherBatchService(OpenWeatherApiService openWeatherApiService, WeatherTileCache tileCache) {
+        this.openWeatherApiService = openWeatherApiService;
+        this.tileCache = tileCache;
+    }
+
+    public int getMaxPoints() {
+        return maxPoints;
+    }
+
+    public BatchWeatherResponse<CurrentWeatherResponse> getCurrentWeather(List<BatchWeatherRequest.Point> points) {
+        return fetch(points, (lat, lon) -> openWeatherApiService.getCurrentWeatherAsync(lat, lon, interpolationEnabled),
+                res -> res.getMain() != null && res.getWeather() != null && !res.getWeather().isEmpty());
+    }
+
+    public BatchWeatherResponse<ForecastResponse> getForecast(List<BatchWeatherRequest.Point> points) {
+        return fetch(points, openWeatherApiService::getForecastAsync,
+                res -> res.getList() != null && !res.getList().isEmpty());
+    }
+
+    private <T> BatchWeatherResponse<T> fetch(List<BatchWeatherRequest.Point> points,
+                                              BiFunction<Double, Double, CompletableFuture<T>> fetcher,
+                                              Predicate<T> isValid) {
+        if (points.size() > maxPoints) {
+            throw new IllegalArgumentException("한 번에 조회할 수 있는 좌표는 최대 " + maxPoints + "개입니다.");
+        }
+
+        /* 1) 타일 단위로 중복 제거 후 동시 요청 */
+        Map<Long, CompletableFuture<T>> byTile = new LinkedHashMap<>();
+        for (BatchWeatherRequest.Point point : points) {
+            if (!isValidCoordinate(point)) continue;
+            byTile.computeIfAbsent(tileCache.tileKey(point.getLat(), point.getLon()),
+                    key -> fetcher.apply(point.getLat(), point.getLon()));
+        }
+
+        /* 2) 전체 제한 시간 안에서 대기 (늦은 타일은 TIMEOUT 처리) */
+        CompletableFuture<Void> all = CompletableFuture.allOf(byTile.values().toArray(new CompletableFuture[0]));
+        try {
+            all.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("배치 날씨 조회 제한 시간 초과 ({}ms). 완료된 타일만 반환합니다.", timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 개별 실패는 아래에서 항목별 상태로 기록
+        }
+
+        /* 3) 요청 순서대로 결과 조립 */
+        List<BatchWeatherResponse.Result<T>> results = new ArrayList<>(points.size());
+        for (BatchWeatherRequest.Point point : points) {
+            results.add(toResult(point, byTile, isValid));
+        }
+        byTile.values().forEach(future -> future.cancel(true)); // 아직 진행 중인 조회는 정리
+
+        return new BatchWeatherResponse<>(results, points.size(), byTile.size(),
+                "배치 날씨 조회 완료 (" + points.size() + "개 좌표, " + byTile.size() + "개 타일)");
+    }
+
+    private <T> BatchWeatherResponse.Result<T> toResult(BatchWeatherRequest.Point point,
+                                                        Map<Long, CompletableFuture<T>> byTile,
+                                                        Predicate<T> isValid) {
+        if (!isValidCoordinate(point)) {
+            return new BatchWeatherResponse.Result<>(point.getLat(), point.getLon(), STATUS_INVALID, null);
+        }
+        CompletableFuture<T> future = byTile.get(tileCache.tileKey(point.getLat(), point.getLon()));
+        if (!future.isDone()) {
+            return new BatchWeatherResponse.Result<>(point.getLat(), point.getLon(), STATUS_TIMEOUT, null);
+        }
+        T data = future.isCompletedExceptionally() ? null : future.join();
+        if (data == null || !isValid.test(data)) {
+            return new BatchWeatherResponse.Result<>(point.getLat(), point.getLon(), STATUS_UPSTREAM_ERROR, null);
+        }
+        return new BatchWeatherResponse.Result<>(point.getLat(), point.getLon(), STATUS_OK, data);
+    }
+
+    private static boolean isValidCoordinate(BatchWeatherRequest.Point point) {
+        return point != null
+                && point.getLat() >= -90.0 && point.getLat() <= 90.0
+                && point.getLon() >= -180.0 && point.getLon() <= 180.0;
+    }
+}
@@ -1,31 +1,56 @@
 package com.dgsw.heckathon.weather;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
 
 @RestController
 public class WeatherController {
 
     private final OpenWeatherApiService openWeatherApiService; // 서비스 주입 변경
+    private final WeatherTileCache weatherTileCache;
+    private final WeatherBatchService weatherBatchService;
+    private final WeatherInterpolator weatherInterpolator;
+    private final UpstreamRateLimiter upstreamRateLimiter;
+    private final WeatherTileRefresher weatherTileRefresher;
 
-    public WeatherController(OpenWeatherApiService openWeatherApiService) {
+    // /current 에서 주변 캐시 타일 보간을 기본으로 허용할지 여부 (요청 파라미터 interpolate 로 덮어쓸 수 있음)
+    @Value("${weather.interpolation.current.enabled:false}")
+    private boolean currentInterpolationEnabled;
+
+    public WeatherController(OpenWeatherApiService openWeatherApiService, WeatherTileCache weatherTileCache,
+                             WeatherBatchService weatherBatchService, WeatherInterpolator weatherInterpolator,
+                             UpstreamRateLimiter upstreamRateLimiter, WeatherTileRefresher weatherTileRefresher) {
         this.openWeatherApiService = openWeatherApiService;
+        this.weatherTileCache = weatherTileCache;
+        this.weatherBatchService = weatherBatchService;
+        this.weatherInterpolator = weatherInterpolator;
+        this.upstreamRateLimiter = upstreamRateLimiter;
+        this.weatherTileRefresher = weatherTileRefresher;
     }
 
     /* ---------- 실시간(현재) 날씨 ---------- */
     @GetMapping("/current")
     public ResponseEntity<CurrentWeatherResponse> getCurrentWeather(
             @RequestParam double lat,
-            @RequestParam double lon) {
+            @RequestParam double lon,
+            @RequestParam(required = false) Boolean interpolate) {
 
-        CurrentWeatherResponse res = openWeatherApiService.getCurrentWeather(lat, lon);
+        boolean allowInterpolation = interpolate != null ? interpolate : currentInterpolationEnabled;
+        CurrentWeatherResponse res = openWeatherApiService.getCurrentWeather(lat, lon, allowInterpolation);
 
         // OpenWeatherMap 응답 구조에 맞게 null 체크
         if (res != null && res.getMain() != null && res.getWeather() != null && !res.getWeather().isEmpty()) {
@@ -50,4 +75,79 @@ public class WeatherController {
         }
         return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
     }
-}
\ No newline at end of file
+
+    /* ---------- 임의 시각으로 보간한 예보 ---------- */
+    @GetMapping("/weather/at")
+    public ResponseEntity<ForecastConditions> getForecastAt(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) String time) { // ISO-8601 (예: 2025-07-16T09:30:00Z), 생략 시 현재
+
+        Instant instant;
+        try {
+            instant = time != null ? Instant.parse(time) : Instant.now();
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ForecastSeries series = openWeatherApiService.getForecastSeries(lat, lon);
+        if (series == null || series.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+        ForecastConditions conditions = series.at(instant.getEpochSecond());
+        if (conditions == null) {
+            // 5일 예보 범위 밖의 시각
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(conditions);
+    }
+
+    /* ---------- 여러 좌표 현재 날씨 일괄 조회 ---------- */
+    @PostMapping("/current/batch")
+    public ResponseEntity<BatchWeatherResponse<CurrentWeatherResponse>> getCurrentWeatherBatch(
+            @RequestBody BatchWeatherRequest request) {
+
+        String error = validateBatchRequest(request);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(new BatchWeatherResponse<>(null, 0, 0, error));
+        }
+        return ResponseEntity.ok(weatherBatchService.getCurrentWeather(request.getPoints()));
+    }
+
+    /* ---------- 여러 좌표 예보 일괄 조회 ---------- */
+    @PostMapping("/weather/batch")
+    public ResponseEntity<BatchWeatherResponse<ForecastResponse>> getHourlyForecastBatch(
+            @RequestBody BatchWeatherRequest request) {
+
+        String error = validateBatchRequest(request);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(new BatchWeatherResponse<>(null, 0, 0, error));
+        }
+        return ResponseEntity.ok(weatherBatchService.getForecast(request.getPoints()));
+    }
+
+    private String validateBatchRequest(BatchWeatherRequest request) {
+        if (request == null || request.getPoints() == null || request.getPoints().isEmpty()) {
+            return "조회할 좌표(points)가 없습니다.";
+        }
+        if (request.getPoints().contains(null)) {
+            return "points 에 비어 있는 항목이 있습니다.";
+        }
+        if (request.getPoints().size() > weatherBatchService.getMaxPoints()) {
+            return "한 번에 조회할 수 있는 좌표는 최대 " + weatherBatchService.getMaxPoints() + "개입니다.";
+        }
+        return null;
+    }
+
+    /* ---------- 날씨 캐시 / 호출 병합 / 호출 제한 상태 ---------- */
+    @GetMapping("/weather/stats")
+    public ResponseEntity<Map<String, Object>> getWeatherStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("cache", weatherTileCache.stats());
+        response.put("singleFlight", openWeatherApiService.singleFlightStats());
+        response.put("interpolation", weatherInterpolator.stats());
+        response.put("rateLimit", upstreamRateLimiter.stats());
+        response.put("refresh", weatherTileRefresher.stats());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,189 @@
+package com.dgsw.heckathon.weather;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 캐시에 남아 있는 주변 격자(타일) 값으로 현재 날씨를 역거리 가중(IDW) 보간합니다.
+ * 충분히 최근에 조회된 이웃이 모자라면 null 을 반환하고, 호출자는 실제 업스트림 조회로 넘어갑니다.
+ */
+@Component
+public class WeatherInterpolator {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final WeatherTileCache tileCache;
+    private final int radiusTiles;
+    private final int minNeighbours;
+    private final long maxAgeMillis;
+    private final double maxDistanceKm;
+
+    private final AtomicLong interpolated = new AtomicLong();
+    private final AtomicLong insufficient = new AtomicLong();
+
+    public WeatherInterpolator(WeatherTileCache tileCache,
+                               @Value("${weather.interpolation.radius-tiles:1}") int radiusTiles,
+                               @Value("${weather.interpolation.min-neighbours:3}") int minNeighbours,
+                               @Value("${weather.interpolation.max-age-seconds:900}") long maxAgeSeconds,
+                               @Value("${weather.interpolation.max-distance-km:50}") double maxDistanceKm) {
+        this.tileCache = tileCache;
+        this.radiusTiles = radiusTiles;
+        this.minNeighbours = Math.max(1, minNeighbours);
+        this.maxAgeMillis = maxAgeSeconds * 1000L;
+        this.maxDistanceKm = maxDistanceKm;
+    }
+
+    public CurrentWeatherResponse interpolateCurrent(double lat, double lon) {
+        List<WeatherTileCache.CachedTile<CurrentWeatherResponse>> candidates =
+                tileCache.currentNeighbours(lat, lon, radiusTiles, maxAgeMillis);
+
+        int count = 0;
+        double[] weights = new double[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            WeatherTileCache.CachedTile<CurrentWeatherResponse> tile = candidates.get(i);
+            double distance = distanceKm(lat, lon, tile.lat, tile.lon);
+            if (distance > maxDistanceKm || tile.value.getMain() == null) continue;
+            weights[i] = 1.0 / Math.max(distance * distance, 1e-6);
+            count++;
+        }
+        if (count < minNeighbours) {
+            insufficient.incrementAndGet();
+            return null;
+        }
+
+        CurrentWeatherResponse result = blend(lat, lon, candidates, weights);
+        interpolated.incrementAndGet();
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "interpolated", interpolated.get(),
+                "insufficientNeighbours", insufficient.get());
+    }
+
+    private CurrentWeatherResponse blend(double lat, double lon,
+                                         List<WeatherTileCache.CachedTile<CurrentWeatherResponse>> tiles,
+                                         double[] weights) {
+        // 범주형 값(날씨 코드, 지명 등)은 가장 가중치가 큰(가까운) 이웃에서 가져옴
+        int nearest = 0;
+        for (int i = 1; i < weights.length; i++) {
+            if (weights[i] > weights[nearest]) nearest = i;
+        }
+        CurrentWeatherResponse base = tiles.get(nearest).value;
+
+        CurrentWeatherResponse result = new CurrentWeatherResponse();
+        CurrentWeatherResponse.Coord coord = new CurrentWeatherResponse.Coord();
+        coord.setLat(lat);
+        coord.setLon(lon);
+        result.setCoord(coord);
+        result.setWeather(base.getWeather());
+        result.setBase(base.getBase());
+        result.setSys(base.getSys());
+        result.setTimezone(base.getTimezone());
+        result.setName(base.getName());
+        result.setCod(base.getCod());
+        result.setInterpolated(true);
+
+        long oldestDt = Long.MAX_VALUE;
+        double temp = 0, feelsLike = 0, tempMin = 0, tempMax = 0, pressure = 0, humidity = 0;
+        double tempW = 0, feelsLikeW = 0, tempMinW = 0, tempMaxW = 0, pressureW = 0, humidityW = 0;
+        double windSpeed = 0, windSpeedW = 0, gust = 0, gustW = 0, windU = 0, windV = 0, windDirW = 0;
+        double clouds = 0, cloudsW = 0, rain = 0, snow = 0, total = 0;
+
+        for (int i = 0; i < weights.length; i++) {
+            double w = weights[i];
+            if (w == 0) continue;
+            CurrentWeatherResponse value = tiles.get(i).value;
+            total += w;
+            if (value.getDt() > 0) oldestDt = Math.min(oldestDt, value.getDt());
+
+            CurrentWeatherResponse.Main main = value.getMain();
+            if (main.getTemp() != null) { temp += w * main.getTemp(); tempW += w; }
+            if (main.getFeelsLike() != null) { feelsLike += w * main.getFeelsLike(); feelsLikeW += w; }
+            if (main.getTempMin() != null) { tempMin += w * main.getTempMin(); tempMinW += w; }
+            if (main.getTempMax() != null) { tempMax += w * main.getTempMax(); tempMaxW += w; }
+            if (main.getPressure() != null) { pressure += w * main.getPressure(); pressureW += w; }
+            if (main.getHumidity() != null) { humidity += w * main.getHumidity(); humidityW += w; }
+
+            CurrentWeatherResponse.Wind wind = value.getWind();
+            if (wind != null) {
+                if (wind.getSpeed() != null) { windSpeed += w * wind.getSpeed(); windSpeedW += w; }
+                if (wind.getGust() != null) { gust += w * wind.getGust(); gustW += w; }
+                if (wind.getDeg() != null) {
+                    // 풍향은 단위 벡터로 평균 (350°와 10°의 평균이 180°가 되지 않도록)
+                    double rad = Math.toRadians(wind.getDeg());
+                    windU += w * Math.sin(rad);
+                    windV += w * Math.cos(rad);
+                    windDirW += w;
+                }
+            }
+            if (value.getClouds() != null && value.getClouds().getAll() != null) {
+                clouds += w * value.getClouds().getAll();
+                cloudsW += w;
+            }
+            // 비/눈이 없으면 OpenWeatherMap 이 필드를 생략하므로 0 으로 취급
+            if (value.getRain() != null && value.getRain().get_1h() != null) rain += w * value.getRain().get_1h();
+            if (value.getSnow() != null && value.getSnow().get_1h() != null) snow += w * value.getSnow().get_1h();
+        }
+
+        result.setDt(oldestDt == Long.MAX_VALUE ? 0L : oldestDt);
+
+        CurrentWeatherResponse.Main main = new CurrentWeatherResponse.Main();
+        main.setTemp(avg(temp, tempW));
+        main.setFeelsLike(avg(feelsLike, feelsLikeW));
+        main.setTempMin(avg(tempMin, tempMinW));
+        main.setTempMax(avg(tempMax, tempMaxW));
+        main.setPressure(round(avg(pressure, pressureW)));
+        main.setHumidity(round(avg(humidity, humidityW)));
+        result.setMain(main);
+
+        if (windSpeedW > 0 || windDirW > 0) {
+            CurrentWeatherResponse.Wind wind = new CurrentWeatherResponse.Wind();
+            wind.setSpeed(avg(windSpeed, windSpeedW));
+            wind.setGust(avg(gust, gustW));
+            if (windDirW > 0) {
+                double deg = Math.toDegrees(Math.atan2(windU, windV));
+                wind.setDeg((int) Math.round(deg < 0 ? deg + 360.0 : deg) % 360);
+            }
+            result.setWind(wind);
+        }
+        if (cloudsW > 0) {
+            CurrentWeatherResponse.Clouds cloudsValue = new CurrentWeatherResponse.Clouds();
+            cloudsValue.setAll(round(clouds / cloudsW));
+            result.setClouds(cloudsValue);
+        }
+        if (rain > 0) {
+            CurrentWeatherResponse.Rain rainValue = new CurrentWeatherResponse.Rain();
+            rainValue.set_1h(rain / total);
+            result.setRain(rainValue);
+        }
+        if (snow > 0) {
+            CurrentWeatherResponse.Snow snowValue = new CurrentWeatherResponse.Snow();
+            snowValue.set_1h(snow / total);
+            result.setSnow(snowValue);
+        }
+        return result;
+    }
+
+    private static Double avg(double sum, double weight) {
+        return weight > 0 ? sum / weight : null;
+    }
+
+    private static Integer round(Double value) {
+        return value != null ? (int) Math.round(value) : null;
+    }
+
+    /** 하버사인 거리 (km) */
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
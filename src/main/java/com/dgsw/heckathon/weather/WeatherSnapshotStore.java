@@ -0,0 +1,261 @@
+package com.dgsw.heckathon.weather;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 조회한 현재 날씨/예보 타일을 로컬 디스크의 append-only 파일(NDJSON)에 기록하고,
+ * 재시작 시 아직 만료되지 않은 타일을 캐시에 다시 채워 넣습니다. (외부 DB 불필요)
+ * 한 줄이 하나의 타일이며, 같은 타일은 뒤에 기록된 줄이 앞의 줄을 덮어씁니다.
+ * 작업 디렉터리에 파일을 만들므로 기본값은 꺼짐이고, weather.snapshot.enabled=true 일 때만 동작합니다.
+ * 줄마다 디스크로 내보내지 않고 flush-interval-ms 마다 모아서 내보내므로, 비정상 종료 시 그 사이의 타일만 잃습니다.
+ */
+@Component
+public class WeatherSnapshotStore implements WeatherTileCache.TileListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherSnapshotStore.class);
+
+    private static final String KIND_CURRENT = "current";
+    private static final String KIND_FORECAST = "forecast";
+
+    private final WeatherTileCache tileCache;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path path;
+    private final long compactThresholdBytes;
+    private final long flushIntervalMillis;
+
+    // 아래 필드는 모두 writer 스레드에서만 다룸
+    private ScheduledExecutorService writer;
+    private BufferedWriter out;
+    private long appendedBytes;
+    private boolean unflushed;
+
+    public WeatherSnapshotStore(WeatherTileCache tileCache, ObjectMapper objectMapper,
+                                @Value("${weather.snapshot.enabled:false}") boolean enabled,
+                                @Value("${weather.snapshot.path:data/weather-snapshots.ndjson}") String path,
+                                @Value("${weather.snapshot.compact-threshold-bytes:67108864}") long compactThresholdBytes,
+                                @Value("${weather.snapshot.flush-interval-ms:1000}") long flushIntervalMillis) {
+        this.tileCache = tileCache;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled && tileCache.isEnabled();
+        this.path = Paths.get(path);
+        this.compactThresholdBytes = compactThresholdBytes;
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            int restored = load();
+            // 만료된 줄을 정리한 뒤 이어서 기록
+            compact();
+            logger.info("날씨 스냅샷 {}개 타일 복원 완료: {}", restored, path.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("날씨 스냅샷을 불러오지 못했습니다. 빈 캐시로 시작합니다: {}", e.getMessage());
+        }
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weather-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        tileCache.addListener(this);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeWriter();
+    }
+
+    @Override
+    public void onCurrentStored(WeatherTileCache.CachedTile<CurrentWeatherResponse> tile) {
+        append(KIND_CURRENT, tile);
+    }
+
+    @Override
+    public void onForecastStored(WeatherTileCache.CachedTile<ForecastResponse> tile) {
+        append(KIND_FORECAST, tile);
+    }
+
+    /* ---------- 기록 (전용 스레드에서 순차 처리) ---------- */
+
+    private void append(String kind, WeatherTileCache.CachedTile<?> tile) {
+        if (writer == null || writer.isShutdown()) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                if (out == null) {
+                    out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                String line = toLine(kind, tile);
+                out.write(line);
+                out.newLine();
+                unflushed = true;
+                appendedBytes += lineBytes(line);
+                if (appendedBytes > compactThresholdBytes) {
+                    closeWriter();
+                    compact();
+                }
+            } catch (IOException e) {
+                logger.warn("날씨 스냅샷 기록 실패: {}", e.getMessage());
+                closeWriter();
+            }
+        });
+    }
+
+    /** 모아 둔 줄을 디스크로 내보냄 (writer 스레드에서 주기적으로 실행) */
+    private void flush() {
+        if (out == null || !unflushed) {
+            return;
+        }
+        try {
+            out.flush();
+            unflushed = false;
+        } catch (IOException e) {
+            logger.warn("날씨 스냅샷 기록 실패: {}", e.getMessage());
+            closeWriter();
+        }
+    }
+
+    /** 파일에 기록되는 바이트 수 (UTF-8 본문 + 줄바꿈) */
+    private static long lineBytes(String line) {
+        return line.getBytes(StandardCharsets.UTF_8).length + System.lineSeparator().length();
+    }
+
+    private String toLine(String kind, WeatherTileCache.CachedTile<?> tile) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("kind", kind);
+        node.put("lat", tile.lat);
+        node.put("lon", tile.lon);
+        node.put("fetchedAt", tile.fetchedAtMillis);
+        node.put("expiresAt", tile.expiresAtMillis);
+        node.set("payload", objectMapper.valueToTree(tile.value));
+        return objectMapper.writeValueAsString(node);
+    }
+
+    private void closeWriter() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.debug("날씨 스냅샷 파일 닫기 실패: {}", e.getMessage());
+            }
+            out = null;
+            unflushed = false;
+        }
+    }
+
+    /* ---------- 복원 / 정리 ---------- */
+
+    private int load() throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        // 같은 타일은 마지막 줄만 유효
+        Map<String, JsonNode> latest = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    continue; // 비정상 종료로 잘린 마지막 줄 등은 건너뜀
+                }
+                if (node.path("expiresAt").asLong() <= now) continue;
+                String kind = node.path("kind").asText();
+                long key = tileCache.tileKey(node.path("lat").asDouble(), node.path("lon").asDouble());
+                latest.put(kind + ":" + key, node);
+            }
+        }
+
+        int restored = 0;
+        for (JsonNode node : latest.values()) {
+            double lat = node.path("lat").asDouble();
+            double lon = node.path("lon").asDouble();
+            long fetchedAt = node.path("fetchedAt").asLong();
+            long expiresAt = node.path("expiresAt").asLong();
+            try {
+                if (KIND_CURRENT.equals(node.path("kind").asText())) {
+                    CurrentWeatherResponse value = objectMapper.treeToValue(node.path("payload"), CurrentWeatherResponse.class);
+                    tileCache.restoreCurrent(new WeatherTileCache.CachedTile<>(value, lat, lon, fetchedAt, expiresAt));
+                } else {
+                    ForecastResponse value = objectMapper.treeToValue(node.path("payload"), ForecastResponse.class);
+                    tileCache.restoreForecast(new WeatherTileCache.CachedTile<>(value, lat, lon, fetchedAt, expiresAt));
+                }
+                restored++;
+            } catch (IOException e) {
+                logger.debug("날씨 스냅샷 항목 복원 실패: {}", e.getMessage());
+            }
+        }
+        return restored;
+    }
+
+    /** 현재 캐시에 살아 있는 타일만 임시 파일에 기록한 뒤 원자적으로 교체 */
+    private void compact() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        long written = 0;
+        try (BufferedWriter compacted = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            List<WeatherTileCache.CachedTile<CurrentWeatherResponse>> current = tileCache.liveCurrentTiles();
+            for (WeatherTileCache.CachedTile<CurrentWeatherResponse> tile : current) {
+                String line = toLine(KIND_CURRENT, tile);
+                compacted.write(line);
+                compacted.newLine();
+                written += lineBytes(line);
+            }
+            List<WeatherTileCache.CachedTile<ForecastResponse>> forecast = tileCache.liveForecastTiles();
+            for (WeatherTileCache.CachedTile<ForecastResponse> tile : forecast) {
+                String line = toLine(KIND_FORECAST, tile);
+                compacted.write(line);
+                compacted.newLine();
+                written += lineBytes(line);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appendedBytes = written;
+    }
+}
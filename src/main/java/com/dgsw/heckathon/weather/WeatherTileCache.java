@@ -0,0 +1,381 @@
+package com.dgsw.heckathon.weather;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 위도/경도 타일 단위로 OpenWeatherMap 응답을 보관하는 프로세스 내 캐시.
+ * 현재 날씨와 예보는 TTL 을 따로 두고, 항목 수가 상한을 넘으면 가장 오래 사용되지 않은 타일부터 제거합니다.
+ * 타일별 만료 시각은 응답의 dt(관측/예보 기준 시각)를 따라가도록 계산합니다.
+ * 만료 후에도 max-stale 범위 안에서는 항목을 지우지 않고 남겨 두어, 백그라운드 갱신 동안 이전 값을 내줄 수 있게 합니다.
+ */
+@Component
+public class WeatherTileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherTileCache.class);
+
+    private final boolean enabled;
+    private final double resolutionDegrees;
+    private final long currentTtlMillis;
+    private final long forecastTtlMillis;
+    private final long minTtlMillis;
+    private final long maxStaleMillis;
+
+    private final TileStore<CurrentWeatherResponse> currentStore;
+    private final TileStore<ForecastResponse> forecastStore;
+
+    // 새 타일이 저장될 때 알림을 받는 리스너 (스냅샷 저장소 등)
+    private final List<TileListener> listeners = new CopyOnWriteArrayList<>();
+
+    public WeatherTileCache(@Value("${weather.cache.enabled:true}") boolean enabled,
+                            @Value("${weather.cache.resolution-degrees:0.25}") double resolutionDegrees,
+                            @Value("${weather.cache.current-ttl-seconds:600}") long currentTtlSeconds,
+                            @Value("${weather.cache.forecast-ttl-seconds:3600}") long forecastTtlSeconds,
+                            @Value("${weather.cache.min-ttl-seconds:60}") long minTtlSeconds,
+                            @Value("${weather.cache.max-entries:5000}") int maxEntries,
+                            @Value("${weather.cache.max-stale-seconds:120}") long maxStaleSeconds) {
+        if (resolutionDegrees <= 0) {
+            throw new IllegalArgumentException("weather.cache.resolution-degrees 는 0보다 커야 합니다: " + resolutionDegrees);
+        }
+        this.enabled = enabled;
+        this.resolutionDegrees = resolutionDegrees;
+        this.currentTtlMillis = currentTtlSeconds * 1000L;
+        this.forecastTtlMillis = forecastTtlSeconds * 1000L;
+        this.minTtlMillis = Math.min(minTtlSeconds * 1000L, Math.min(currentTtlMillis, forecastTtlMillis));
+        this.maxStaleMillis = Math.max(0L, maxStaleSeconds * 1000L);
+        this.currentStore = new TileStore<>(maxEntries, maxStaleMillis);
+        this.forecastStore = new TileStore<>(maxEntries, maxStaleMillis);
+        logger.info("날씨 타일 캐시 설정: enabled={}, resolution={}°, currentTtl={}s, forecastTtl={}s, maxStale={}s, maxEntries={}",
+                enabled, resolutionDegrees, currentTtlSeconds, forecastTtlSeconds, maxStaleSeconds, maxEntries);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getResolutionDegrees() {
+        return resolutionDegrees;
+    }
+
+    public long tileKey(double lat, double lon) {
+        return WeatherTiles.tileKey(lat, lon, resolutionDegrees);
+    }
+
+    /* ---------- 현재 날씨 ---------- */
+
+    public CurrentWeatherResponse getCurrent(double lat, double lon) {
+        if (!enabled) return null;
+        return currentStore.get(tileKey(lat, lon), System.currentTimeMillis());
+    }
+
+    /** 신선한 현재 날씨 항목이 있는지 여부 (적중/미스 통계와 조회 횟수에 반영하지 않음, 호출 비용 추정용) */
+    public boolean containsCurrent(double lat, double lon) {
+        return enabled && currentStore.peek(tileKey(lat, lon), System.currentTimeMillis()) != null;
+    }
+
+    /** 만료됐더라도 max-stale 범위 안이면 항목을 반환합니다. 신선도는 {@link CachedTile#isFresh(long)} 로 확인 */
+    CachedTile<CurrentWeatherResponse> lookupCurrent(double lat, double lon) {
+        if (!enabled) return null;
+        return currentStore.lookup(tileKey(lat, lon), System.currentTimeMillis());
+    }
+
+    public void putCurrent(double lat, double lon, CurrentWeatherResponse response) {
+        if (!enabled || response == null) return;
+        long now = System.currentTimeMillis();
+        long expiresAt = expiryFor(response.getDt(), currentTtlMillis, now);
+        CachedTile<CurrentWeatherResponse> tile = new CachedTile<>(response, lat, lon, now, expiresAt);
+        currentStore.put(tileKey(lat, lon), tile);
+        listeners.forEach(listener -> listener.onCurrentStored(tile));
+    }
+
+    /* ---------- 예보 ---------- */
+
+    public ForecastResponse getForecast(double lat, double lon) {
+        if (!enabled) return null;
+        return forecastStore.get(tileKey(lat, lon), System.currentTimeMillis());
+    }
+
+    CachedTile<ForecastResponse> lookupForecast(double lat, double lon) {
+        if (!enabled) return null;
+        return forecastStore.lookup(tileKey(lat, lon), System.currentTimeMillis());
+    }
+
+    public void putForecast(double lat, double lon, ForecastResponse response) {
+        if (!enabled || response == null) return;
+        long now = System.currentTimeMillis();
+        long expiresAt = expiryFor(firstSlotEpochSeconds(response), forecastTtlMillis, now);
+        CachedTile<ForecastResponse> tile = new CachedTile<>(response, lat, lon, now, expiresAt);
+        forecastStore.put(tileKey(lat, lon), tile);
+        listeners.forEach(listener -> listener.onForecastStored(tile));
+    }
+
+    /* ---------- 스냅샷 복원 / 덤프 ---------- */
+
+    void addListener(TileListener listener) {
+        listeners.add(listener);
+    }
+
+    /** 저장 당시의 조회/만료 시각을 그대로 유지해 복원 (리스너에는 알리지 않음). 이미 만료됐으면 무시 */
+    void restoreCurrent(CachedTile<CurrentWeatherResponse> tile) {
+        if (enabled && tile.expiresAtMillis > System.currentTimeMillis()) {
+            currentStore.put(tileKey(tile.lat, tile.lon), tile);
+        }
+    }
+
+    void restoreForecast(CachedTile<ForecastResponse> tile) {
+        if (enabled && tile.expiresAtMillis > System.currentTimeMillis()) {
+            forecastStore.put(tileKey(tile.lat, tile.lon), tile);
+        }
+    }
+
+    List<CachedTile<CurrentWeatherResponse>> liveCurrentTiles() {
+        return currentStore.live(System.currentTimeMillis());
+    }
+
+    List<CachedTile<ForecastResponse>> liveForecastTiles() {
+        return forecastStore.live(System.currentTimeMillis());
+    }
+
+    /* ---------- 자주 조회되는 타일 (미리 갱신용) ---------- */
+
+    /** 조회 횟수가 minAccesses 이상이고 aheadMillis 안에 만료되는(또는 이미 만료된) 현재 날씨 타일, 조회가 많은 순 */
+    List<CachedTile<CurrentWeatherResponse>> hotCurrentTiles(int minAccesses, long aheadMillis) {
+        return currentStore.hot(minAccesses, aheadMillis, System.currentTimeMillis());
+    }
+
+    List<CachedTile<ForecastResponse>> hotForecastTiles(int minAccesses, long aheadMillis) {
+        return forecastStore.hot(minAccesses, aheadMillis, System.currentTimeMillis());
+    }
+
+    /** 타일별 조회 횟수를 절반으로 줄여 최근 조회가 더 큰 비중을 갖게 함 */
+    void decayAccesses() {
+        currentStore.decay();
+        forecastStore.decay();
+    }
+
+    /**
+     * (lat, lon) 이 속한 타일 주변 radiusTiles 범위의 이웃 타일 중, 저장된 지 maxAgeMillis 이내인 현재 날씨 항목.
+     * 요청 좌표가 속한 타일 자체는 제외합니다. (공간 보간용)
+     */
+    List<CachedTile<CurrentWeatherResponse>> currentNeighbours(double lat, double lon, int radiusTiles, long maxAgeMillis) {
+        List<CachedTile<CurrentWeatherResponse>> neighbours = new ArrayList<>();
+        if (!enabled) return neighbours;
+        long now = System.currentTimeMillis();
+        int row = WeatherTiles.row(lat, resolutionDegrees);
+        int col = WeatherTiles.col(lon, resolutionDegrees);
+        int rows = WeatherTiles.rows(resolutionDegrees);
+        int cols = WeatherTiles.cols(resolutionDegrees);
+        for (int dr = -radiusTiles; dr <= radiusTiles; dr++) {
+            int r = row + dr;
+            if (r < 0 || r >= rows) continue;
+            for (int dc = -radiusTiles; dc <= radiusTiles; dc++) {
+                if (dr == 0 && dc == 0) continue;
+                int c = Math.floorMod(col + dc, cols); // 날짜변경선 너머 타일도 이웃으로 취급
+                CachedTile<CurrentWeatherResponse> tile = currentStore.peek(WeatherTiles.key(r, c), now);
+                if (tile != null && now - tile.fetchedAtMillis <= maxAgeMillis) {
+                    neighbours.add(tile);
+                }
+            }
+        }
+        return neighbours;
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "enabled", enabled,
+                "resolutionDegrees", resolutionDegrees,
+                "maxStaleSeconds", maxStaleMillis / 1000,
+                "current", currentStore.stats(),
+                "forecast", forecastStore.stats());
+    }
+
+    /**
+     * 응답의 기준 시각(dt)에 TTL 을 더한 시각을 만료 시각으로 사용합니다.
+     * 이미 오래된 관측값이라도 최소 TTL 은 보장하고, 저장 시점 기준 TTL 을 넘지는 않도록 제한합니다.
+     */
+    long expiryFor(long observedEpochSeconds, long ttlMillis, long now) {
+        if (observedEpochSeconds <= 0) {
+            return now + ttlMillis;
+        }
+        long byObservation = observedEpochSeconds * 1000L + ttlMillis;
+        return Math.max(now + minTtlMillis, Math.min(byObservation, now + ttlMillis));
+    }
+
+    private static long firstSlotEpochSeconds(ForecastResponse response) {
+        List<ForecastResponse.ForecastList> list = response.getList();
+        if (list == null || list.isEmpty() || list.get(0).getDt() == null) {
+            return 0L;
+        }
+        return list.get(0).getDt();
+    }
+
+    interface TileListener {
+        void onCurrentStored(CachedTile<CurrentWeatherResponse> tile);
+
+        void onForecastStored(CachedTile<ForecastResponse> tile);
+    }
+
+    /** 캐시 항목 (값 + 실제 조회 좌표 + 저장/만료 시각) */
+    static final class CachedTile<T> {
+        final T value;
+        final double lat;
+        final double lon;
+        final long fetchedAtMillis;
+        final long expiresAtMillis;
+        // 같은 타일이 새로 저장돼도 이어지는 조회 횟수 (주기적으로 절반씩 감소)
+        final AtomicInteger accesses = new AtomicInteger();
+
+        CachedTile(T value, double lat, double lon, long fetchedAtMillis, long expiresAtMillis) {
+            this.value = value;
+            this.lat = lat;
+            this.lon = lon;
+            this.fetchedAtMillis = fetchedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean isFresh(long now) {
+            return expiresAtMillis > now;
+        }
+    }
+
+    /** 접근 순서 LinkedHashMap 기반의 크기 제한 LRU 저장소 */
+    private static final class TileStore<T> {
+        private final int maxEntries;
+        private final long maxStaleMillis;
+        private final LinkedHashMap<Long, CachedTile<T>> tiles;
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong staleHits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        TileStore(int maxEntries, long maxStaleMillis) {
+            this.maxEntries = maxEntries;
+            this.maxStaleMillis = maxStaleMillis;
+            this.tiles = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CachedTile<T>> eldest) {
+                    if (size() > TileStore.this.maxEntries) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /** 신선한 항목만 반환 */
+        T get(long key, long now) {
+            CachedTile<T> tile = find(key, now);
+            if (tile == null || !tile.isFresh(now)) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            tile.accesses.incrementAndGet();
+            return tile.value;
+        }
+
+        /** max-stale 범위 안의 만료된 항목까지 반환 */
+        CachedTile<T> lookup(long key, long now) {
+            CachedTile<T> tile = find(key, now);
+            if (tile == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (tile.isFresh(now)) {
+                hits.incrementAndGet();
+            } else {
+                staleHits.incrementAndGet();
+            }
+            tile.accesses.incrementAndGet();
+            return tile;
+        }
+
+        /** max-stale 까지 지난 항목은 제거하고 null */
+        private CachedTile<T> find(long key, long now) {
+            synchronized (tiles) {
+                CachedTile<T> tile = tiles.get(key);
+                if (tile != null && tile.expiresAtMillis + maxStaleMillis <= now) {
+                    tiles.remove(key);
+                    return null;
+                }
+                return tile;
+            }
+        }
+
+        /** 적중/미스 통계에 반영하지 않고 유효한 항목만 조회 */
+        CachedTile<T> peek(long key, long now) {
+            synchronized (tiles) {
+                CachedTile<T> tile = tiles.get(key);
+                return tile != null && tile.expiresAtMillis > now ? tile : null;
+            }
+        }
+
+        void put(long key, CachedTile<T> tile) {
+            CachedTile<T> previous;
+            synchronized (tiles) {
+                previous = tiles.put(key, tile);
+            }
+            if (previous != null) {
+                tile.accesses.addAndGet(previous.accesses.get());
+            }
+        }
+
+        List<CachedTile<T>> hot(int minAccesses, long aheadMillis, long now) {
+            List<CachedTile<T>> hot = new ArrayList<>();
+            synchronized (tiles) {
+                for (CachedTile<T> tile : tiles.values()) {
+                    if (tile.accesses.get() >= minAccesses
+                            && tile.expiresAtMillis - now <= aheadMillis
+                            && tile.expiresAtMillis + maxStaleMillis > now) {
+                        hot.add(tile);
+                    }
+                }
+            }
+            hot.sort((a, b) -> Integer.compare(b.accesses.get(), a.accesses.get()));
+            return hot;
+        }
+
+        void decay() {
+            synchronized (tiles) {
+                for (CachedTile<T> tile : tiles.values()) {
+                    tile.accesses.updateAndGet(count -> count / 2);
+                }
+            }
+        }
+
+        List<CachedTile<T>> live(long now) {
+            synchronized (tiles) {
+                List<CachedTile<T>> live = new ArrayList<>(tiles.size());
+                for (CachedTile<T> tile : tiles.values()) {
+                    if (tile.expiresAtMillis > now) live.add(tile);
+                }
+                return live;
+            }
+        }
+
+        Map<String, Object> stats() {
+            int size;
+            synchronized (tiles) {
+                size = tiles.size();
+            }
+            return Map.of(
+                    "size", size,
+                    "maxEntries", maxEntries,
+                    "hits", hits.get(),
+                    "staleHits", staleHits.get(),
+                    "misses", misses.get(),
+                    "evictions", evictions.get());
+        }
+    }
+}
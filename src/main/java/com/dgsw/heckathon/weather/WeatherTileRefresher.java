@@ -0,0 +1,97 @@
+package com.dgsw.heckathon.weather;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 자주 조회되는 타일을 만료 직전에 미리 다시 조회해, 요청 경로에서 업스트림을 기다리는 일이 없도록 합니다.
+ * 타일별 조회 횟수는 캐시가 세고, 여기서는 주기적으로 조회 횟수를 감쇠시키며 갱신 대상을 고릅니다.
+ * 갱신 호출도 공용 호출 제한기를 거치므로, 한 주기에 보내는 갱신 수는 max-per-cycle 로 제한합니다.
+ */
+@Component
+public class WeatherTileRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherTileRefresher.class);
+
+    private final WeatherTileCache tileCache;
+    private final OpenWeatherApiService openWeatherApiService;
+    private final boolean enabled;
+    private final int minAccesses;
+    private final long aheadMillis;
+    private final int maxPerCycle;
+    private final long decayIntervalMillis;
+
+    private long lastDecayMillis = System.currentTimeMillis();
+    private final AtomicLong currentRefreshes = new AtomicLong();
+    private final AtomicLong forecastRefreshes = new AtomicLong();
+
+    public WeatherTileRefresher(WeatherTileCache tileCache, OpenWeatherApiService openWeatherApiService,
+                                @Value("${weather.refresh.enabled:true}") boolean enabled,
+                                @Value("${weather.refresh.min-accesses:3}") int minAccesses,
+                                @Value("${weather.refresh.ahead-seconds:60}") long aheadSeconds,
+                                @Value("${weather.refresh.max-per-cycle:20}") int maxPerCycle,
+                                @Value("${weather.refresh.access-half-life-seconds:600}") long accessHalfLifeSeconds) {
+        this.tileCache = tileCache;
+        this.openWeatherApiService = openWeatherApiService;
+        this.enabled = enabled && tileCache.isEnabled();
+        this.minAccesses = Math.max(1, minAccesses);
+        this.aheadMillis = aheadSeconds * 1000L;
+        this.maxPerCycle = maxPerCycle;
+        this.decayIntervalMillis = accessHalfLifeSeconds * 1000L;
+    }
+
+    @Scheduled(fixedDelayString = "${weather.refresh.interval-ms:15000}", initialDelayString = "${weather.refresh.interval-ms:15000}")
+    public void refreshHotTiles() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastDecayMillis >= decayIntervalMillis) {
+            tileCache.decayAccesses();
+            lastDecayMillis = now;
+        }
+
+        int budget = maxPerCycle;
+        List<WeatherTileCache.CachedTile<CurrentWeatherResponse>> current = tileCache.hotCurrentTiles(minAccesses, aheadMillis);
+        for (int i = 0; i < current.size() && budget > 0; i++) {
+            WeatherTileCache.CachedTile<CurrentWeatherResponse> tile = current.get(i);
+            if (recentlyFetched(tile, now)) continue;
+            openWeatherApiService.refreshCurrent(tile.lat, tile.lon);
+            currentRefreshes.incrementAndGet();
+            budget--;
+        }
+        List<WeatherTileCache.CachedTile<ForecastResponse>> forecast = tileCache.hotForecastTiles(minAccesses, aheadMillis);
+        for (int i = 0; i < forecast.size() && budget > 0; i++) {
+            WeatherTileCache.CachedTile<ForecastResponse> tile = forecast.get(i);
+            if (recentlyFetched(tile, now)) continue;
+            openWeatherApiService.refreshForecast(tile.lat, tile.lon);
+            forecastRefreshes.incrementAndGet();
+            budget--;
+        }
+
+        int requested = maxPerCycle - budget;
+        if (requested > 0) {
+            logger.debug("자주 조회되는 날씨 타일 {}개 미리 갱신 요청 (대상 현재 {} / 예보 {})",
+                    requested, current.size(), forecast.size());
+        }
+    }
+
+    /** 업스트림 관측 시각이 오래돼 짧은 TTL 을 받은 타일을 매 주기 다시 조회하지 않도록, 갱신 간격은 ahead-seconds 이상 */
+    private boolean recentlyFetched(WeatherTileCache.CachedTile<?> tile, long now) {
+        return now - tile.fetchedAtMillis < aheadMillis;
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "enabled", enabled,
+                "currentRefreshes", currentRefreshes.get(),
+                "forecastRefreshes", forecastRefreshes.get());
+    }
+}
@@ -0,0 +1,69 @@
+package com.dgsw.heckathon.weather;
+
+/**
+ * 위도/경도를 일정 해상도의 격자(타일)로 양자화하는 유틸리티.
+ * 타일 키는 (행, 열)을 하나의 long 으로 묶어 박싱 없이 비교/해시할 수 있게 합니다.
+ */
+public final class WeatherTiles {
+
+    private WeatherTiles() {
+    }
+
+    /** 경도를 [-180, 180) 범위로 정규화 */
+    public static double normalizeLon(double lon) {
+        double normalized = (lon + 180.0) % 360.0;
+        if (normalized < 0) normalized += 360.0;
+        return normalized - 180.0;
+    }
+
+    /** 위도를 [-90, 90] 범위로 제한 */
+    public static double clampLat(double lat) {
+        return Math.max(-90.0, Math.min(90.0, lat));
+    }
+
+    public static int row(double lat, double resolution) {
+        int rows = rows(resolution);
+        int row = (int) Math.floor((clampLat(lat) + 90.0) / resolution);
+        return Math.min(row, rows - 1); // 북극(90도)은 마지막 행에 포함
+    }
+
+    public static int col(double lon, double resolution) {
+        int cols = cols(resolution);
+        int col = (int) Math.floor((normalizeLon(lon) + 180.0) / resolution);
+        return Math.floorMod(col, cols);
+    }
+
+    public static int rows(double resolution) {
+        return (int) Math.ceil(180.0 / resolution);
+    }
+
+    public static int cols(double resolution) {
+        return (int) Math.ceil(360.0 / resolution);
+    }
+
+    public static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    public static long tileKey(double lat, double lon, double resolution) {
+        return key(row(lat, resolution), col(lon, resolution));
+    }
+
+    public static int rowOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public static int colOf(long key) {
+        return (int) key;
+    }
+
+    /** 타일 중심 위도 */
+    public static double centerLat(int row, double resolution) {
+        return Math.min(90.0, -90.0 + (row + 0.5) * resolution);
+    }
+
+    /** 타일 중심 경도 */
+    public static double centerLon(int col, double resolution) {
+        return normalizeLon(-180.0 + (col + 0.5) * resolution);
+    }
+}
@@ -0,0 +1,50 @@
+package com.dgsw.heckathon.ai;
+
+import com.dgsw.heckathon.weather.WeatherTileCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScanBudgetTests {
+
+    private final WeatherTileCache tileCache = new WeatherTileCache(true, 0.25, 600, 3600, 60, 5000, 120);
+
+    @Test
+    void deniedTilesDoNotBecomeFreeCallsAfterExhaustion() {
+        int budget = 4;
+        ScanBudget calls = new ScanBudget(tileCache, budget);
+        Set<Long> fetchedTiles = new HashSet<>();
+
+        // 서로 다른 타일 10개, 타일마다 지점 3개. 지점은 타일을 번갈아 가며 조회
+        for (int round = 0; round < 3; round++) {
+            for (int tile = 0; tile < 10; tile++) {
+                double lat = 10.0 + tile;
+                double lon = 120.0 + round * 0.05; // 같은 0.25도 타일 안
+                if (calls.admit(lat, lon)) {
+                    fetchedTiles.add(tileCache.tileKey(lat, lon));
+                }
+            }
+        }
+
+        assertTrue(calls.isExhausted());
+        assertEquals(budget, calls.getCalls());
+        // 캐시에 없는 타일은 조회 1회 = 업스트림 호출 1회
+        assertTrue(fetchedTiles.size() <= budget, () -> "업스트림 호출 " + fetchedTiles.size() + "회 > 예산 " + budget);
+    }
+
+    @Test
+    void sameTileIsChargedOnce() {
+        ScanBudget calls = new ScanBudget(tileCache, 1);
+
+        assertTrue(calls.admit(35.0, 129.0));
+        assertTrue(calls.admit(35.05, 129.05));
+        assertFalse(calls.admit(36.0, 129.0));
+        assertTrue(calls.admit(35.1, 129.1));
+        assertEquals(1, calls.getCalls());
+    }
+}
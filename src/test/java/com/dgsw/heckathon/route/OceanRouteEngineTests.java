@@ -0,0 +1,74 @@
+package com.dgsw.heckathon.route;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OceanRouteEngineTests {
+
+    // 마스크 로딩이 테스트마다 반복되지 않도록 공유 (기본 설정과 같은 0.5도 격자, 70도 제한, 스냅 4칸)
+    private static final LandMask LAND_MASK = new LandMask("/landmask/land-polygons.txt", 0.5);
+    private static final OceanRouteEngine ENGINE = new OceanRouteEngine(LAND_MASK, 70, 4);
+    private static final WaypointValidator VALIDATOR = new WaypointValidator(LAND_MASK, ENGINE);
+
+    @Test
+    void singaporeToColomboGoesThroughTheMalaccaStrait() {
+        List<Waypoint> route = ENGINE.route(1.26, 103.82, 6.93, 79.84);
+
+        assertNotNull(route);
+        assertEndpoints(route, 1.26, 103.82, 6.93, 79.84);
+        assertTrue(VALIDATOR.validate(route).isValid(), "경로가 육지를 지나면 안 됨");
+        assertTrue(route.stream().anyMatch(w -> w.getLatitude() > 2 && w.getLatitude() < 6
+                        && w.getLongitude() > 98 && w.getLongitude() < 101.5),
+                "말라카 해협 안의 경유지가 있어야 함");
+        // 대권 거리 약 2,700 km. 수마트라 남쪽으로 돌아가면 3,800 km 이상
+        double km = RouteGeometry.totalKm(RouteGeometry.pack(route));
+        assertTrue(km > RouteGeometry.haversineKm(1.26, 103.82, 6.93, 79.84) && km < 3200, () -> "경로 길이 " + km);
+    }
+
+    @Test
+    void startOnLandSnapsToNearestSeaCell() {
+        // 부산 내륙 (육지 칸) -> 제주 앞바다
+        assertTrue(LAND_MASK.isLand(35.2, 128.9));
+
+        double[] sea = ENGINE.nearestSea(35.2, 128.9);
+        assertNotNull(sea);
+        assertFalse(LAND_MASK.isLand(sea[0], sea[1]));
+
+        List<Waypoint> route = ENGINE.route(35.2, 128.9, 33.5, 126.5);
+        assertNotNull(route);
+        assertEndpoints(route, 35.2, 128.9, 33.5, 126.5);
+        assertTrue(VALIDATOR.validate(route).isValid());
+    }
+
+    @Test
+    void endOnLandSnapsToNearestSeaCell() {
+        // 부산 -> 도쿄 도심 (육지 칸). 규슈 남쪽을 돌아 도쿄만으로
+        assertTrue(LAND_MASK.isLand(35.45, 139.65));
+
+        List<Waypoint> route = ENGINE.route(35.10, 129.04, 35.45, 139.65);
+        assertNotNull(route);
+        assertEndpoints(route, 35.10, 129.04, 35.45, 139.65);
+        assertTrue(VALIDATOR.validate(route).isValid());
+    }
+
+    @Test
+    void inlandPointBeyondSnapRadiusHasNoRoute() {
+        // 몽골 내륙: 스냅 반경(4칸, 2도) 안에 바다가 없음
+        assertNull(ENGINE.nearestSea(45, 100));
+        assertNull(ENGINE.route(45, 100, 35, 140));
+    }
+
+    private static void assertEndpoints(List<Waypoint> route, double startLat, double startLon, double endLat, double endLon) {
+        assertEquals(startLat, route.get(0).getLatitude(), 1e-9);
+        assertEquals(startLon, route.get(0).getLongitude(), 1e-9);
+        assertEquals(endLat, route.get(route.size() - 1).getLatitude(), 1e-9);
+        assertEquals(endLon, route.get(route.size() - 1).getLongitude(), 1e-9);
+    }
+}
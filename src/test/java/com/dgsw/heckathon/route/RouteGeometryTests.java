@@ -0,0 +1,83 @@
+package com.dgsw.heckathon.route;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RouteGeometryTests {
+
+    // 반지름 6371.0088 km 구면에서 대권 1도의 길이
+    private static final double DEGREE_KM = Math.toRadians(1) * GreatCircle.EARTH_RADIUS_KM;
+
+    @Test
+    void haversineMatchesKnownDistances() {
+        assertEquals(DEGREE_KM, RouteGeometry.haversineKm(0, 0, 0, 1), 1e-9);
+        assertEquals(90 * DEGREE_KM, RouteGeometry.haversineKm(0, 0, 90, 0), 1e-6);
+        // 부산 - 도쿄 약 960 km
+        assertEquals(960, RouteGeometry.haversineKm(35.10, 129.04, 35.68, 139.77), 15);
+    }
+
+    @Test
+    void cumulativeDistanceAndEtaFollowEachLeg() {
+        double[] path = RouteGeometry.pack(List.of(new Waypoint(0.0, 0.0), new Waypoint(0.0, 1.0), new Waypoint(1.0, 1.0)));
+        double[] cumulative = new double[RouteGeometry.size(path)];
+
+        double total = RouteGeometry.cumulativeKm(path, cumulative);
+
+        assertEquals(3, RouteGeometry.size(path));
+        assertEquals(0.0, cumulative[0], 1e-9);
+        assertEquals(DEGREE_KM, cumulative[1], 1e-9);
+        assertEquals(2 * DEGREE_KM, cumulative[2], 1e-9);
+        assertEquals(total, RouteGeometry.totalKm(path), 1e-9);
+
+        double[] hours = new double[3];
+        RouteGeometry.etaHours(cumulative, 3, 10, hours);
+        assertEquals(2 * DEGREE_KM / (10 * RouteGeometry.KNOT_KMH), hours[2], 1e-9);
+    }
+
+    @Test
+    void legBearingIsClockwiseFromNorth() {
+        double[] path = {0, 0, 0, 10, 10, 10, 0, 10};
+
+        assertEquals(90.0, RouteGeometry.legBearing(path, 0), 1e-9);
+        assertEquals(0.0, RouteGeometry.legBearing(path, 1), 1e-9);
+        assertEquals(180.0, RouteGeometry.legBearing(path, 2), 1e-9);
+    }
+
+    @Test
+    void pointAtInterpolatesAlongThePathAndClampsToEnds() {
+        double[] path = {0, 0, 0, 10, 10, 10};
+        double[] cumulative = new double[3];
+        RouteGeometry.cumulativeKm(path, cumulative);
+        double[] point = new double[2];
+
+        RouteGeometry.pointAt(path, cumulative, 5 * DEGREE_KM, point);
+        assertEquals(0.0, point[0], 1e-9);
+        assertEquals(5.0, point[1], 1e-9);
+
+        RouteGeometry.pointAt(path, cumulative, 15 * DEGREE_KM, point);
+        assertEquals(5.0, point[0], 1e-6);
+        assertEquals(10.0, point[1], 1e-6);
+
+        RouteGeometry.pointAt(path, cumulative, -1, point);
+        assertEquals(0.0, point[0], 0.0);
+        assertEquals(0.0, point[1], 0.0);
+
+        RouteGeometry.pointAt(path, cumulative, cumulative[2] + 100, point);
+        assertEquals(10.0, point[0], 0.0);
+        assertEquals(10.0, point[1], 0.0);
+    }
+
+    @Test
+    void segmentDistanceUsesCrossTrackOrNearestEnd() {
+        // 구간 옆: 적도 구간에서 북쪽으로 1도
+        assertEquals(DEGREE_KM, RouteGeometry.segmentDistanceKm(1, 5, 0, 0, 0, 10), 1e-6);
+        // B 를 지난 쪽, A 보다 뒤쪽
+        assertEquals(2 * DEGREE_KM, RouteGeometry.segmentDistanceKm(0, 12, 0, 0, 0, 10), 1e-6);
+        assertEquals(3 * DEGREE_KM, RouteGeometry.segmentDistanceKm(0, -3, 0, 0, 0, 10), 1e-6);
+        // 길이가 0인 구간
+        assertEquals(DEGREE_KM, RouteGeometry.segmentDistanceKm(1, 0, 0, 0, 0, 0), 1e-6);
+    }
+}
@@ -0,0 +1,71 @@
+package com.dgsw.heckathon.route;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WaypointStreamParserTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void emitsEachWaypointWhenFedOneCharacterAtATime() {
+        String text = "{\"waypoints\": [{\"latitude\": 35.1, \"longitude\": 129.0}, {\"latitude\": 34.0, \"longitude\": 130.5}]}";
+        List<Waypoint> waypoints = new ArrayList<>();
+        WaypointStreamParser parser = new WaypointStreamParser(objectMapper, waypoints::add);
+
+        int firstClose = text.indexOf('}');
+        for (int i = 0; i < text.length(); i++) {
+            parser.feed(text.substring(i, i + 1));
+            if (i == firstClose - 1) {
+                assertEquals(0, waypoints.size());
+            } else if (i == firstClose) {
+                // 첫 객체가 닫히는 조각에서 바로 전달됨 (전체 응답을 기다리지 않음)
+                assertEquals(1, waypoints.size());
+            }
+        }
+
+        assertEquals(2, waypoints.size());
+        assertEquals(2, parser.emitted());
+        assertEquals(35.1, waypoints.get(0).getLatitude(), 0.0);
+        assertEquals(130.5, waypoints.get(1).getLongitude(), 0.0);
+    }
+
+    @Test
+    void bracesAndEscapesInsideStringsSurviveAnyChunkBoundary() {
+        // 문자열 안의 중괄호, 이스케이프된 따옴표, 백슬래시로 끝나는 문자열
+        String text = "{\"waypoints\": [{\"note\": \"a \\\"}{\\\" b\", \"latitude\": 1.5, \"longitude\": 2.5},"
+                + " {\"name\": \"c:\\\\\", \"latitude\": -3.0, \"longitude\": 4.0}]}";
+
+        for (int split = 0; split <= text.length(); split++) {
+            for (int second = split; second <= text.length(); second += 7) {
+                List<Waypoint> waypoints = new ArrayList<>();
+                WaypointStreamParser parser = new WaypointStreamParser(objectMapper, waypoints::add);
+                parser.feed(text.substring(0, split));
+                parser.feed(text.substring(split, second));
+                parser.feed(text.substring(second));
+
+                assertEquals(2, waypoints.size(), "split at " + split + ", " + second);
+                assertEquals(1.5, waypoints.get(0).getLatitude(), 0.0);
+                assertEquals(-3.0, waypoints.get(1).getLatitude(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    void ignoresCodeFencesProseAndObjectsWithoutCoordinates() {
+        List<Waypoint> waypoints = new ArrayList<>();
+        WaypointStreamParser parser = new WaypointStreamParser(objectMapper, waypoints::add);
+
+        parser.feed("경로입니다.\n```json\n{\"waypoints\": [{\"latitude\": \"35\", \"longitude\": 129}, ");
+        parser.feed("{\"latitude\": 34.5}, {\"latitude\": 33.0, \"longitude\": 127.0}]}\n```\n참고하세요 {");
+
+        assertEquals(1, waypoints.size());
+        assertEquals(33.0, waypoints.get(0).getLatitude(), 0.0);
+        assertEquals(127.0, waypoints.get(0).getLongitude(), 0.0);
+    }
+}
@@ -0,0 +1,83 @@
+package com.dgsw.heckathon.weather;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ForecastSeriesTests {
+
+    private static final long T0 = 1_750_000_000L;
+    private static final long STEP = ForecastSeries.STEP_SECONDS;
+
+    // 세 단계: 두 번째 단계에만 비, 세 번째 단계는 기온 없음, 풍향은 350 -> 10 (북쪽을 지나감)
+    private final ForecastSeries series = ForecastSeries.from(read("{\"list\": ["
+            + "{\"dt\": " + T0 + ", \"main\": {\"temp\": 10.0, \"humidity\": 60}, \"wind\": {\"speed\": 4.0, \"deg\": 350},"
+            + " \"weather\": [{\"id\": 800, \"main\": \"Clear\", \"description\": \"맑음\"}]},"
+            + "{\"dt\": " + (T0 + STEP) + ", \"main\": {\"temp\": 16.0, \"humidity\": 80}, \"wind\": {\"speed\": 8.0, \"deg\": 10},"
+            + " \"rain\": {\"3h\": 3.0}, \"weather\": [{\"id\": 500, \"main\": \"Rain\", \"description\": \"약한 비\"}]},"
+            + "{\"dt\": " + (T0 + 2 * STEP) + ", \"main\": {\"humidity\": 90}, \"wind\": {\"speed\": 6.0, \"deg\": 20}}"
+            + "]}"));
+
+    @Test
+    void interpolatesBetweenSteps() {
+        ForecastConditions mid = series.at(T0 + STEP / 2);
+
+        assertNotNull(mid);
+        assertEquals(13.0, mid.getTemperature(), 1e-6);
+        assertEquals(70.0, mid.getHumidity(), 1e-6);
+        assertEquals(6.0, mid.getWindSpeed(), 1e-6);
+        // 한쪽에 비 값이 없으면 0 으로 보고 보간
+        assertEquals(1.5, mid.getRain3h(), 1e-6);
+        // 날씨 코드는 가까운 단계 (정확히 가운데면 뒤 단계)
+        assertEquals(500, mid.getWeatherId());
+
+        ForecastConditions early = series.at(T0 + STEP / 4);
+        assertNotNull(early);
+        assertEquals(800, early.getWeatherId());
+    }
+
+    @Test
+    void windDirectionTakesTheShortArc() {
+        ForecastConditions mid = series.at(T0 + STEP / 2);
+
+        assertNotNull(mid);
+        // 350 과 10 의 가운데는 180 이 아니라 0
+        assertEquals(0.0, mid.getWindDeg() % 360.0, 1e-6);
+    }
+
+    @Test
+    void exactStepAndMissingValuesUseAvailableSide() {
+        ForecastConditions atStep = series.at(T0 + STEP);
+        assertNotNull(atStep);
+        assertEquals(16.0, atStep.getTemperature(), 1e-6);
+
+        // 세 번째 단계는 기온이 없으므로 두 번째 단계 값을 그대로 사용
+        ForecastConditions late = series.at(T0 + STEP + STEP / 2);
+        assertNotNull(late);
+        assertEquals(16.0, late.getTemperature(), 1e-6);
+        assertEquals(85.0, late.getHumidity(), 1e-6);
+    }
+
+    @Test
+    void outsideTheForecastRangeIsNull() {
+        // 첫 단계 이전 한 간격 안은 첫 단계 값, 그보다 이르면 범위 밖
+        ForecastConditions before = series.at(T0 - STEP / 2);
+        assertNotNull(before);
+        assertEquals(10.0, before.getTemperature(), 1e-6);
+
+        assertNull(series.at(T0 - STEP - 1));
+        assertNull(series.at(T0 + 2 * STEP + 1));
+        assertNull(ForecastSeries.from(null).at(T0));
+    }
+
+    private static ForecastResponse read(String json) {
+        try {
+            return new ObjectMapper().readValue(json, ForecastResponse.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
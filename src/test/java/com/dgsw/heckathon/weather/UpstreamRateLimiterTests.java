@@ -0,0 +1,75 @@
+package com.dgsw.heckathon.weather;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamRateLimiterTests {
+
+    @Test
+    void waitsForTokenRefillOnceBurstIsSpent() throws Exception {
+        // 분당 600회 = 100ms 마다 토큰 1개, 버스트 2
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(true, 600, 2, 4, 1, 32, 1500, 100, 5000);
+        try {
+            CompletableFuture<UpstreamRateLimiter.Permit> first = limiter.acquire();
+            CompletableFuture<UpstreamRateLimiter.Permit> second = limiter.acquire();
+            long startedAt = System.nanoTime();
+            CompletableFuture<UpstreamRateLimiter.Permit> third = limiter.acquire();
+
+            assertTrue(first.isDone() && second.isDone(), "버스트 안의 호출은 바로 허가");
+            assertFalse(third.isDone(), "토큰이 없으면 대기");
+
+            UpstreamRateLimiter.Permit permit = third.get(2, TimeUnit.SECONDS);
+            long waitedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+            assertTrue(waitedMillis >= 50, () -> "토큰이 찰 때까지 기다려야 함: " + waitedMillis + "ms");
+
+            first.join().release(200);
+            second.join().release(200);
+            permit.release(200);
+            assertEquals(3L, limiter.stats().get("granted"));
+            assertEquals(0, limiter.stats().get("inFlight"));
+        } finally {
+            limiter.shutdown();
+        }
+    }
+
+    @Test
+    void halvesConcurrencyOnThrottleDownToMinimum() {
+        // 목표 지연 0ms: 실패마다 바로 절반으로
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(true, 60_000, 10, 8, 1, 32, 0, 100, 5000);
+        try {
+            double[] expected = {4.0, 2.0, 1.0, 1.0};
+            for (double limit : expected) {
+                limiter.acquire().join().release(429);
+                assertEquals(limit, limiter.stats().get("concurrencyLimit"));
+            }
+            assertEquals(4L, limiter.stats().get("throttled"));
+        } finally {
+            limiter.shutdown();
+        }
+    }
+
+    @Test
+    void throttleEmptiesTokensAndBurstOfFailuresHalvesOnce() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(true, 600, 10, 8, 1, 32, 60_000, 100, 5000);
+        try {
+            UpstreamRateLimiter.Permit first = limiter.acquire().join();
+            UpstreamRateLimiter.Permit second = limiter.acquire().join();
+
+            first.release(429);
+            assertTrue((double) limiter.stats().get("tokens") < 1.0, "429 이후에는 모아 둔 토큰을 비움");
+
+            // 같은 목표 지연 시간 안의 실패는 한 번만 줄임
+            second.release(503);
+            assertEquals(4.0, limiter.stats().get("concurrencyLimit"));
+            assertEquals(2L, limiter.stats().get("failures"));
+        } finally {
+            limiter.shutdown();
+        }
+    }
+}